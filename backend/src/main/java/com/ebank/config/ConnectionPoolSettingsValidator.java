@@ -0,0 +1,114 @@
+package com.ebank.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Logs a warning at startup for every production setting known to hurt
+ * throughput or stability. It never fails the boot, it only makes the
+ * problem visible.
+ */
+@Slf4j
+@Component
+@Profile("prod")
+@RequiredArgsConstructor
+public class ConnectionPoolSettingsValidator {
+
+    private static final List<String> REQUIRED_DRIVER_PROPERTIES = List.of(
+            "cachePrepStmts", "useServerPrepStmts", "rewriteBatchedStatements");
+
+    private final ObjectProvider<HikariDataSource> dataSources;
+    private final Environment environment;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void validate() {
+        dataSources.orderedStream().forEach(this::validatePool);
+        validateJpa();
+        validateRedis();
+        validateLogging();
+    }
+
+    private void validatePool(HikariDataSource pool) {
+        String name = pool.getPoolName();
+
+        if (pool.getMinimumIdle() > pool.getMaximumPoolSize()) {
+            log.warn("[{}] minimum-idle ({}) is larger than maximum-pool-size ({})",
+                    name, pool.getMinimumIdle(), pool.getMaximumPoolSize());
+        }
+        if (pool.getMaximumPoolSize() <= 10) {
+            log.warn("[{}] maximum-pool-size is {} (Hikari default); size the pool for production load",
+                    name, pool.getMaximumPoolSize());
+        }
+        if (pool.getConnectionTimeout() > 5000) {
+            log.warn("[{}] connection-timeout is {} ms; requests will queue for a long time when the pool is saturated",
+                    name, pool.getConnectionTimeout());
+        }
+        if (pool.getLeakDetectionThreshold() == 0) {
+            log.warn("[{}] leak-detection-threshold is disabled", name);
+        }
+
+        Properties props = pool.getDataSourceProperties();
+        for (String property : REQUIRED_DRIVER_PROPERTIES) {
+            if (!Boolean.parseBoolean(props.getProperty(property))) {
+                log.warn("[{}] driver property {} is not enabled", name, property);
+            }
+        }
+
+        validateMaxLifetime(pool);
+    }
+
+    private void validateMaxLifetime(HikariDataSource pool) {
+        try (Connection connection = pool.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT @@wait_timeout")) {
+            if (rs.next()) {
+                long waitTimeoutMs = rs.getLong(1) * 1000;
+                if (pool.getMaxLifetime() == 0 || pool.getMaxLifetime() >= waitTimeoutMs) {
+                    log.warn("[{}] max-lifetime ({} ms) must be shorter than MySQL wait_timeout ({} ms)",
+                            pool.getPoolName(), pool.getMaxLifetime(), waitTimeoutMs);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("[{}] could not read MySQL wait_timeout: {}", pool.getPoolName(), e.getMessage());
+        }
+    }
+
+    private void validateJpa() {
+        if (environment.getProperty("spring.jpa.show-sql", Boolean.class, false)) {
+            log.warn("spring.jpa.show-sql is enabled; every statement is written to stdout");
+        }
+        String ddlAuto = environment.getProperty("spring.jpa.hibernate.ddl-auto", "none");
+        if ("create".equals(ddlAuto) || "create-drop".equals(ddlAuto)) {
+            log.warn("spring.jpa.hibernate.ddl-auto is '{}'; the schema will be dropped", ddlAuto);
+        }
+    }
+
+    private void validateRedis() {
+        if (!environment.getProperty("spring.data.redis.lettuce.pool.enabled", Boolean.class, false)) {
+            log.warn("Lettuce pooling is disabled; all Redis traffic shares a single connection");
+        }
+    }
+
+    private void validateLogging() {
+        for (String logger : List.of("org.springframework.web", "org.springframework.security",
+                "org.springframework.cache", "org.hibernate.SQL")) {
+            String level = environment.getProperty("logging.level." + logger);
+            if ("DEBUG".equalsIgnoreCase(level) || "TRACE".equalsIgnoreCase(level)) {
+                log.warn("Logger {} is at {} in production", logger, level);
+            }
+        }
+    }
+}
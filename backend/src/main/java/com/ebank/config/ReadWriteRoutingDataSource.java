@@ -0,0 +1,35 @@
+package com.ebank.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends connections for {@code @Transactional(readOnly = true)} work to the
+ * read replica, and everything else to the primary. Falls back to the primary
+ * while {@link ReplicaLagMonitor} reports the replica as lagging or down.
+ * Must sit behind a {@code LazyConnectionDataSourceProxy} so the lookup
+ * happens after the transaction's read-only flag is bound.
+ * <p>
+ * A replica may be behind by up to {@code max-lag-seconds}, so reads that
+ * fill a Redis cache are not marked read-only: a cache evicted right after a
+ * commit would otherwise be filled again from a replica that has not applied
+ * that commit yet, and serve the old value for the whole TTL.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route { PRIMARY, REPLICA }
+
+    private final ReplicaLagMonitor lagMonitor;
+
+    public ReadWriteRoutingDataSource(ReplicaLagMonitor lagMonitor) {
+        this.lagMonitor = lagMonitor;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && lagMonitor.isReplicaUsable()) {
+            return Route.REPLICA;
+        }
+        return Route.PRIMARY;
+    }
+}
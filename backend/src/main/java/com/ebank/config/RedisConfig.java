@@ -1,12 +1,16 @@
 package com.ebank.config;
 
+import com.ebank.metrics.RedisCommandTimer;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnection;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
@@ -15,7 +19,12 @@ public class RedisConfig {
 
     @Bean
     public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
-        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        RedisTemplate<String, Object> template = new RedisTemplate<>() {
+            @Override
+            protected RedisConnection preProcessConnection(RedisConnection connection, boolean existingConnection) {
+                return RedisCommandTimer.wrap(super.preProcessConnection(connection, existingConnection));
+            }
+        };
         template.setConnectionFactory(connectionFactory);
 
         ObjectMapper objectMapper = new ObjectMapper();
@@ -37,4 +46,28 @@ public class RedisConfig {
 
         return template;
     }
+
+    /**
+     * Replaces the auto-configured template so that commands issued through
+     * it, directly or by scripts, are counted per request like the cache's.
+     */
+    @Bean
+    public StringRedisTemplate stringRedisTemplate(RedisConnectionFactory connectionFactory) {
+        StringRedisTemplate template = new StringRedisTemplate() {
+            @Override
+            protected RedisConnection preProcessConnection(RedisConnection connection, boolean existingConnection) {
+                return RedisCommandTimer.wrap(super.preProcessConnection(connection, existingConnection));
+            }
+        };
+        template.setConnectionFactory(connectionFactory);
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+package com.ebank.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Polls {@code SHOW REPLICA STATUS} on the replica and marks it unusable when
+ * replication is stopped, the lag exceeds {@code app.datasource.replica.max-lag-seconds}
+ * or the replica cannot be reached. A server that is not configured as a
+ * replica (e.g. a local stand-in pointing at the primary) is treated as in sync.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private final DataSource replicaDataSource;
+    private final long maxLagSeconds;
+    private volatile boolean replicaUsable = true;
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, long maxLagSeconds) {
+        this.replicaDataSource = replicaDataSource;
+        this.maxLagSeconds = maxLagSeconds;
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval-ms:5000}")
+    public void checkLag() {
+        boolean usable;
+        try (Connection connection = replicaDataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SHOW REPLICA STATUS")) {
+            if (!rs.next()) {
+                usable = true;
+            } else {
+                long lag = rs.getLong("Seconds_Behind_Source");
+                usable = !rs.wasNull() && lag <= maxLagSeconds;
+                if (!usable) {
+                    log.warn("Replica lag is {} seconds (max {}); routing reads to primary",
+                            rs.wasNull() ? "unknown" : lag, maxLagSeconds);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Replica health check failed, routing reads to primary: {}", e.getMessage());
+            usable = false;
+        }
+
+        if (usable && !replicaUsable) {
+            log.info("Replica caught up; routing read-only transactions to replica again");
+        }
+        replicaUsable = usable;
+    }
+}
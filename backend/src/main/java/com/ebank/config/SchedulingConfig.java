@@ -0,0 +1,15 @@
+package com.ebank.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables the {@code @Scheduled} jobs. They run on Spring Boot's
+ * {@code ThreadPoolTaskScheduler}, sized by
+ * {@code spring.task.scheduling.pool.size}, so a slow job no longer delays
+ * every other one as it did on the default single thread.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,6 +1,7 @@
 package com.ebank.config;
 
 import com.ebank.security.*;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.context.annotation.Bean;
@@ -74,6 +75,8 @@ public class SecurityConfig {
                                 .maxAgeInSeconds(31536000)))
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                        // إكمال طلبات الـ SSE غير المتزامنة بعد التحقق من الطلب الأصلي
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(SecurityConstants.PUBLIC_URLS).permitAll()
 
                         .requestMatchers("/api/users/me").hasAnyRole(SecurityConstants.ADMIN_ROLE, SecurityConstants.USER_ROLE)
@@ -113,6 +116,10 @@ public class SecurityConfig {
                         // Analytics
                         .requestMatchers(SecurityConstants.ANALYTICS_BASE_URL + "/**").hasAnyRole(SecurityConstants.ADMIN_ROLE, SecurityConstants.USER_ROLE)
 
+                        // Actuator
+                        .requestMatchers(SecurityConstants.ACTUATOR_BASE_URL + "/health").permitAll()
+                        .requestMatchers(SecurityConstants.ACTUATOR_BASE_URL + "/**").hasRole(SecurityConstants.ADMIN_ROLE)
+
                         // All other requests
                         .anyRequest().authenticated())
                 .addFilterBefore(refreshTokenFilter, UsernamePasswordAuthenticationFilter.class)
@@ -13,8 +13,8 @@ public final class SecurityConstants {
     // CORS
     public static final String[] ALLOWED_ORIGINS = {"http://localhost:3000", "http://localhost:8081"};
     public static final String[] ALLOWED_METHODS = {"GET","POST","PUT","DELETE","PATCH","OPTIONS"};
-    public static final String[] ALLOWED_HEADERS = { TOKEN_HEADER, "Content-Type", REFRESH_TOKEN_HEADER, "Cookie" };
-    public static final String[] EXPOSED_HEADERS = { TOKEN_HEADER, REFRESH_TOKEN_HEADER, "Set-Cookie" };
+    public static final String[] ALLOWED_HEADERS = { TOKEN_HEADER, "Content-Type", REFRESH_TOKEN_HEADER, "Cookie", "Last-Event-ID" };
+    public static final String[] EXPOSED_HEADERS = { TOKEN_HEADER, REFRESH_TOKEN_HEADER, "Set-Cookie", "X-Request-Metrics" };
 
     // Public URLs (no authentication required)
     public static final String[] PUBLIC_URLS = {
@@ -43,6 +43,7 @@ public final class SecurityConstants {
     public static final String SECURITY_LOG_BASE_URL = "/security-logs";
     public static final String COUPON_BASE_URL = "/discount-coupons";
     public static final String ANALYTICS_BASE_URL = "/analytics";
+    public static final String ACTUATOR_BASE_URL = "/actuator";
 
 
     // Password settings
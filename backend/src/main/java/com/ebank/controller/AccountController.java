@@ -138,10 +138,14 @@ public class AccountController {
         return ResponseEntity.ok().build();
     }
 
-    @Operation(summary = "Search accounts")
+    @Operation(summary = "Search accounts",
+            description = "Matches account number, account name and holder name; best matches first")
     @GetMapping("/search")
-    public ResponseEntity<List<AccountDTO>> searchAccounts(@RequestParam String query) {
-        return ResponseEntity.ok(accountService.searchAccounts(query));
+    public ResponseEntity<List<AccountDTO>> searchAccounts(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(accountService.searchAccounts(query, page, size));
     }
 
     @Operation(summary = "Get accounts by type")
@@ -1,15 +1,25 @@
 package com.ebank.controller;
 
+import com.ebank.dto.BulkCardIssuanceRequest;
+import com.ebank.dto.CardAuthorizationDTO;
+import com.ebank.dto.CardIssuanceBatchDTO;
+import com.ebank.dto.CardIssuanceItemDTO;
+import com.ebank.dto.CardStatementDTO;
 import com.ebank.dto.CreditCardResponseDTO;
 import com.ebank.model.creditCard.CardType;
 import com.ebank.model.creditCard.CreditCard;
+import com.ebank.model.creditCard.IssuanceItemStatus;
 import com.ebank.service.CreditCardService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
@@ -36,6 +46,46 @@ public class CreditCardController {
         return ResponseEntity.status(HttpStatus.CREATED).body(dto);
     }
 
+    @Operation(
+            summary = "Submit bulk card issuance",
+            description = "Queues up to 10000 cards; they are issued in the background and reported per item",
+            responses = {
+                    @ApiResponse(responseCode = "202", description = "Batch accepted"),
+                    @ApiResponse(responseCode = "400", description = "Invalid request")
+            }
+    )
+    @PostMapping("/bulk-issuance")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CardIssuanceBatchDTO> submitBulkIssuance(
+            @Valid @RequestBody BulkCardIssuanceRequest request
+    ) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(creditCardService.submitBulkIssuance(request));
+    }
+
+    @Operation(
+            summary = "Get bulk issuance progress",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Batch status and counters"),
+                    @ApiResponse(responseCode = "404", description = "Batch not found")
+            }
+    )
+    @GetMapping("/bulk-issuance/{batchId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CardIssuanceBatchDTO> getIssuanceBatch(@PathVariable Long batchId) {
+        return ResponseEntity.ok(creditCardService.getIssuanceBatch(batchId));
+    }
+
+    @Operation(summary = "Get bulk issuance results per item (paginated, optionally filtered by status)")
+    @GetMapping("/bulk-issuance/{batchId}/items")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Page<CardIssuanceItemDTO>> getIssuanceItems(
+            @PathVariable Long batchId,
+            @RequestParam(required = false) IssuanceItemStatus status,
+            Pageable pageable
+    ) {
+        return ResponseEntity.ok(creditCardService.getIssuanceItems(batchId, status, pageable));
+    }
+
     @PostMapping("/{cardId}/payments")
     public ResponseEntity<CreditCardResponseDTO> processPayment(
             @PathVariable Long cardId,
@@ -44,6 +94,88 @@ public class CreditCardController {
         return ResponseEntity.ok(creditCardService.processPayment(cardId, amount));
     }
 
+    @Operation(
+            summary = "Authorize card payment",
+            description = "Places a hold on the card's available credit and returns an authorization code",
+            responses = {
+                    @ApiResponse(responseCode = "201", description = "Authorization approved"),
+                    @ApiResponse(responseCode = "400", description = "Declined: inactive card or insufficient credit")
+            }
+    )
+    @PostMapping("/{cardId}/authorizations")
+    public ResponseEntity<CardAuthorizationDTO> authorize(
+            @PathVariable Long cardId,
+            @RequestParam BigDecimal amount,
+            @RequestParam(required = false) String merchant
+    ) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(creditCardService.authorize(cardId, amount, merchant));
+    }
+
+    @Operation(
+            summary = "Capture authorization",
+            description = "Charges the held amount, or a smaller amount and releases the rest",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Authorization captured"),
+                    @ApiResponse(responseCode = "400", description = "Authorization already captured or voided"),
+                    @ApiResponse(responseCode = "404", description = "Authorization not found")
+            }
+    )
+    @PostMapping("/authorizations/{authCode}/capture")
+    public ResponseEntity<CardAuthorizationDTO> captureAuthorization(
+            @PathVariable String authCode,
+            @RequestParam(required = false) BigDecimal amount
+    ) {
+        return ResponseEntity.ok(creditCardService.captureAuthorization(authCode, amount));
+    }
+
+    @Operation(
+            summary = "Void authorization",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Hold released"),
+                    @ApiResponse(responseCode = "400", description = "Authorization already captured or voided"),
+                    @ApiResponse(responseCode = "404", description = "Authorization not found")
+            }
+    )
+    @PostMapping("/authorizations/{authCode}/void")
+    public ResponseEntity<CardAuthorizationDTO> voidAuthorization(@PathVariable String authCode) {
+        return ResponseEntity.ok(creditCardService.voidAuthorization(authCode));
+    }
+
+    @Operation(
+            summary = "Repay card balance",
+            description = "Debits the linked account and restores the card's available credit",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Repayment recorded"),
+                    @ApiResponse(responseCode = "400", description = "Amount exceeds the outstanding balance or the account balance")
+            }
+    )
+    @PostMapping("/{cardId}/repayments")
+    public ResponseEntity<CreditCardResponseDTO> repayCard(
+            @PathVariable Long cardId,
+            @RequestParam BigDecimal amount
+    ) {
+        return ResponseEntity.ok(creditCardService.repayCard(cardId, amount));
+    }
+
+    @Operation(
+            summary = "Get latest statement",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Latest closed statement"),
+                    @ApiResponse(responseCode = "404", description = "No statement closed yet")
+            }
+    )
+    @GetMapping("/{cardId}/statements/latest")
+    public ResponseEntity<CardStatementDTO> getLatestStatement(@PathVariable Long cardId) {
+        return ResponseEntity.ok(creditCardService.getLatestStatement(cardId));
+    }
+
+    @Operation(summary = "Get card statements (paginated, newest first)")
+    @GetMapping("/{cardId}/statements")
+    public ResponseEntity<Page<CardStatementDTO>> getStatements(@PathVariable Long cardId, Pageable pageable) {
+        return ResponseEntity.ok(creditCardService.getStatements(cardId, pageable));
+    }
+
     @GetMapping("/{cardId}")
     public ResponseEntity<CreditCardResponseDTO> getCardDetails(@PathVariable Long cardId) {
         return ResponseEntity.ok(creditCardService.getCardDetails(cardId));
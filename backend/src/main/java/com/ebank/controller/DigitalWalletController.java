@@ -40,11 +40,26 @@ public class DigitalWalletController {
         return ResponseEntity.status(HttpStatus.CREATED).body(newWallet);
     }
 
+    @Operation(
+            summary = "Send a new verification code",
+            description = "Replaces the current code and resets its attempt counter",
+            responses = {
+                    @ApiResponse(responseCode = "202", description = "Code sent"),
+                    @ApiResponse(responseCode = "400", description = "Wallet already verified or a code was sent recently"),
+                    @ApiResponse(responseCode = "404", description = "Wallet not found")
+            }
+    )
+    @PostMapping("/{walletId}/verification-code")
+    public ResponseEntity<Void> resendVerificationCode(@PathVariable Long walletId) {
+        digitalWalletService.resendVerificationCode(walletId);
+        return ResponseEntity.accepted().build();
+    }
+
     @Operation(
             summary = "Verify wallet",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Wallet verified"),
-                    @ApiResponse(responseCode = "400", description = "Invalid verification code"),
+                    @ApiResponse(responseCode = "400", description = "Invalid, expired or locked verification code"),
                     @ApiResponse(responseCode = "404", description = "Wallet not found")
             }
     )
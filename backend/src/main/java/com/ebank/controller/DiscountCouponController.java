@@ -2,6 +2,7 @@ package com.ebank.controller;
 
 import com.ebank.model.discountCoupon.DiscountCoupon;
 import com.ebank.model.discountCoupon.DiscountType;
+import com.ebank.security.UserPrincipal;
 import com.ebank.service.DiscountCouponService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -9,6 +10,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
@@ -49,18 +51,19 @@ public class DiscountCouponController {
 
     @Operation(
             summary = "Apply coupon",
-            description = "Apply a coupon and increment usage count",
+            description = "Redeem a coupon for the authenticated user; each user can redeem a coupon once",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Coupon applied successfully"),
-                    @ApiResponse(responseCode = "400", description = "Coupon is invalid or expired"),
+                    @ApiResponse(responseCode = "400", description = "Coupon is invalid, expired, sold out or already redeemed"),
                     @ApiResponse(responseCode = "404", description = "Coupon not found")
             }
     )
     @PostMapping("/{couponCode}/apply")
     public ResponseEntity<DiscountCoupon> applyCoupon(
-            @PathVariable String couponCode
+            @PathVariable String couponCode,
+            @AuthenticationPrincipal UserPrincipal principal
     ) {
-        return ResponseEntity.ok(discountCouponService.applyCoupon(couponCode));
+        return ResponseEntity.ok(discountCouponService.applyCoupon(couponCode, principal.getId()));
     }
 
     @Operation(
@@ -0,0 +1,38 @@
+package com.ebank.controller;
+
+import com.ebank.service.fx.FxConversion;
+import com.ebank.service.fx.FxRateEngine;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Positive;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+
+@RestController
+@RequestMapping("/api/fx")
+@RequiredArgsConstructor
+@Tag(name = "Foreign Exchange", description = "APIs for exchange rate quotes")
+public class FxController {
+
+    private final FxRateEngine fxRateEngine;
+
+    @Operation(
+            summary = "Quote a currency conversion",
+            description = "Converts an amount with the current rate table, as a cross-currency transfer would",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Converted amount with rate and table version"),
+                    @ApiResponse(responseCode = "500", description = "No rate for the currency pair")
+            }
+    )
+    @GetMapping("/quote")
+    public ResponseEntity<FxConversion> quote(
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam @Positive BigDecimal amount) {
+        return ResponseEntity.ok(fxRateEngine.convert(amount, from, to));
+    }
+}
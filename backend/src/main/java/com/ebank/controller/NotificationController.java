@@ -1,8 +1,13 @@
 package com.ebank.controller;
 
+import com.ebank.dto.NotificationInboxDTO;
 import com.ebank.model.notification.Notification;
+import com.ebank.model.notification.NotificationBroadcast;
 import com.ebank.model.notification.NotificationType;
+import com.ebank.model.user.Role;
+import com.ebank.security.UserPrincipal;
 import com.ebank.service.NotificationService;
+import com.ebank.service.notification.NotificationStreamRegistry;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -10,8 +15,12 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -22,6 +31,7 @@ import java.util.List;
 public class NotificationController {
 
     private final NotificationService notificationService;
+    private final NotificationStreamRegistry streamRegistry;
 
     @Operation(
             summary = "Send notification",
@@ -43,6 +53,21 @@ public class NotificationController {
         return ResponseEntity.status(HttpStatus.CREATED).body(notification);
     }
 
+    @Operation(
+            summary = "Stream notifications",
+            description = "Server-Sent Events stream of the authenticated user's notifications. " +
+                    "Sends the unread count on connect, then a 'notification' event per new notification. " +
+                    "Reconnecting with Last-Event-ID replays what was missed"
+    )
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamNotifications(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId
+    ) {
+        return streamRegistry.connect(principal.getId(), lastEventId,
+                notificationService.getUnreadCount(principal.getId()));
+    }
+
     @Operation(
             summary = "Mark notification as read",
             responses = {
@@ -89,6 +114,19 @@ public class NotificationController {
         return ResponseEntity.ok(notificationService.getUserNotifications(userId, pageable));
     }
 
+    @Operation(
+            summary = "Get user inbox (cursor-paginated)",
+            description = "Newest first. Pass nextCursor from the previous response to get the next page"
+    )
+    @GetMapping("/user/{userId}/inbox")
+    public ResponseEntity<NotificationInboxDTO> getInbox(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return ResponseEntity.ok(notificationService.getInbox(userId, cursor, size));
+    }
+
     @Operation(summary = "Get unread notifications")
     @GetMapping("/user/{userId}/unread")
     public ResponseEntity<List<Notification>> getUnreadNotifications(
@@ -140,4 +178,49 @@ public class NotificationController {
         notification.setMessage(newMessage);
         return ResponseEntity.ok(notificationService.updateNotification(notification));
     }
+
+    @Operation(
+            summary = "Broadcast notification",
+            description = "Queue a notification for all enabled users, or only users with the given role. " +
+                    "Delivery runs in the background; poll the broadcast for progress",
+            responses = {
+                    @ApiResponse(responseCode = "202", description = "Broadcast queued"),
+                    @ApiResponse(responseCode = "400", description = "Invalid content")
+            }
+    )
+    @PostMapping("/broadcasts")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<NotificationBroadcast> startBroadcast(
+            @RequestParam String title,
+            @RequestParam String message,
+            @RequestParam NotificationType type,
+            @RequestParam(required = false) Role segment
+    ) {
+        NotificationBroadcast broadcast = notificationService.startBroadcast(title, message, type, segment);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(broadcast);
+    }
+
+    @Operation(summary = "Get broadcast progress")
+    @GetMapping("/broadcasts/{broadcastId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<NotificationBroadcast> getBroadcast(
+            @PathVariable Long broadcastId
+    ) {
+        return ResponseEntity.ok(notificationService.getBroadcast(broadcastId));
+    }
+
+    @Operation(
+            summary = "Cancel broadcast",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Broadcast cancelled"),
+                    @ApiResponse(responseCode = "400", description = "Broadcast already finished")
+            }
+    )
+    @DeleteMapping("/broadcasts/{broadcastId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<NotificationBroadcast> cancelBroadcast(
+            @PathVariable Long broadcastId
+    ) {
+        return ResponseEntity.ok(notificationService.cancelBroadcast(broadcastId));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,107 @@
+package com.ebank.controller;
+
+import com.ebank.dto.StandingOrderDTO;
+import com.ebank.dto.StandingOrderExecutionDTO;
+import com.ebank.dto.StandingOrderRequest;
+import com.ebank.security.UserPrincipal;
+import com.ebank.service.StandingOrderService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/standing-orders")
+@RequiredArgsConstructor
+@Tag(name = "Standing Orders", description = "APIs for recurring transfers and bill payments")
+public class StandingOrderController {
+
+    private final StandingOrderService standingOrderService;
+
+    @Operation(
+            summary = "Create standing order",
+            description = "Schedules a recurring transfer or bill payment from one of the user's accounts",
+            responses = {
+                    @ApiResponse(responseCode = "201", description = "Standing order created"),
+                    @ApiResponse(responseCode = "400", description = "Invalid schedule or payment details"),
+                    @ApiResponse(responseCode = "404", description = "Account not found")
+            }
+    )
+    @PostMapping
+    public ResponseEntity<StandingOrderDTO> createStandingOrder(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @Valid @RequestBody StandingOrderRequest request
+    ) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(standingOrderService.createStandingOrder(principal.getId(), request));
+    }
+
+    @Operation(summary = "Get user standing orders (paginated)")
+    @GetMapping
+    public ResponseEntity<Page<StandingOrderDTO>> getStandingOrders(
+            @AuthenticationPrincipal UserPrincipal principal,
+            Pageable pageable
+    ) {
+        return ResponseEntity.ok(standingOrderService.getUserStandingOrders(principal.getId(), pageable));
+    }
+
+    @Operation(
+            summary = "Get standing order",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Standing order retrieved"),
+                    @ApiResponse(responseCode = "404", description = "Standing order not found")
+            }
+    )
+    @GetMapping("/{id}")
+    public ResponseEntity<StandingOrderDTO> getStandingOrder(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @PathVariable Long id
+    ) {
+        return ResponseEntity.ok(standingOrderService.getStandingOrder(principal.getId(), id));
+    }
+
+    @Operation(summary = "Pause standing order")
+    @PatchMapping("/{id}/pause")
+    public ResponseEntity<StandingOrderDTO> pauseStandingOrder(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @PathVariable Long id
+    ) {
+        return ResponseEntity.ok(standingOrderService.pauseStandingOrder(principal.getId(), id));
+    }
+
+    @Operation(summary = "Resume standing order",
+            description = "Occurrences missed while paused are skipped")
+    @PatchMapping("/{id}/resume")
+    public ResponseEntity<StandingOrderDTO> resumeStandingOrder(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @PathVariable Long id
+    ) {
+        return ResponseEntity.ok(standingOrderService.resumeStandingOrder(principal.getId(), id));
+    }
+
+    @Operation(summary = "Cancel standing order")
+    @PatchMapping("/{id}/cancel")
+    public ResponseEntity<StandingOrderDTO> cancelStandingOrder(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @PathVariable Long id
+    ) {
+        return ResponseEntity.ok(standingOrderService.cancelStandingOrder(principal.getId(), id));
+    }
+
+    @Operation(summary = "Get standing order execution history")
+    @GetMapping("/{id}/executions")
+    public ResponseEntity<Page<StandingOrderExecutionDTO>> getExecutions(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @PathVariable Long id,
+            Pageable pageable
+    ) {
+        return ResponseEntity.ok(standingOrderService.getExecutions(principal.getId(), id, pageable));
+    }
+}
@@ -92,15 +92,31 @@ public class TransactionController {
     }
 
     @Operation(
-            summary = "Search transactions by reference",
+            summary = "Search transactions by reference prefix",
+            description = "Case-insensitive prefix match, e.g. TXN-4F or REV-TXN-; results are ordered by reference",
             responses = {
-                    @ApiResponse(responseCode = "200", description = "Matching transactions found")
+                    @ApiResponse(responseCode = "200", description = "Matching transactions found"),
+                    @ApiResponse(responseCode = "400", description = "Empty reference")
             }
     )
     @GetMapping("/search")
-    public ResponseEntity<List<TransactionDTO>> searchTransactions(
-            @RequestParam String reference) {
-        return ResponseEntity.ok(transactionService.searchByReference(reference));
+    public ResponseEntity<Page<TransactionDTO>> searchTransactions(
+            @RequestParam String reference,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(transactionService.searchByReference(reference, page, size));
+    }
+
+    @Operation(
+            summary = "Get transaction by reference",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Transaction found"),
+                    @ApiResponse(responseCode = "404", description = "Transaction not found")
+            }
+    )
+    @GetMapping("/reference/{reference}")
+    public ResponseEntity<TransactionDTO> getByReference(@PathVariable String reference) {
+        return ResponseEntity.ok(transactionService.getByReference(reference));
     }
 
     @Operation(
@@ -106,8 +106,8 @@ public class WireTransferController {
             }
     )
     @GetMapping("/pending")
-    public ResponseEntity<List<WireTransferResponseDTO>> getPendingTransfers() {
-        return ResponseEntity.ok(wireTransferService.getPendingTransfers());
+    public ResponseEntity<Page<WireTransferResponseDTO>> getPendingTransfers(Pageable pageable) {
+        return ResponseEntity.ok(wireTransferService.getPendingTransfers(pageable));
     }
 
     @Operation(
@@ -0,0 +1,36 @@
+package com.ebank.dto;
+
+import com.ebank.model.creditCard.CardType;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+public class BulkCardIssuanceRequest {
+    @NotEmpty
+    @Size(max = 10000)
+    private List<@Valid @NotNull Card> cards;
+
+    @Data
+    public static class Card {
+        @NotNull
+        private Long accountId;
+
+        @NotBlank
+        private String cardHolderName;
+
+        @NotNull
+        private CardType cardType;
+
+        @NotNull
+        @Positive
+        private BigDecimal creditLimit;
+    }
+}
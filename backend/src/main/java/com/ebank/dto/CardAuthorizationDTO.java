@@ -0,0 +1,21 @@
+package com.ebank.dto;
+
+import com.ebank.model.creditCard.AuthorizationStatus;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class CardAuthorizationDTO {
+    private String authCode;
+    private Long cardId;
+    private BigDecimal amount;
+    private BigDecimal capturedAmount;
+    private String merchant;
+    private AuthorizationStatus status;
+    private BigDecimal availableCredit;
+    private LocalDateTime authorizedAt;
+}
@@ -0,0 +1,20 @@
+package com.ebank.dto;
+
+import com.ebank.model.creditCard.IssuanceStatus;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class CardIssuanceBatchDTO {
+    private Long id;
+    private IssuanceStatus status;
+    private int totalCards;
+    private int issuedCount;
+    private int failedCount;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+    private String failureReason;
+}
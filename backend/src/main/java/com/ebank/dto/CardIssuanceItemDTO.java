@@ -0,0 +1,17 @@
+package com.ebank.dto;
+
+import com.ebank.model.creditCard.CardType;
+import com.ebank.model.creditCard.IssuanceItemStatus;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class CardIssuanceItemDTO {
+    private int lineNumber;
+    private Long accountId;
+    private CardType cardType;
+    private IssuanceItemStatus status;
+    private String maskedCardNumber;
+    private String failureReason;
+}
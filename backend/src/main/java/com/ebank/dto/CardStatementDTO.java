@@ -0,0 +1,22 @@
+package com.ebank.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+public class CardStatementDTO {
+    private Long cardId;
+    private LocalDate periodStart;
+    private LocalDate periodEnd;
+    private BigDecimal openingBalance;
+    private BigDecimal purchases;
+    private BigDecimal payments;
+    private BigDecimal interest;
+    private BigDecimal closingBalance;
+    private BigDecimal minimumDue;
+    private LocalDate dueDate;
+}
@@ -0,0 +1,23 @@
+package com.ebank.dto;
+
+import com.ebank.model.notification.NotificationType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationDTO {
+    private Long id;
+    private Long recipientId;
+    private String title;
+    private String message;
+    private NotificationType type;
+    private Boolean isRead;
+    private LocalDateTime createdAt;
+}
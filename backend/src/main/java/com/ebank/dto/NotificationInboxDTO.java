@@ -0,0 +1,19 @@
+package com.ebank.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationInboxDTO {
+    private List<NotificationDTO> notifications;
+    // يُمرَّر كما هو في الطلب التالي؛ null عند نهاية القائمة
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,30 @@
+package com.ebank.dto;
+
+import com.ebank.model.standingOrder.StandingOrderFrequency;
+import com.ebank.model.standingOrder.StandingOrderStatus;
+import com.ebank.model.standingOrder.StandingOrderType;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class StandingOrderDTO {
+    private Long id;
+    private String sourceAccountNumber;
+    private StandingOrderType type;
+    private String targetAccountNumber;
+    private String billerCode;
+    private String customerReference;
+    private BigDecimal amount;
+    private StandingOrderFrequency frequency;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private LocalDateTime nextDueAt;
+    private StandingOrderStatus status;
+    private String description;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,19 @@
+package com.ebank.dto;
+
+import com.ebank.model.standingOrder.ExecutionStatus;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class StandingOrderExecutionDTO {
+    private Long id;
+    private LocalDate dueDate;
+    private ExecutionStatus status;
+    private String reference;
+    private String failureReason;
+    private LocalDateTime executedAt;
+}
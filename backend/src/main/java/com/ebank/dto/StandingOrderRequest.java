@@ -0,0 +1,42 @@
+package com.ebank.dto;
+
+import com.ebank.model.standingOrder.StandingOrderFrequency;
+import com.ebank.model.standingOrder.StandingOrderType;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+public class StandingOrderRequest {
+    @NotNull
+    private Long sourceAccountId;
+
+    @NotNull
+    private StandingOrderType type;
+
+    // TRANSFER
+    private String targetAccountNumber;
+
+    // BILL_PAYMENT
+    private String billerCode;
+    private String customerReference;
+
+    @NotNull
+    @Positive
+    private BigDecimal amount;
+
+    @NotNull
+    private StandingOrderFrequency frequency;
+
+    @NotNull
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+
+    @Size(max = 500)
+    private String description;
+}
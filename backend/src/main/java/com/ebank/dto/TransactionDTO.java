@@ -20,4 +20,7 @@ public class TransactionDTO {
     private String reference;
     private String description;
     private String accountNumber;
+    private BigDecimal targetAmount;
+    private String targetCurrency;
+    private BigDecimal fxRate;
 }
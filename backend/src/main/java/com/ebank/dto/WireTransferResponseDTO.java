@@ -17,8 +17,11 @@ public class WireTransferResponseDTO {
     private String recipientName;
     private BigDecimal amount;
     private String currency;
+    private BigDecimal debitAmount;
+    private BigDecimal fxRate;
     private String referenceNumber;
     private TransferStatus status;
     private LocalDateTime initiatedAt;
     private LocalDateTime completedAt;
+    private String failureReason;
 }
\ No newline at end of file
@@ -0,0 +1,7 @@
+package com.ebank.exception;
+
+public class FxRateUnavailableException extends RuntimeException {
+    public FxRateUnavailableException(String fromCurrency, String toCurrency) {
+        super("No exchange rate available from " + fromCurrency + " to " + toCurrency);
+    }
+}
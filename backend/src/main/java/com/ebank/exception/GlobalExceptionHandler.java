@@ -45,6 +45,12 @@ public class GlobalExceptionHandler {
         return createProblemDetail(HttpStatus.BAD_REQUEST, "Bill Payment Error", ex.getMessage());
     }
 
+    @ExceptionHandler(CreditCardException.class)
+    public ProblemDetail handleCreditCardException(CreditCardException ex) {
+        logger.warn("Credit card error: {}", ex.getMessage());
+        return createProblemDetail(HttpStatus.BAD_REQUEST, "Credit Card Error", ex.getMessage());
+    }
+
     @ExceptionHandler(Exception.class)
     public ProblemDetail handleAllExceptions(Exception ex) {
         logger.error("Unexpected error: ", ex);
@@ -0,0 +1,11 @@
+package com.ebank.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class StandingOrderException extends RuntimeException {
+    public StandingOrderException(String message) {
+        super(message);
+    }
+}
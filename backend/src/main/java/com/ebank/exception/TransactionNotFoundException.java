@@ -4,4 +4,8 @@ public class TransactionNotFoundException extends RuntimeException {
     public TransactionNotFoundException(Long id) {
         super("Transaction not found with ID: " + id);
     }
+
+    public TransactionNotFoundException(String message) {
+        super(message);
+    }
 }
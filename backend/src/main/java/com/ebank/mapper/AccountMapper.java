@@ -0,0 +1,94 @@
+package com.ebank.mapper;
+
+import com.ebank.dto.AccountCreationDTO;
+import com.ebank.dto.AccountDTO;
+import com.ebank.dto.AccountDetailsDTO;
+import com.ebank.dto.UserDTO;
+import com.ebank.model.account.Account;
+import com.ebank.model.account.AccountType;
+import com.ebank.model.user.User;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hand-written mapper for the account DTOs that sit on hot request paths
+ * (account lists, deposits, withdrawals). Plain field copies, no reflection.
+ */
+@Component
+public class AccountMapper {
+
+    public AccountDTO toDto(Account account) {
+        if (account == null) return null;
+        return new AccountDTO(
+                account.getId(),
+                account.getAccountNumber(),
+                account.getAccountType(),
+                account.getBalance(),
+                account.getAccountName(),
+                account.getCurrency(),
+                account.getStatus()
+        );
+    }
+
+    public List<AccountDTO> toDtoList(List<Account> accounts) {
+        List<AccountDTO> dtos = new ArrayList<>(accounts.size());
+        for (Account account : accounts) {
+            dtos.add(toDto(account));
+        }
+        return dtos;
+    }
+
+    public AccountDetailsDTO toDetailsDto(Account account) {
+        if (account == null) return null;
+        AccountDetailsDTO dto = new AccountDetailsDTO();
+        dto.setId(account.getId());
+        dto.setAccountNumber(account.getAccountNumber());
+        dto.setAccountType(account.getAccountType());
+        dto.setBalance(account.getBalance());
+        dto.setAccountName(account.getAccountName());
+        dto.setCurrency(account.getCurrency());
+        dto.setStatus(account.getStatus());
+        dto.setUser(toUserDto(account.getUser()));
+        dto.setCreatedAt(account.getCreatedAt());
+        dto.setUpdatedAt(account.getUpdatedAt());
+        return dto;
+    }
+
+    public Account toEntity(AccountCreationDTO dto) {
+        return Account.builder()
+                .accountNumber(dto.getAccountNumber())
+                .accountType(AccountType.valueOf(dto.getAccountType().toUpperCase()))
+                .accountName(dto.getAccountName())
+                .currency(dto.getCurrency())
+                .build();
+    }
+
+    /**
+     * Copies the non-null editable fields of {@code dto} onto {@code account}.
+     * The id and account number are immutable and never copied.
+     */
+    public void updateEntity(AccountDTO dto, Account account) {
+        if (dto.getAccountType() != null) account.setAccountType(dto.getAccountType());
+        if (dto.getBalance() != null) account.setBalance(dto.getBalance());
+        if (dto.getAccountName() != null) account.setAccountName(dto.getAccountName());
+        if (dto.getCurrency() != null) account.setCurrency(dto.getCurrency());
+        if (dto.getStatus() != null) account.setStatus(dto.getStatus());
+    }
+
+    private UserDTO toUserDto(User user) {
+        if (user == null) return null;
+        return UserDTO.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .email(user.getEmail())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .phoneNumber(user.getPhoneNumber())
+                .createdAt(user.getCreatedAt())
+                .role(user.getRole())
+                .enabled(user.isEnabled())
+                .build();
+    }
+}
@@ -0,0 +1,34 @@
+package com.ebank.metrics;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Hibernate session listener that times every JDBC statement and batch
+ * executed by the session and reports it to the current {@link RequestMetrics}.
+ * Registered through {@code hibernate.session.events.auto}.
+ */
+public class JpaStatementMetricsListener extends BaseSessionEventListener {
+
+    private long statementStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        RequestMetrics.recordSqlStatement(System.nanoTime() - statementStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        RequestMetrics.recordSqlStatement(System.nanoTime() - batchStart);
+    }
+}
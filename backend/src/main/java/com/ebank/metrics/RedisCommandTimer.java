@@ -0,0 +1,80 @@
+package com.ebank.metrics;
+
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Wraps the connection a Redis template hands to its callbacks so that every
+ * command, whichever component issued it, is timed and reported to the
+ * current {@link RequestMetrics}. Command groups such as
+ * {@code stringCommands()} are wrapped the same way. Outside a request the
+ * call goes straight through.
+ * <p>
+ * Pipelined commands only queue; they are counted, and the round-trip is
+ * timed on {@code closePipeline()}.
+ */
+public final class RedisCommandTimer implements InvocationHandler {
+
+    private static final Set<String> UNTIMED = Set.of(
+            "close", "isClosed", "getNativeConnection", "getDelegate", "isPipelined", "isQueueing");
+
+    private final Object target;
+
+    private RedisCommandTimer(Object target) {
+        this.target = target;
+    }
+
+    public static RedisConnection wrap(RedisConnection connection) {
+        return (RedisConnection) proxy(connection);
+    }
+
+    private static Object proxy(Object target) {
+        Class<?>[] interfaces = Arrays.stream(ClassUtils.getAllInterfaces(target))
+                .filter(type -> Modifier.isPublic(type.getModifiers()))
+                .toArray(Class<?>[]::new);
+        return Proxy.newProxyInstance(RedisCommandTimer.class.getClassLoader(), interfaces,
+                new RedisCommandTimer(target));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (isCommandGroup(method)) {
+            Object group = invokeTarget(method, args);
+            return group == target ? proxy : group == null ? null : proxy(group);
+        }
+        if (RequestMetrics.current() == null || method.getDeclaringClass() == Object.class
+                || UNTIMED.contains(method.getName())) {
+            return invokeTarget(method, args);
+        }
+        long start = System.nanoTime();
+        try {
+            return invokeTarget(method, args);
+        } finally {
+            RequestMetrics.recordRedisCall(System.nanoTime() - start);
+        }
+    }
+
+    // stringCommands() وأمثالها، و commands() التي تعيد الاتصال نفسه
+    private static boolean isCommandGroup(Method method) {
+        return method.getParameterCount() == 0
+                && method.getName().toLowerCase().endsWith("commands")
+                && method.getReturnType().isInterface()
+                && method.getReturnType().getName().startsWith("org.springframework.data.redis.connection.");
+    }
+
+    private Object invokeTarget(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
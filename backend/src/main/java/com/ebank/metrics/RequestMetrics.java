@@ -0,0 +1,142 @@
+package com.ebank.metrics;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Per-request counters for JPA statements, Redis commands and cache
+ * hits/misses. Bound to the request thread by {@link RequestMetricsFilter};
+ * every static recorder is a no-op outside a request scope. Redis commands
+ * are reported by {@link RedisCommandTimer} for every template.
+ */
+public final class RequestMetrics {
+
+    private static final ThreadLocal<RequestMetrics> CURRENT = new ThreadLocal<>();
+
+    static final String OTHER_FAMILY = "other";
+
+    // عائلات مفاتيح الكاش المعروفة، الأطول أولاً حتى يسبق user:accounts المفتاحَ user
+    private static final List<String> KEY_FAMILIES = Stream.of(
+                    "account:active-cards", "account:balance", "account:details", "account:search",
+                    "acc_txns", "recent_txns", "txn",
+                    "bill:history", "bill:receipt",
+                    "credit-card:details",
+                    "monthly-trends-account", "spending-breakdown-account",
+                    "notifications:inbox", "notifications:unread",
+                    "user:accounts", "user:email", "user:username", "user")
+            .sorted(Comparator.comparingInt(String::length).reversed())
+            .toList();
+
+    private final long startNanos = System.nanoTime();
+    private int sqlStatements;
+    private long sqlNanos;
+    private int redisCalls;
+    private long redisNanos;
+    private final Map<String, int[]> cacheLookups = new LinkedHashMap<>();
+
+    private RequestMetrics() {
+    }
+
+    static RequestMetrics begin() {
+        RequestMetrics metrics = new RequestMetrics();
+        CURRENT.set(metrics);
+        return metrics;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    public static RequestMetrics current() {
+        return CURRENT.get();
+    }
+
+    public static void recordSqlStatement(long nanos) {
+        RequestMetrics metrics = CURRENT.get();
+        if (metrics != null) {
+            metrics.sqlStatements++;
+            metrics.sqlNanos += nanos;
+        }
+    }
+
+    public static void recordRedisCall(long nanos) {
+        RequestMetrics metrics = CURRENT.get();
+        if (metrics != null) {
+            metrics.redisCalls++;
+            metrics.redisNanos += nanos;
+        }
+    }
+
+    public static void recordCacheLookup(String key, boolean hit) {
+        RequestMetrics metrics = CURRENT.get();
+        if (metrics != null) {
+            int[] counts = metrics.cacheLookups.computeIfAbsent(keyFamily(key), k -> new int[2]);
+            counts[hit ? 0 : 1]++;
+        }
+    }
+
+    /**
+     * Reduces a cache key to its family, the longest known prefix followed by
+     * {@code :} or {@code -}, e.g. {@code account:details:42} becomes
+     * {@code account:details}. Keys of no known family count as {@code other},
+     * so ids, cursors and search terms never become tag values.
+     */
+    public static String keyFamily(String key) {
+        for (String family : KEY_FAMILIES) {
+            if (key.length() > family.length() && key.startsWith(family)) {
+                char separator = key.charAt(family.length());
+                if (separator == ':' || separator == '-') {
+                    return family;
+                }
+            }
+        }
+        return OTHER_FAMILY;
+    }
+
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    public int getSqlStatements() {
+        return sqlStatements;
+    }
+
+    public long getSqlNanos() {
+        return sqlNanos;
+    }
+
+    public int getRedisCalls() {
+        return redisCalls;
+    }
+
+    public long getRedisNanos() {
+        return redisNanos;
+    }
+
+    /** Family -> {hits, misses}. */
+    public Map<String, int[]> getCacheLookups() {
+        return cacheLookups;
+    }
+
+    public int getCacheHits() {
+        int hits = 0;
+        for (int[] counts : cacheLookups.values()) hits += counts[0];
+        return hits;
+    }
+
+    public int getCacheMisses() {
+        int misses = 0;
+        for (int[] counts : cacheLookups.values()) misses += counts[1];
+        return misses;
+    }
+
+    public String toHeaderValue() {
+        return String.format("sql=%d;sqlMs=%.2f;redis=%d;redisMs=%.2f;hits=%d;misses=%d",
+                sqlStatements, sqlNanos / 1_000_000.0,
+                redisCalls, redisNanos / 1_000_000.0,
+                getCacheHits(), getCacheMisses());
+    }
+}
@@ -0,0 +1,102 @@
+package com.ebank.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens a {@link RequestMetrics} scope around the whole filter chain (so the
+ * JWT filters are counted too) and publishes the totals per controller method.
+ */
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private static final String UNMAPPED_HANDLER = "none";
+
+    private final MeterRegistry meterRegistry;
+
+    public RequestMetricsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestMetrics metrics = RequestMetrics.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestMetrics.end();
+            record(handlerName(request), metrics);
+        }
+    }
+
+    private void record(String handler, RequestMetrics metrics) {
+        Timer.builder("ebank.request.latency")
+                .description("Request latency per controller method")
+                .tag("handler", handler)
+                .publishPercentiles(0.5, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(metrics.elapsedNanos(), TimeUnit.NANOSECONDS);
+
+        DistributionSummary.builder("ebank.request.sql.statements")
+                .description("JPA statements executed per request")
+                .tag("handler", handler)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry)
+                .record(metrics.getSqlStatements());
+        Timer.builder("ebank.request.sql.time")
+                .description("Time spent executing JPA statements per request")
+                .tag("handler", handler)
+                .register(meterRegistry)
+                .record(metrics.getSqlNanos(), TimeUnit.NANOSECONDS);
+
+        DistributionSummary.builder("ebank.request.redis.calls")
+                .description("Redis round-trips per request")
+                .tag("handler", handler)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry)
+                .record(metrics.getRedisCalls());
+        Timer.builder("ebank.request.redis.time")
+                .description("Time spent in Redis calls per request")
+                .tag("handler", handler)
+                .register(meterRegistry)
+                .record(metrics.getRedisNanos(), TimeUnit.NANOSECONDS);
+
+        for (Map.Entry<String, int[]> entry : metrics.getCacheLookups().entrySet()) {
+            int[] counts = entry.getValue();
+            if (counts[0] > 0) cacheCounter(entry.getKey(), "hit").increment(counts[0]);
+            if (counts[1] > 0) cacheCounter(entry.getKey(), "miss").increment(counts[1]);
+        }
+    }
+
+    private Counter cacheCounter(String family, String result) {
+        return Counter.builder("ebank.cache.lookups")
+                .description("Cache lookups per key family")
+                .tag("family", family)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private String handlerName(HttpServletRequest request) {
+        Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        if (handler instanceof HandlerMethod method) {
+            return method.getBeanType().getSimpleName() + "." + method.getMethod().getName();
+        }
+        return UNMAPPED_HANDLER;
+    }
+}
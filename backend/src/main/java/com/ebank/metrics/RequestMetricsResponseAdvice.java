@@ -0,0 +1,38 @@
+package com.ebank.metrics;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Debug mode only: exposes the per-request counters as a response header
+ * right before the body is written.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(prefix = "app.metrics", name = "debug-header", havingValue = "true")
+public class RequestMetricsResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String HEADER = "X-Request-Metrics";
+
+    @Override
+    public boolean supports(MethodParameter returnType,
+                            Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        RequestMetrics metrics = RequestMetrics.current();
+        if (metrics != null) {
+            response.getHeaders().set(HEADER, metrics.toHeaderValue());
+        }
+        return body;
+    }
+}
@@ -0,0 +1,109 @@
+package com.ebank.migration;
+
+import com.ebank.service.securityLog.SecurityLogPartitions;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Range-partitions {@code security_logs} by month of {@code created_at}.
+ * MySQL requires the partitioning column in every unique key and does not
+ * allow foreign keys on partitioned tables, so the primary key becomes
+ * {@code (id, created_at)} and the {@code user_id} foreign key is dropped.
+ * Written in Java because the partition list depends on the existing data.
+ */
+public class V1__Partition_security_logs extends BaseJavaMigration {
+
+    private static final int MONTHS_AHEAD = 3;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            YearMonth current = YearMonth.now();
+
+            if (!tableExists(statement)) {
+                statement.execute("CREATE TABLE security_logs (" +
+                        "id BIGINT NOT NULL AUTO_INCREMENT, " +
+                        "user_id BIGINT, " +
+                        "ip_address VARCHAR(255), " +
+                        "action VARCHAR(255), " +
+                        "device_info VARCHAR(255), " +
+                        "timestamp DATETIME(6), " +
+                        "status VARCHAR(32), " +
+                        "created_at DATETIME(6) NOT NULL, " +
+                        "PRIMARY KEY (id, created_at)) " +
+                        partitionClause(current, current));
+            } else if (!isPartitioned(statement)) {
+                for (String foreignKey : foreignKeys(statement)) {
+                    statement.execute("ALTER TABLE security_logs DROP FOREIGN KEY " + foreignKey);
+                }
+                statement.execute("UPDATE security_logs SET created_at = COALESCE(timestamp, NOW()) WHERE created_at IS NULL");
+                statement.execute("ALTER TABLE security_logs MODIFY created_at DATETIME(6) NOT NULL");
+                statement.execute("ALTER TABLE security_logs DROP PRIMARY KEY, ADD PRIMARY KEY (id, created_at)");
+                statement.execute("ALTER TABLE security_logs " + partitionClause(oldestMonth(statement, current), current));
+            }
+
+            statement.execute("CREATE INDEX idx_security_logs_user_created ON security_logs (user_id, created_at)");
+            statement.execute("CREATE INDEX idx_security_logs_user_status_created ON security_logs (user_id, status, created_at)");
+            statement.execute("CREATE INDEX idx_security_logs_ip_timestamp ON security_logs (ip_address, timestamp)");
+            statement.execute("CREATE INDEX idx_security_logs_action_status_created ON security_logs (action, status, created_at)");
+        }
+    }
+
+    private static String partitionClause(YearMonth from, YearMonth current) {
+        StringJoiner partitions = new StringJoiner(", ", "PARTITION BY RANGE COLUMNS(created_at) (", ")");
+        for (YearMonth month = from; !month.isAfter(current.plusMonths(MONTHS_AHEAD)); month = month.plusMonths(1)) {
+            partitions.add(SecurityLogPartitions.definition(month));
+        }
+        partitions.add(SecurityLogPartitions.futureDefinition());
+        return partitions.toString();
+    }
+
+    private static boolean tableExists(Statement statement) throws SQLException {
+        try (ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM information_schema.TABLES " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'security_logs'")) {
+            return rs.next() && rs.getInt(1) > 0;
+        }
+    }
+
+    private static boolean isPartitioned(Statement statement) throws SQLException {
+        try (ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM information_schema.PARTITIONS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'security_logs' AND PARTITION_NAME IS NOT NULL")) {
+            return rs.next() && rs.getInt(1) > 0;
+        }
+    }
+
+    private static List<String> foreignKeys(Statement statement) throws SQLException {
+        List<String> names = new ArrayList<>();
+        try (ResultSet rs = statement.executeQuery("SELECT CONSTRAINT_NAME FROM information_schema.TABLE_CONSTRAINTS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'security_logs' AND CONSTRAINT_TYPE = 'FOREIGN KEY'")) {
+            while (rs.next()) {
+                names.add(rs.getString(1));
+            }
+        }
+        return names;
+    }
+
+    private static YearMonth oldestMonth(Statement statement, YearMonth current) throws SQLException {
+        try (ResultSet rs = statement.executeQuery("SELECT MIN(created_at) FROM security_logs")) {
+            if (rs.next()) {
+                Timestamp oldest = rs.getTimestamp(1);
+                if (oldest != null) {
+                    YearMonth month = YearMonth.from(oldest.toLocalDateTime());
+                    return month.isAfter(current) ? current : month;
+                }
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,81 @@
+package com.ebank.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Composite indexes for the repository finders, column order following
+ * equality predicates first and then the sort/range column. Written in Java
+ * because MySQL has no {@code CREATE INDEX IF NOT EXISTS} and some of these
+ * may already exist where ddl-auto created them from {@code @Table(indexes)}.
+ */
+public class V3__Add_finder_indexes extends BaseJavaMigration {
+
+    private static final String[][] INDEXES = {
+            // findBySourceAccount_AccountNumberOrTargetAccount_AccountNumber, findRecentTransactions:
+            // كل طرف من OR له فهرس خاص ليستخدم MySQL الـ index merge
+            {"transactions", "idx_transactions_source_timestamp", "source_account_id, timestamp"},
+            {"transactions", "idx_transactions_target_timestamp", "target_account_id, timestamp"},
+            {"transactions", "idx_transactions_created_at", "created_at"},
+
+            {"notifications", "idx_notifications_recipient_created", "recipient_id, created_at, id"},
+            {"notifications", "idx_notifications_recipient_read_created", "recipient_id, is_read, created_at"},
+            {"notifications", "idx_notifications_recipient_type_created", "recipient_id, type, created_at"},
+            {"notifications", "idx_notifications_created_at", "created_at"},
+
+            {"bill_payments", "idx_bill_payments_payer_date", "payer_account_id, payment_date"},
+            {"bill_payments", "idx_bill_payments_biller_date", "biller_code, payment_date"},
+
+            {"wire_transfers", "idx_wire_transfers_status_initiated", "status, initiated_at"},
+            {"wire_transfers", "idx_wire_transfers_sender_initiated", "sender_account_id, initiated_at"},
+            {"wire_transfers", "idx_wire_transfers_reference", "reference_number"},
+
+            {"credit_cards", "idx_credit_cards_account_active", "account_id, is_active"},
+
+            {"digital_wallets", "idx_digital_wallets_owner_type", "owner_id, wallet_type"},
+            {"digital_wallets", "idx_digital_wallets_address", "wallet_address"},
+
+            {"accounts", "idx_accounts_user_status", "user_id, status"},
+            {"accounts", "idx_accounts_user_type", "user_id, account_type"},
+            {"accounts", "idx_accounts_status", "status"},
+            {"accounts", "idx_accounts_type", "account_type"},
+
+            {"users", "idx_users_enabled_role", "enabled, role"},
+            {"users", "idx_users_created_at", "created_at"},
+
+            {"discount_coupons", "idx_discount_coupons_expiry", "expiry_date"},
+            {"discount_coupons", "idx_discount_coupons_type", "discount_type"},
+            {"discount_coupons", "idx_discount_coupons_active", "active"},
+
+            {"notification_broadcasts", "idx_notification_broadcasts_status", "status, heartbeat_at"},
+    };
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            for (String[] index : INDEXES) {
+                if (!indexExists(connection, index[0], index[1])) {
+                    statement.execute("CREATE INDEX " + index[1] + " ON " + index[0] + " (" + index[2] + ")");
+                }
+            }
+        }
+    }
+
+    private static boolean indexExists(Connection connection, String table, String index) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT COUNT(*) FROM information_schema.STATISTICS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND INDEX_NAME = ?")) {
+            ps.setString(1, table);
+            ps.setString(2, index);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getInt(1) > 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.ebank.model.creditCard;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A hold placed on a card's available credit. Rows are written by the
+ * authorization journal after the hold has already been approved in memory;
+ * {@code credit_cards.available_balance} is moved by the same batch.
+ */
+@Entity
+@Table(name = "card_authorizations", indexes = {
+        @Index(name = "idx_card_authorizations_held", columnList = "status, authorized_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardAuthorization {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 32)
+    private String authCode;
+
+    @Column(name = "card_id", nullable = false)
+    private Long cardId;
+
+    @Column(nullable = false, precision = 17, scale = 2)
+    private BigDecimal amount;
+
+    @Column(precision = 17, scale = 2)
+    private BigDecimal capturedAmount;
+
+    private String merchant;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private AuthorizationStatus status;
+
+    @Column(nullable = false)
+    private LocalDateTime authorizedAt;
+
+    private LocalDateTime settledAt;
+}
@@ -0,0 +1,50 @@
+package com.ebank.model.creditCard;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A bulk card issuance request. Its {@link CardIssuanceItem}s are issued in
+ * chunks; an item leaves PENDING in the same transaction that inserts its
+ * card, so a batch interrupted by a restart resumes with what is left.
+ */
+@Entity
+@Table(name = "card_issuance_batches")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardIssuanceBatch {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    @Builder.Default
+    private IssuanceStatus status = IssuanceStatus.PENDING;
+
+    private int totalCards;
+
+    @Builder.Default
+    private int issuedCount = 0;
+
+    @Builder.Default
+    private int failedCount = 0;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+
+    private LocalDateTime heartbeatAt;
+
+    private LocalDateTime completedAt;
+
+    @Column(length = 500)
+    private String failureReason;
+}
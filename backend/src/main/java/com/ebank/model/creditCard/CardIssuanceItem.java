@@ -0,0 +1,53 @@
+package com.ebank.model.creditCard;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/** One requested card of a {@link CardIssuanceBatch} and its outcome. */
+@Entity
+@Table(name = "card_issuance_items", indexes = {
+        @Index(name = "idx_card_issuance_items_batch", columnList = "batch_id, status, line_number")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardIssuanceItem {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "batch_id", nullable = false)
+    private Long batchId;
+
+    // ترتيب البطاقة في الطلب الأصلي
+    @Column(name = "line_number", nullable = false)
+    private int lineNumber;
+
+    @Column(nullable = false)
+    private Long accountId;
+
+    @Column(nullable = false)
+    private String cardHolderName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private CardType cardType;
+
+    @Column(nullable = false, precision = 17, scale = 2)
+    private BigDecimal creditLimit;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private IssuanceItemStatus status;
+
+    private String cardNumber;
+
+    @Column(length = 500)
+    private String failureReason;
+}
@@ -0,0 +1,59 @@
+package com.ebank.model.creditCard;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A card journal entry that could not be written: it failed on its own after
+ * the batch holding it had been retried, or it settled a hold that was never
+ * written. Kept as it was for manual review; nothing reads it back.
+ */
+@Entity
+@Table(name = "card_journal_dead_letters")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardJournalDeadLetter {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 16)
+    private String kind;
+
+    @Column(nullable = false)
+    private Long cardId;
+
+    @Column(length = 32)
+    private String authCode;
+
+    @Column(precision = 17, scale = 2)
+    private BigDecimal amount;
+
+    @Column(precision = 17, scale = 2)
+    private BigDecimal capturedAmount;
+
+    @Column(precision = 17, scale = 2)
+    private BigDecimal delta;
+
+    private String merchant;
+
+    @Column(precision = 17, scale = 2)
+    private BigDecimal creditLimit;
+
+    @Column(nullable = false)
+    private LocalDateTime occurredAt;
+
+    @Column(length = 500)
+    private String error;
+
+    @Column(nullable = false)
+    private LocalDateTime quarantinedAt;
+}
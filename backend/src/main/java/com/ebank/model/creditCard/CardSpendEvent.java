@@ -0,0 +1,45 @@
+package com.ebank.model.creditCard;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A movement of a card's outstanding balance: a captured purchase or a
+ * repayment. Statements are built from these rows, one cycle at a time.
+ */
+@Entity
+@Table(name = "card_spend_events", indexes = {
+        @Index(name = "idx_card_spend_events_card", columnList = "card_id, occurred_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardSpendEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "card_id", nullable = false)
+    private Long cardId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private SpendEventType type;
+
+    @Column(nullable = false, precision = 17, scale = 2)
+    private BigDecimal amount;
+
+    // رمز التفويض للمشتريات ومرجع العملية للسداد
+    @Column(nullable = false, length = 32)
+    private String reference;
+
+    @Column(nullable = false)
+    private LocalDateTime occurredAt;
+}
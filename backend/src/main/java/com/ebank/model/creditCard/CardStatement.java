@@ -0,0 +1,65 @@
+package com.ebank.model.creditCard;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * The closed summary of one billing cycle of a card. Written once by the
+ * statement job; the card dashboard reads the latest row instead of
+ * aggregating spend events on request.
+ */
+@Entity
+@Table(name = "card_statements", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_card_statements_cycle", columnNames = {"card_id", "period_end"})
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardStatement {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "card_id", nullable = false)
+    private Long cardId;
+
+    @Column(nullable = false)
+    private LocalDate periodStart;
+
+    @Column(name = "period_end", nullable = false)
+    private LocalDate periodEnd;
+
+    @Column(nullable = false, precision = 17, scale = 2)
+    private BigDecimal openingBalance;
+
+    @Column(nullable = false, precision = 17, scale = 2)
+    private BigDecimal purchases;
+
+    @Column(nullable = false, precision = 17, scale = 2)
+    private BigDecimal payments;
+
+    @Column(nullable = false, precision = 17, scale = 2)
+    private BigDecimal interest;
+
+    @Column(nullable = false, precision = 17, scale = 2)
+    private BigDecimal closingBalance;
+
+    @Column(nullable = false, precision = 17, scale = 2)
+    private BigDecimal minimumDue;
+
+    @Column(nullable = false)
+    private LocalDate dueDate;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
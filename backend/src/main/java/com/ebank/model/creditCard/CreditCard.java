@@ -10,12 +10,15 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
+// available_balance يتغير عبر تعديلات نسبية من دفتر الحجوزات، فلا يُعاد كتابته عند حفظ حقول أخرى
 @Entity
 @Table(name = "credit_cards")
+@DynamicUpdate
 @Data
 @Builder
 @NoArgsConstructor
@@ -0,0 +1,7 @@
+package com.ebank.model.creditCard;
+
+public enum IssuanceItemStatus {
+    PENDING,
+    ISSUED,
+    FAILED
+}
@@ -0,0 +1,9 @@
+package com.ebank.model.creditCard;
+
+public enum IssuanceStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    // توقف بخطأ لا يُحل بإعادة المحاولة؛ لا يلتقطه العامل مرة أخرى
+    FAILED
+}
@@ -0,0 +1,6 @@
+package com.ebank.model.creditCard;
+
+public enum SpendEventType {
+    PURCHASE,
+    PAYMENT
+}
@@ -8,8 +8,6 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.time.LocalDateTime;
-
 @Entity
 @Table(name = "digital_wallets")
 @Data
@@ -36,8 +34,4 @@ public class DigitalWallet {
     private String linkedPhoneNumber;
 
     private Boolean isVerified;
-
-    private String verificationCode;
-
-    private LocalDateTime verificationCodeExpiresAt;
 }
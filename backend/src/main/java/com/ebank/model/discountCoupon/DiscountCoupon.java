@@ -14,7 +14,7 @@ import java.time.LocalDate;
 @Entity
 @Table(name = "discount_coupons")
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class DiscountCoupon {
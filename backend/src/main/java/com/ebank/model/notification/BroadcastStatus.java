@@ -0,0 +1,8 @@
+package com.ebank.model.notification;
+
+public enum BroadcastStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    CANCELLED
+}
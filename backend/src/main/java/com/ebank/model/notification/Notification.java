@@ -12,7 +12,11 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        @Index(name = "idx_notifications_recipient_created", columnList = "recipient_id, created_at, id")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_notifications_dedupe_key", columnNames = "dedupe_key")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -41,4 +45,8 @@ public class Notification {
 
     @CreationTimestamp
     private LocalDateTime createdAt;
+
+    // مفتاح الحدث الذي أنشأ الإشعار، حتى لا يتكرر عند إعادة التسليم
+    @Column(length = 64)
+    private String dedupeKey;
 }
@@ -0,0 +1,64 @@
+package com.ebank.model.notification;
+
+import com.ebank.model.user.Role;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A notification sent to every enabled user, or to every user with
+ * {@link #segment} role. The worker walks users in id order and keeps its
+ * position in {@link #lastRecipientId}, so a broadcast resumes where it
+ * stopped after a restart.
+ */
+@Entity
+@Table(name = "notification_broadcasts")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationBroadcast {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotBlank
+    @Column(length = 100)
+    private String title;
+
+    @NotBlank
+    @Column(length = 1000)
+    private String message;
+
+    @Enumerated(EnumType.STRING)
+    private NotificationType type;
+
+    // null = كل المستخدمين
+    @Enumerated(EnumType.STRING)
+    private Role segment;
+
+    @Enumerated(EnumType.STRING)
+    @Builder.Default
+    private BroadcastStatus status = BroadcastStatus.PENDING;
+
+    @Builder.Default
+    private Long lastRecipientId = 0L;
+
+    private long totalRecipients;
+
+    @Builder.Default
+    private long deliveredCount = 0;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+
+    private LocalDateTime heartbeatAt;
+
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,56 @@
+package com.ebank.model.outbox;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A side effect recorded in the same transaction as the change that caused
+ * it. The relay delivers it after commit and stamps {@link #publishedAt};
+ * a rolled-back change leaves no row, so nothing is delivered for it. An
+ * event that keeps failing is stamped {@link #parkedAt} and no longer tried.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+        @Index(name = "idx_outbox_events_pending", columnList = "published_at, parked_at, available_at, id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String eventType;
+
+    @Column(length = 64)
+    private String aggregateId;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    // لا يُعاد تسليم الحدث الفاشل قبل هذا الوقت
+    @Column(nullable = false)
+    private LocalDateTime availableAt;
+
+    private LocalDateTime publishedAt;
+
+    // توقفت محاولات التسليم بعد max-attempts؛ يبقى الصف للمراجعة ولا يُحذف مع المنشور
+    private LocalDateTime parkedAt;
+
+    @Builder.Default
+    private int attempts = 0;
+
+    @Column(length = 500)
+    private String lastError;
+}
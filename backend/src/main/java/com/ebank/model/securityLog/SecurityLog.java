@@ -11,6 +11,11 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 
+/**
+ * Stored in a table range-partitioned by month of {@code created_at} (see
+ * {@code V1__Partition_security_logs}); partitioned tables cannot carry
+ * foreign keys, hence {@code NO_CONSTRAINT} on {@link #user}.
+ */
 @Entity
 @Table(name = "security_logs")
 @Data
@@ -24,6 +29,7 @@ public class SecurityLog {
     private Long id;
 
     @ManyToOne
+    @JoinColumn(name = "user_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private User user;
 
     @NotBlank
@@ -40,6 +46,6 @@ public class SecurityLog {
     @Enumerated(EnumType.STRING)
     private LogStatus status;
 
-    @Column(name = "created_at")
+    @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 }
@@ -0,0 +1,95 @@
+package com.ebank.model.standingOrder;
+
+import com.ebank.model.account.Account;
+import com.ebank.model.user.User;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A recurring transfer or bill payment. {@link #nextDueAt} is the indexed
+ * queue the engine polls: occurrence {@link #occurrence} falls on
+ * {@link #nextDueDate}, and its time of day is spread over the execution
+ * window so orders do not all fire at midnight.
+ */
+@Entity
+@Table(name = "standing_orders", indexes = {
+        @Index(name = "idx_standing_orders_due", columnList = "status, next_due_at"),
+        @Index(name = "idx_standing_orders_owner", columnList = "owner_id, created_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StandingOrder {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "owner_id", nullable = false)
+    private User owner;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "source_account_id", nullable = false)
+    private Account sourceAccount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private StandingOrderType type;
+
+    // TRANSFER
+    @Column(length = 20)
+    private String targetAccountNumber;
+
+    // BILL_PAYMENT
+    private String billerCode;
+    private String customerReference;
+
+    @Positive
+    @Column(nullable = false, precision = 17, scale = 2)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private StandingOrderFrequency frequency;
+
+    @Column(nullable = false)
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+
+    @Column(nullable = false)
+    private int occurrence;
+
+    private LocalDate nextDueDate;
+    private LocalDateTime nextDueAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private StandingOrderStatus status;
+
+    // المهلة التي تحجز فيها نسخة واحدة من التطبيق تنفيذ الاستحقاق الحالي
+    @Column(length = 64)
+    private String leaseOwner;
+
+    private LocalDateTime leaseUntil;
+
+    @Column(length = 500)
+    private String description;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Version
+    private int version;
+}
@@ -0,0 +1,50 @@
+package com.ebank.model.standingOrder;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One occurrence of a standing order. The unique key on (order, due date) is
+ * what makes execution exactly-once: the row is inserted in the same
+ * transaction as the payment, so a second node that reaches the same
+ * occurrence fails on the insert and its payment rolls back with it.
+ */
+@Entity
+@Table(name = "standing_order_executions", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_standing_order_executions_due",
+                columnNames = {"standing_order_id", "due_date"})
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StandingOrderExecution {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "standing_order_id", nullable = false)
+    private Long standingOrderId;
+
+    @Column(name = "due_date", nullable = false)
+    private LocalDate dueDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private ExecutionStatus status;
+
+    // مرجع المعاملة أو رقم إيصال الفاتورة
+    private String reference;
+
+    @Column(length = 500)
+    private String failureReason;
+
+    @Column(nullable = false)
+    private LocalDateTime executedAt;
+}
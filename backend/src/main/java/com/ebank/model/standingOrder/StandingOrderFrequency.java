@@ -0,0 +1,27 @@
+package com.ebank.model.standingOrder;
+
+import java.time.LocalDate;
+
+public enum StandingOrderFrequency {
+    DAILY {
+        @Override
+        public LocalDate occurrence(LocalDate startDate, int index) {
+            return startDate.plusDays(index);
+        }
+    },
+    WEEKLY {
+        @Override
+        public LocalDate occurrence(LocalDate startDate, int index) {
+            return startDate.plusWeeks(index);
+        }
+    },
+    MONTHLY {
+        // دائماً من تاريخ البداية حتى لا ينزلق يوم 31 إلى 28 بشكل دائم بعد فبراير
+        @Override
+        public LocalDate occurrence(LocalDate startDate, int index) {
+            return startDate.plusMonths(index);
+        }
+    };
+
+    public abstract LocalDate occurrence(LocalDate startDate, int index);
+}
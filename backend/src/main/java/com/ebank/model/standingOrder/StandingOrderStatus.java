@@ -0,0 +1,8 @@
+package com.ebank.model.standingOrder;
+
+public enum StandingOrderStatus {
+    ACTIVE,
+    PAUSED,
+    CANCELLED,
+    COMPLETED
+}
@@ -0,0 +1,6 @@
+package com.ebank.model.standingOrder;
+
+public enum StandingOrderType {
+    TRANSFER,
+    BILL_PAYMENT
+}
@@ -10,7 +10,9 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_transactions_reference", columnNames = "reference")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -61,5 +63,21 @@ public class Transaction {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
+    // لقطة سعر الصرف وقت التنفيذ؛ amount بعملة المصدر و targetAmount ما أُضيف للوجهة
+    @Column(precision = 17, scale = 2)
+    private BigDecimal targetAmount;
+
+    @Column(length = 3)
+    private String sourceCurrency;
+
+    @Column(length = 3)
+    private String targetCurrency;
+
+    @Column(precision = 19, scale = 10)
+    private BigDecimal fxRate;
+
+    @Column(length = 32)
+    private String fxRateVersion;
+
 }
 
@@ -4,5 +4,6 @@ public enum TransferStatus {
     PENDING,
     COMPLETED,
     CANCELED,
-    FAILED
+    FAILED,
+    EXPIRED
 }
\ No newline at end of file
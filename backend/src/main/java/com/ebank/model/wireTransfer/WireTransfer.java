@@ -43,9 +43,33 @@ public class WireTransfer {
 
     private String referenceNumber;
 
+    // عند اختلاف العملة عن عملة الحساب: المبلغ المخصوم بعملة الحساب وسعر الصرف المثبت عند الإنشاء
+    private BigDecimal debitAmount;
+
+    @Column(precision = 19, scale = 10)
+    private BigDecimal fxRate;
+
+    @Column(length = 32)
+    private String fxRateVersion;
+
     @Enumerated(EnumType.STRING)
     private TransferStatus status;
 
     private LocalDateTime initiatedAt;
     private LocalDateTime completedAt;
+
+    // الدفعة الصادرة التي حجزت التحويل؛ بعد الحجز يكون رصيد المرسل قد خُصم
+    @Column(length = 32)
+    private String settlementBatch;
+
+    private LocalDateTime settlementStartedAt;
+
+    private String failureReason;
+
+    @Version
+    private int version;
+
+    public BigDecimal getDebitAmount() {
+        return debitAmount != null ? debitAmount : amount;
+    }
 }
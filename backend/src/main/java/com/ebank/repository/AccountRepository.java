@@ -6,6 +6,7 @@ import com.ebank.model.account.AccountType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -57,12 +58,32 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
                                  @Param("minBalance") BigDecimal minBalance,
                                  @Param("maxBalance") BigDecimal maxBalance);
 
-    @Query("SELECT a FROM Account a WHERE " +
-            "a.accountNumber LIKE %:searchTerm% OR " +
-            "a.accountName LIKE %:searchTerm% OR " +
-            "a.user.firstName LIKE %:searchTerm% OR " +
-            "a.user.lastName LIKE %:searchTerm%")
-    List<Account> search(@Param("searchTerm") String searchTerm);
+    // بحث FULLTEXT (ngram) في الحساب وفي اسم صاحبه، مرتب حسب الصلة.
+    // فهرس FULLTEXT لا يغطي جدولين، لذلك استعلامان منفصلان تُجمع نتيجتهما حسب الحساب
+    @Query(value = "SELECT m.id AS id, SUM(m.score) AS score FROM (" +
+            "  SELECT a.id, MATCH(a.account_number, a.account_name) AGAINST (:term IN BOOLEAN MODE) AS score " +
+            "  FROM accounts a WHERE MATCH(a.account_number, a.account_name) AGAINST (:term IN BOOLEAN MODE) " +
+            "  UNION ALL " +
+            "  SELECT a.id, MATCH(u.first_name, u.last_name) AGAINST (:term IN BOOLEAN MODE) AS score " +
+            "  FROM users u JOIN accounts a ON a.user_id = u.id " +
+            "  WHERE MATCH(u.first_name, u.last_name) AGAINST (:term IN BOOLEAN MODE)" +
+            ") m GROUP BY m.id ORDER BY score DESC, m.id LIMIT :limit OFFSET :offset",
+            nativeQuery = true)
+    List<AccountSearchHit> searchRanked(@Param("term") String term,
+                                        @Param("limit") int limit,
+                                        @Param("offset") int offset);
 
+    // خصم شرطي: لا يتم إلا إذا كان الحساب فعالاً ورصيده يغطي المبلغ.
+    // زيادة version تُفشل أي حفظ لاحق لنسخة قديمة من الكيان بدل أن يكتب فوق الخصم
+    @Modifying
+    @Query("UPDATE Account a SET a.balance = a.balance - :amount, a.version = a.version + 1, " +
+           "a.updatedAt = local datetime " +
+           "WHERE a.id = :id AND a.balance >= :amount " +
+           "AND a.status = com.ebank.model.account.AccountStatus.ACTIVE")
+    int debitIfCovered(@Param("id") Long id, @Param("amount") BigDecimal amount);
 
+    @Modifying
+    @Query("UPDATE Account a SET a.balance = a.balance + :amount, a.version = a.version + 1, " +
+           "a.updatedAt = local datetime WHERE a.id = :id")
+    int credit(@Param("id") Long id, @Param("amount") BigDecimal amount);
 }
\ No newline at end of file
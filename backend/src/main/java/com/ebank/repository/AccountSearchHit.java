@@ -0,0 +1,6 @@
+package com.ebank.repository;
+
+public interface AccountSearchHit {
+    Long getId();
+    Double getScore();
+}
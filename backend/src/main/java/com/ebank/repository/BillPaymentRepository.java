@@ -1,13 +1,18 @@
 package com.ebank.repository;
 
 import com.ebank.model.billPayment.BillPayment;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
 import java.util.Optional;
 
 public interface BillPaymentRepository extends JpaRepository<BillPayment, Long> {
+    @EntityGraph(attributePaths = "payerAccount")
     List<BillPayment> findByPayerAccount_IdOrderByPaymentDateDesc(Long accountId);
+
     Optional<BillPayment> findByPaymentReceiptNumber(String receiptNumber);
+
+    @EntityGraph(attributePaths = "payerAccount")
     List<BillPayment> findByBillerCodeOrderByPaymentDateDesc(String billerCode);
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.ebank.repository;
+
+import com.ebank.model.creditCard.CardAuthorization;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface CardAuthorizationRepository extends JpaRepository<CardAuthorization, Long> {
+
+    Optional<CardAuthorization> findByAuthCode(String authCode);
+
+    @Query("SELECT a.authCode FROM CardAuthorization a WHERE a.authCode IN :authCodes")
+    List<String> findExistingAuthCodes(@Param("authCodes") Collection<String> authCodes);
+
+    @Query("SELECT a.authCode FROM CardAuthorization a " +
+           "WHERE a.status = com.ebank.model.creditCard.AuthorizationStatus.HELD AND a.authorizedAt < :before " +
+           "ORDER BY a.authorizedAt")
+    List<String> findHeldAuthCodesBefore(@Param("before") LocalDateTime before, Pageable pageable);
+}
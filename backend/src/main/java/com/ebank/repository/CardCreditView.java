@@ -0,0 +1,11 @@
+package com.ebank.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public interface CardCreditView {
+    Long getId();
+    BigDecimal getAvailableBalance();
+    Boolean getIsActive();
+    LocalDate getExpiryDate();
+}
@@ -0,0 +1,52 @@
+package com.ebank.repository;
+
+import com.ebank.model.creditCard.CardIssuanceBatch;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface CardIssuanceBatchRepository extends JpaRepository<CardIssuanceBatch, Long> {
+
+    // PENDING أو RUNNING توقف عامله (لم يحدّث heartbeat)
+    @Query("SELECT b.id FROM CardIssuanceBatch b " +
+           "WHERE b.status = com.ebank.model.creditCard.IssuanceStatus.PENDING " +
+           "OR (b.status = com.ebank.model.creditCard.IssuanceStatus.RUNNING AND b.heartbeatAt < :staleBefore) " +
+           "ORDER BY b.id")
+    List<Long> findClaimableIds(@Param("staleBefore") LocalDateTime staleBefore, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE CardIssuanceBatch b SET b.status = com.ebank.model.creditCard.IssuanceStatus.RUNNING, " +
+           "b.heartbeatAt = :now " +
+           "WHERE b.id = :id AND (b.status = com.ebank.model.creditCard.IssuanceStatus.PENDING " +
+           "OR (b.status = com.ebank.model.creditCard.IssuanceStatus.RUNNING AND b.heartbeatAt < :staleBefore))")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now,
+              @Param("staleBefore") LocalDateTime staleBefore);
+
+    @Modifying
+    @Query("UPDATE CardIssuanceBatch b SET b.issuedCount = b.issuedCount + :issued, " +
+           "b.failedCount = b.failedCount + :failed, b.heartbeatAt = :now " +
+           "WHERE b.id = :id AND b.status = com.ebank.model.creditCard.IssuanceStatus.RUNNING")
+    int advance(@Param("id") Long id, @Param("issued") int issued, @Param("failed") int failed,
+                @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE CardIssuanceBatch b SET b.status = com.ebank.model.creditCard.IssuanceStatus.COMPLETED, " +
+           "b.completedAt = :now " +
+           "WHERE b.id = :id AND b.status = com.ebank.model.creditCard.IssuanceStatus.RUNNING")
+    int complete(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE CardIssuanceBatch b SET b.status = com.ebank.model.creditCard.IssuanceStatus.FAILED, " +
+           "b.failureReason = :reason, b.completedAt = :now " +
+           "WHERE b.id = :id AND b.status = com.ebank.model.creditCard.IssuanceStatus.RUNNING")
+    int fail(@Param("id") Long id, @Param("reason") String reason, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,20 @@
+package com.ebank.repository;
+
+import com.ebank.model.creditCard.CardIssuanceItem;
+import com.ebank.model.creditCard.IssuanceItemStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface CardIssuanceItemRepository extends JpaRepository<CardIssuanceItem, Long> {
+
+    List<CardIssuanceItem> findByBatchIdAndStatusOrderByLineNumber(Long batchId, IssuanceItemStatus status,
+                                                                   Pageable pageable);
+
+    Page<CardIssuanceItem> findByBatchIdOrderByLineNumber(Long batchId, Pageable pageable);
+
+    Page<CardIssuanceItem> findByBatchIdAndStatusOrderByLineNumber(Long batchId, IssuanceItemStatus status,
+                                                                   Pageable pageable);
+}
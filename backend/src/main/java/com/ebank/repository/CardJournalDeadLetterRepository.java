@@ -0,0 +1,7 @@
+package com.ebank.repository;
+
+import com.ebank.model.creditCard.CardJournalDeadLetter;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface CardJournalDeadLetterRepository extends JpaRepository<CardJournalDeadLetter, Long> {
+}
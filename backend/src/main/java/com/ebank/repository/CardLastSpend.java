@@ -0,0 +1,8 @@
+package com.ebank.repository;
+
+import java.time.LocalDateTime;
+
+public interface CardLastSpend {
+    Long getCardId();
+    LocalDateTime getLastOccurredAt();
+}
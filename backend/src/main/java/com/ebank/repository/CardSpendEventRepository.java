@@ -0,0 +1,26 @@
+package com.ebank.repository;
+
+import com.ebank.model.creditCard.CardSpendEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface CardSpendEventRepository extends JpaRepository<CardSpendEvent, Long> {
+
+    // مجاميع دورة كاملة لنطاق من البطاقات في استعلام واحد
+    @Query("SELECT e.cardId AS cardId, e.type AS type, SUM(e.amount) AS total FROM CardSpendEvent e " +
+           "WHERE e.cardId BETWEEN :fromId AND :toId AND e.occurredAt >= :from AND e.occurredAt < :to " +
+           "GROUP BY e.cardId, e.type")
+    List<CardSpendTotal> sumByCard(@Param("fromId") Long fromId, @Param("toId") Long toId,
+                                   @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // آخر حركة قبل الدورة لكل بطاقة، لكشف الحركات التي لم يغطها أي كشف
+    @Query("SELECT e.cardId AS cardId, MAX(e.occurredAt) AS lastOccurredAt FROM CardSpendEvent e " +
+           "WHERE e.cardId BETWEEN :fromId AND :toId AND e.occurredAt < :before " +
+           "GROUP BY e.cardId")
+    List<CardLastSpend> findLastSpendBefore(@Param("fromId") Long fromId, @Param("toId") Long toId,
+                                            @Param("before") LocalDateTime before);
+}
@@ -0,0 +1,11 @@
+package com.ebank.repository;
+
+import com.ebank.model.creditCard.SpendEventType;
+
+import java.math.BigDecimal;
+
+public interface CardSpendTotal {
+    Long getCardId();
+    SpendEventType getType();
+    BigDecimal getTotal();
+}
@@ -0,0 +1,30 @@
+package com.ebank.repository;
+
+import com.ebank.model.creditCard.CardStatement;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface CardStatementRepository extends JpaRepository<CardStatement, Long> {
+
+    Optional<CardStatement> findFirstByCardIdOrderByPeriodEndDesc(Long cardId);
+
+    Page<CardStatement> findByCardIdOrderByPeriodEndDesc(Long cardId, Pageable pageable);
+
+    // أحدث كشف قبل الدورة لكل بطاقة، ولو لم يكن كشف الدورة السابقة مباشرة
+    @Query("SELECT s FROM CardStatement s WHERE s.cardId BETWEEN :fromId AND :toId AND s.periodEnd = " +
+           "(SELECT MAX(p.periodEnd) FROM CardStatement p WHERE p.cardId = s.cardId AND p.periodEnd < :before)")
+    List<CardStatement> findLatestBefore(@Param("fromId") Long fromId, @Param("toId") Long toId,
+                                         @Param("before") LocalDate before);
+
+    @Query("SELECT s.cardId FROM CardStatement s " +
+           "WHERE s.cardId BETWEEN :fromId AND :toId AND s.periodEnd = :periodEnd")
+    List<Long> findClosedCardIds(@Param("fromId") Long fromId, @Param("toId") Long toId,
+                                 @Param("periodEnd") LocalDate periodEnd);
+}
@@ -1,13 +1,55 @@
 package com.ebank.repository;
 
 import com.ebank.model.creditCard.CreditCard;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface CreditCardRepository extends JpaRepository<CreditCard, Long> {
+    @EntityGraph(attributePaths = "linkedAccount")
     List<CreditCard> findByLinkedAccount_Id(Long accountId);
+
+    @EntityGraph(attributePaths = "linkedAccount")
     List<CreditCard> findByLinkedAccount_IdAndIsActiveTrue(Long accountId);
     Optional<CreditCard> findByCardNumber(String cardNumber);
-}
\ No newline at end of file
+
+    boolean existsByCardNumber(String cardNumber);
+
+    @Query("SELECT c.id AS id, c.cardNumber AS cardNumber FROM CreditCard c WHERE c.id > :afterId ORDER BY c.id")
+    List<IssuedCardNumber> findCardNumbersAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT c.id AS id, c.availableBalance AS availableBalance, c.isActive AS isActive, " +
+           "c.expiryDate AS expiryDate FROM CreditCard c WHERE c.id = :id")
+    Optional<CardCreditView> findCreditViewById(@Param("id") Long id);
+
+    @Query("SELECT c.id AS id, c.availableBalance AS availableBalance, c.isActive AS isActive, " +
+           "c.expiryDate AS expiryDate FROM CreditCard c WHERE c.id IN :ids")
+    List<CardCreditView> findCreditViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT MIN(c.id) FROM CreditCard c")
+    Long findMinId();
+
+    @Query("SELECT MAX(c.id) FROM CreditCard c")
+    Long findMaxId();
+
+    @Query("SELECT c.id FROM CreditCard c WHERE c.id BETWEEN :fromId AND :toId ORDER BY c.id")
+    List<Long> findIdsBetween(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    // تعديل نسبي: لا يمسح ما كتبته دفعة أخرى من دفتر الحجوزات
+    @Modifying
+    @Query("UPDATE CreditCard c SET c.availableBalance = c.availableBalance + :delta WHERE c.id = :id")
+    int adjustAvailableBalance(@Param("id") Long id, @Param("delta") BigDecimal delta);
+
+    @Modifying
+    @Query("UPDATE CreditCard c SET c.creditLimit = :limit, c.availableBalance = c.availableBalance + :delta " +
+           "WHERE c.id = :id")
+    int updateCreditLimit(@Param("id") Long id, @Param("limit") BigDecimal limit, @Param("delta") BigDecimal delta);
+}
@@ -3,12 +3,25 @@ package com.ebank.repository;
 import com.ebank.model.discountCoupon.DiscountCoupon;
 import com.ebank.model.discountCoupon.DiscountType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 public interface DiscountCouponRepository extends JpaRepository<DiscountCoupon, String> {
     List<DiscountCoupon> findByExpiryDateAfter(LocalDate date);
     List<DiscountCoupon> findByDiscountType(DiscountType discountType);
     long countByActive(boolean active);
+
+    @Query("SELECT c.usageLimit - c.usedCount FROM DiscountCoupon c WHERE c.couponCode = :couponCode")
+    Optional<Integer> findRemainingQuota(@Param("couponCode") String couponCode);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE DiscountCoupon c SET c.usedCount = c.usedCount + :count WHERE c.couponCode = :couponCode")
+    int incrementUsedCount(@Param("couponCode") String couponCode, @Param("count") int count);
 }
@@ -0,0 +1,6 @@
+package com.ebank.repository;
+
+public interface IssuedCardNumber {
+    Long getId();
+    String getCardNumber();
+}
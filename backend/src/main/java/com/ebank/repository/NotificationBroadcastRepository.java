@@ -0,0 +1,55 @@
+package com.ebank.repository;
+
+import com.ebank.model.notification.NotificationBroadcast;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface NotificationBroadcastRepository extends JpaRepository<NotificationBroadcast, Long> {
+
+    // PENDING أو RUNNING توقف عامله (لم يحدّث heartbeat)
+    @Query("SELECT b.id FROM NotificationBroadcast b " +
+           "WHERE b.status = com.ebank.model.notification.BroadcastStatus.PENDING " +
+           "OR (b.status = com.ebank.model.notification.BroadcastStatus.RUNNING AND b.heartbeatAt < :staleBefore) " +
+           "ORDER BY b.id")
+    List<Long> findClaimableIds(@Param("staleBefore") LocalDateTime staleBefore, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE NotificationBroadcast b SET b.status = com.ebank.model.notification.BroadcastStatus.RUNNING, " +
+           "b.heartbeatAt = :now " +
+           "WHERE b.id = :id AND (b.status = com.ebank.model.notification.BroadcastStatus.PENDING " +
+           "OR (b.status = com.ebank.model.notification.BroadcastStatus.RUNNING AND b.heartbeatAt < :staleBefore))")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now,
+              @Param("staleBefore") LocalDateTime staleBefore);
+
+    // ينجح فقط إذا لم يتقدم عامل آخر بالمؤشر ولم يُلغَ البث
+    @Modifying
+    @Query("UPDATE NotificationBroadcast b SET b.lastRecipientId = :lastRecipientId, " +
+           "b.deliveredCount = b.deliveredCount + :delivered, b.heartbeatAt = :now " +
+           "WHERE b.id = :id AND b.lastRecipientId = :expectedCursor " +
+           "AND b.status = com.ebank.model.notification.BroadcastStatus.RUNNING")
+    int advanceCursor(@Param("id") Long id, @Param("expectedCursor") Long expectedCursor,
+                      @Param("lastRecipientId") Long lastRecipientId, @Param("delivered") long delivered,
+                      @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE NotificationBroadcast b SET b.status = com.ebank.model.notification.BroadcastStatus.COMPLETED, " +
+           "b.completedAt = :now " +
+           "WHERE b.id = :id AND b.status = com.ebank.model.notification.BroadcastStatus.RUNNING")
+    int complete(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // شرطي على الحالة: لا يكتب فوق COMPLETED سجّله العامل في نفس اللحظة
+    @Modifying
+    @Query("UPDATE NotificationBroadcast b SET b.status = com.ebank.model.notification.BroadcastStatus.CANCELLED " +
+           "WHERE b.id = :id AND b.status NOT IN (com.ebank.model.notification.BroadcastStatus.COMPLETED, " +
+           "com.ebank.model.notification.BroadcastStatus.CANCELLED)")
+    int cancel(@Param("id") Long id);
+}
@@ -1,10 +1,14 @@
 package com.ebank.repository;
 
+import com.ebank.dto.NotificationDTO;
 import com.ebank.model.notification.Notification;
 import com.ebank.model.notification.NotificationType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -15,4 +19,29 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     List<Notification> findByRecipient_IdAndTypeOrderByCreatedAtDesc(Long userId, NotificationType type);
     int countByRecipient_IdAndIsReadFalse(Long userId);
     long countByCreatedAtBetween(LocalDateTime start, LocalDateTime end);
+    boolean existsByDedupeKey(String dedupeKey);
+
+    // صندوق الوارد بمؤشر (createdAt, id) بدلاً من OFFSET
+    @Query("SELECT new com.ebank.dto.NotificationDTO(n.id, n.recipient.id, n.title, n.message, n.type, n.isRead, n.createdAt) " +
+           "FROM Notification n WHERE n.recipient.id = :userId ORDER BY n.createdAt DESC, n.id DESC")
+    List<NotificationDTO> findInboxFirstPage(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT new com.ebank.dto.NotificationDTO(n.id, n.recipient.id, n.title, n.message, n.type, n.isRead, n.createdAt) " +
+           "FROM Notification n WHERE n.recipient.id = :userId " +
+           "AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id)) " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    List<NotificationDTO> findInboxPageAfter(@Param("userId") Long userId, @Param("createdAt") LocalDateTime createdAt,
+                                             @Param("id") Long id, Pageable pageable);
+
+    // إعادة إرسال ما فات عميل الـ SSE (Last-Event-ID)
+    @Query("SELECT new com.ebank.dto.NotificationDTO(n.id, n.recipient.id, n.title, n.message, n.type, n.isRead, n.createdAt) " +
+           "FROM Notification n WHERE n.recipient.id = :userId AND n.id > :afterId ORDER BY n.id")
+    List<NotificationDTO> findNewerThan(@Param("userId") Long userId, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.recipient.id = :userId AND n.isRead = false")
+    int markAllAsRead(@Param("userId") Long userId);
+
+    @Query("SELECT COALESCE(MAX(n.id), 0) FROM Notification n WHERE n.recipient.id = :userId")
+    long findLatestId(@Param("userId") Long userId);
 }
\ No newline at end of file
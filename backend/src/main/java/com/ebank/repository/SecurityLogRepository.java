@@ -13,8 +13,9 @@ public interface SecurityLogRepository extends JpaRepository<SecurityLog, Long>
     Page<SecurityLog> findByUser_IdOrderByTimestampDesc(Long userId, Pageable pageable);
     List<SecurityLog> findTopByUser_IdAndStatusOrderByTimestampDesc(
             Long userId, LogStatus status, Pageable pageable);
-    int countByUser_IdAndStatusAndTimestampAfter(
-            Long userId, LogStatus status, LocalDateTime timestamp);
+    // الشرط على created_at (عمود التقسيم) يسمح بـ partition pruning
+    int countByUser_IdAndStatusAndCreatedAtAfter(
+            Long userId, LogStatus status, LocalDateTime createdAt);
     List<SecurityLog> findByIpAddressOrderByTimestampDesc(String ipAddress);
     long countByActionAndCreatedAtBetween(String action, LocalDateTime start, LocalDateTime end);
 
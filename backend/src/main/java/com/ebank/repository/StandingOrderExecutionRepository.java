@@ -0,0 +1,11 @@
+package com.ebank.repository;
+
+import com.ebank.model.standingOrder.StandingOrderExecution;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface StandingOrderExecutionRepository extends JpaRepository<StandingOrderExecution, Long> {
+
+    Page<StandingOrderExecution> findByStandingOrderIdOrderByDueDateDesc(Long standingOrderId, Pageable pageable);
+}
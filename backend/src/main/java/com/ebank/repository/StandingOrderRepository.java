@@ -0,0 +1,46 @@
+package com.ebank.repository;
+
+import com.ebank.model.standingOrder.StandingOrder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface StandingOrderRepository extends JpaRepository<StandingOrder, Long> {
+
+    @EntityGraph(attributePaths = "sourceAccount")
+    Page<StandingOrder> findByOwner_IdOrderByCreatedAtDesc(Long ownerId, Pageable pageable);
+
+    @EntityGraph(attributePaths = "sourceAccount")
+    Optional<StandingOrder> findByIdAndOwner_Id(Long id, Long ownerId);
+
+    // طابور الاستحقاق: يستخدم الفهرس (status, next_due_at)، ويتجاهل ما تحجزه نسخة أخرى
+    @Query("SELECT o.id FROM StandingOrder o " +
+           "WHERE o.status = com.ebank.model.standingOrder.StandingOrderStatus.ACTIVE " +
+           "AND o.nextDueAt <= :now AND (o.leaseUntil IS NULL OR o.leaseUntil < :now) " +
+           "ORDER BY o.nextDueAt")
+    List<Long> findDueIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE StandingOrder o SET o.leaseOwner = :owner, o.leaseUntil = :until, o.version = o.version + 1 " +
+           "WHERE o.id = :id AND o.status = com.ebank.model.standingOrder.StandingOrderStatus.ACTIVE " +
+           "AND o.nextDueAt <= :now AND (o.leaseUntil IS NULL OR o.leaseUntil < :now)")
+    int claim(@Param("id") Long id, @Param("owner") String owner,
+              @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    // leaseUntil يبقى مضبوطاً على وقت إعادة المحاولة حتى لا يُلتقط الطلب فوراً
+    @Modifying
+    @Transactional
+    @Query("UPDATE StandingOrder o SET o.leaseOwner = NULL, o.leaseUntil = :retryAt, o.version = o.version + 1 " +
+           "WHERE o.id = :id AND o.leaseOwner = :owner")
+    int release(@Param("id") Long id, @Param("owner") String owner, @Param("retryAt") LocalDateTime retryAt);
+}
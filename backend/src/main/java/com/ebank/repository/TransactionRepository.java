@@ -3,15 +3,19 @@ package com.ebank.repository;
 import com.ebank.model.transaction.Transaction;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
 
+    // يتم جلب الحسابين في نفس الاستعلام لتجنب مشكلة N+1 عند التحويل إلى DTO
+    @EntityGraph(attributePaths = {"sourceAccount", "targetAccount"})
     Page<Transaction> findBySourceAccount_AccountNumberOrTargetAccount_AccountNumber(
             String sourceAccountNumber,
             String targetAccountNumber,
@@ -19,17 +23,27 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     );
 
     @Query("SELECT t FROM Transaction t " +
-            "WHERE t.sourceAccount.accountNumber = :accountNumber " +
-            "   OR t.targetAccount.accountNumber = :accountNumber " +
+            "JOIN FETCH t.sourceAccount s " +
+            "LEFT JOIN FETCH t.targetAccount tg " +
+            "WHERE s.accountNumber = :accountNumber " +
+            "   OR tg.accountNumber = :accountNumber " +
             "ORDER BY t.timestamp DESC")
     List<Transaction> findRecentTransactions(@Param("accountNumber") String accountNumber,
                                              Pageable pageable);
 
-    List<Transaction> findByReferenceContainingIgnoreCase(String reference);
+    // المرجع مخزن بأحرف كبيرة وعليه فهرس فريد؛ البحث بالبادئة يستخدم الفهرس
+    @EntityGraph(attributePaths = {"sourceAccount", "targetAccount"})
+    Optional<Transaction> findByReference(String reference);
+
+    @EntityGraph(attributePaths = {"sourceAccount", "targetAccount"})
+    Page<Transaction> findByReferenceStartingWith(String referencePrefix, Pageable pageable);
+
+    boolean existsByReference(String reference);
 
     long countByCreatedAtBetween(LocalDateTime start, LocalDateTime end);
 
     // البحث في حسابات متعددة باستخدام account numbers
+    @EntityGraph(attributePaths = {"sourceAccount", "targetAccount"})
     List<Transaction> findBySourceAccount_AccountNumberInOrTargetAccount_AccountNumberIn(
             List<String> sourceAccountNumbers,
             List<String> targetAccountNumbers
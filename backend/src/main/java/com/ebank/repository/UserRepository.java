@@ -1,9 +1,14 @@
 package com.ebank.repository;
 
+import com.ebank.model.user.Role;
 import com.ebank.model.user.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -13,4 +18,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Boolean existsByEmail(String email);
     long countByEnabled(boolean enabled);
     long countByCreatedAtBetween(LocalDateTime start, LocalDateTime end);
+
+    // مستلمو البث: معرّفات فقط، مرتبة لتقسيمها على دفعات (keyset)
+    @Query("SELECT u.id FROM User u WHERE u.id > :afterId AND u.enabled = true " +
+           "AND (:role IS NULL OR u.role = :role) ORDER BY u.id")
+    List<Long> findRecipientIdsAfter(@Param("afterId") Long afterId, @Param("role") Role role, Pageable pageable);
+
+    @Query("SELECT COUNT(u) FROM User u WHERE u.enabled = true AND (:role IS NULL OR u.role = :role)")
+    long countRecipients(@Param("role") Role role);
 }
\ No newline at end of file
@@ -4,12 +4,84 @@ import com.ebank.model.wireTransfer.TransferStatus;
 import com.ebank.model.wireTransfer.WireTransfer;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface WireTransferRepository extends JpaRepository<WireTransfer, Long> {
     Optional<WireTransfer> findByReferenceNumber(String referenceNumber);
+
+    @EntityGraph(attributePaths = "senderAccount")
     Page<WireTransfer> findBySenderAccount_AccountNumber(String accountNumber, Pageable pageable);
+
+    @EntityGraph(attributePaths = "senderAccount")
     List<WireTransfer> findByStatus(TransferStatus status);
-}
\ No newline at end of file
+
+    @EntityGraph(attributePaths = "senderAccount")
+    Page<WireTransfer> findByStatus(TransferStatus status, Pageable pageable);
+
+    // التسوية: قراءة المعلق غير المحجوز على دفعات بترتيب المعرّف (keyset)
+    @Query("SELECT w.id AS id, w.recipientBankCode AS recipientBankCode FROM WireTransfer w " +
+           "WHERE w.status = com.ebank.model.wireTransfer.TransferStatus.PENDING " +
+           "AND w.settlementBatch IS NULL AND w.id > :afterId ORDER BY w.id")
+    List<WireTransferRoute> findUnclaimedPendingAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT DISTINCT w.settlementBatch FROM WireTransfer w " +
+           "WHERE w.status = com.ebank.model.wireTransfer.TransferStatus.PENDING " +
+           "AND w.settlementBatch IS NOT NULL AND w.settlementStartedAt < :staleBefore")
+    List<String> findStaleSettlementBatches(@Param("staleBefore") LocalDateTime staleBefore);
+
+    @EntityGraph(attributePaths = "senderAccount")
+    @Query("SELECT w FROM WireTransfer w WHERE w.settlementBatch = :batch " +
+           "AND w.status = com.ebank.model.wireTransfer.TransferStatus.PENDING ORDER BY w.id")
+    List<WireTransfer> findPendingInBatch(@Param("batch") String batch);
+
+    // ينجح فقط للتحويلات التي ما زالت معلقة ولم تحجزها دفعة أخرى أو نسخة أخرى
+    @Modifying
+    @Query("UPDATE WireTransfer w SET w.settlementBatch = :batch, w.settlementStartedAt = :now, " +
+           "w.version = w.version + 1 " +
+           "WHERE w.id IN :ids AND w.status = com.ebank.model.wireTransfer.TransferStatus.PENDING " +
+           "AND w.settlementBatch IS NULL AND w.initiatedAt >= :expiresBefore")
+    int claim(@Param("ids") Collection<Long> ids, @Param("batch") String batch,
+              @Param("now") LocalDateTime now, @Param("expiresBefore") LocalDateTime expiresBefore);
+
+    // تحديث الوقت عند إعادة إرسال دفعة متوقفة حتى لا تلتقطها نسخة أخرى في نفس الوقت
+    @Modifying
+    @Transactional
+    @Query("UPDATE WireTransfer w SET w.settlementStartedAt = :now, w.version = w.version + 1 " +
+           "WHERE w.settlementBatch = :batch AND w.settlementStartedAt < :staleBefore " +
+           "AND w.status = com.ebank.model.wireTransfer.TransferStatus.PENDING")
+    int reclaimBatch(@Param("batch") String batch, @Param("now") LocalDateTime now,
+                     @Param("staleBefore") LocalDateTime staleBefore);
+
+    @Modifying
+    @Query("UPDATE WireTransfer w SET w.status = com.ebank.model.wireTransfer.TransferStatus.COMPLETED, " +
+           "w.completedAt = :now, w.version = w.version + 1 " +
+           "WHERE w.id IN :ids AND w.settlementBatch = :batch " +
+           "AND w.status = com.ebank.model.wireTransfer.TransferStatus.PENDING")
+    int completeInBatch(@Param("ids") Collection<Long> ids, @Param("batch") String batch,
+                        @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE WireTransfer w SET w.status = com.ebank.model.wireTransfer.TransferStatus.FAILED, " +
+           "w.failureReason = :reason, w.version = w.version + 1 " +
+           "WHERE w.id = :id AND w.status = com.ebank.model.wireTransfer.TransferStatus.PENDING")
+    int markFailed(@Param("id") Long id, @Param("reason") String reason);
+
+    // التحويلات المحجوزة خُصم رصيدها فلا تنتهي صلاحيتها، بل تكمل التسوية
+    @Modifying
+    @Transactional
+    @Query("UPDATE WireTransfer w SET w.status = com.ebank.model.wireTransfer.TransferStatus.EXPIRED, " +
+           "w.version = w.version + 1 " +
+           "WHERE w.status = com.ebank.model.wireTransfer.TransferStatus.PENDING " +
+           "AND w.settlementBatch IS NULL AND w.initiatedAt < :expiresBefore")
+    int expirePending(@Param("expiresBefore") LocalDateTime expiresBefore);
+}
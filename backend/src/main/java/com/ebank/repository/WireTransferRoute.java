@@ -0,0 +1,6 @@
+package com.ebank.repository;
+
+public interface WireTransferRoute {
+    Long getId();
+    String getRecipientBankCode();
+}
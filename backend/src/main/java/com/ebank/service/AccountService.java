@@ -29,7 +29,7 @@ public interface AccountService {
     void updateAccountStatus(Long accountId, AccountStatus status);
 
     // عمليات البحث
-    List<AccountDTO> searchAccounts(String searchTerm);
+    List<AccountDTO> searchAccounts(String searchTerm, int page, int size);
     List<AccountDTO> getAccountsByType(String accountType);
 
     // إعدادات الحساب
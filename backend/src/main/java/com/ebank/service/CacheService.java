@@ -1,5 +1,6 @@
 package com.ebank.service;
 
+import java.util.Collection;
 import java.util.concurrent.TimeUnit;
 
 public interface CacheService {
@@ -16,6 +17,8 @@ public interface CacheService {
     // عمليات عامة للتخزين المؤقت
     <T> void cacheData(String key, T value, Class<T> type);
     <T> T getCachedData(String key, Class<T> type);
+    void evict(String key);
+    void evictAll(Collection<String> keys);
 
     // إدارة صلاحية البيانات
     void setExpiration(String key, long timeout, TimeUnit unit);
@@ -1,9 +1,17 @@
 // CreditCardService.java
 package com.ebank.service;
 
+import com.ebank.dto.BulkCardIssuanceRequest;
+import com.ebank.dto.CardAuthorizationDTO;
+import com.ebank.dto.CardIssuanceBatchDTO;
+import com.ebank.dto.CardIssuanceItemDTO;
+import com.ebank.dto.CardStatementDTO;
 import com.ebank.dto.CreditCardResponseDTO;
 import com.ebank.exception.CreditCardException;
 import com.ebank.model.creditCard.CardType;
+import com.ebank.model.creditCard.IssuanceItemStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -15,8 +23,26 @@ public interface CreditCardService {
                                           CardType cardType,
                                           BigDecimal creditLimit);
 
+    CardIssuanceBatchDTO submitBulkIssuance(BulkCardIssuanceRequest request);
+
+    CardIssuanceBatchDTO getIssuanceBatch(Long batchId);
+
+    Page<CardIssuanceItemDTO> getIssuanceItems(Long batchId, IssuanceItemStatus status, Pageable pageable);
+
     CreditCardResponseDTO processPayment(Long cardId, BigDecimal amount);
 
+    CardAuthorizationDTO authorize(Long cardId, BigDecimal amount, String merchant);
+
+    CardAuthorizationDTO captureAuthorization(String authCode, BigDecimal amount);
+
+    CardAuthorizationDTO voidAuthorization(String authCode);
+
+    CreditCardResponseDTO repayCard(Long cardId, BigDecimal amount);
+
+    CardStatementDTO getLatestStatement(Long cardId);
+
+    Page<CardStatementDTO> getStatements(Long cardId, Pageable pageable);
+
     CreditCardResponseDTO updateCreditLimit(Long cardId, BigDecimal newLimit)
             throws CreditCardException;
 
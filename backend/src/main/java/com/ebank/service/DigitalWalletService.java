@@ -8,6 +8,8 @@ import java.util.List;
 public interface DigitalWalletService {
     DigitalWallet createWallet(Long userId, WalletType walletType, String phoneNumber);
 
+    void resendVerificationCode(Long walletId);
+
     DigitalWallet verifyWallet(Long walletId, String verificationCode);
 
     void deleteWallet(Long walletId);
@@ -12,7 +12,7 @@ public interface DiscountCouponService {
                                 DiscountType discountType, BigDecimal discountValue,
                                 LocalDate expiryDate, Integer usageLimit);
 
-    DiscountCoupon applyCoupon(String couponCode);
+    DiscountCoupon applyCoupon(String couponCode, Long userId);
 
     void deactivateCoupon(String couponCode);
 
@@ -1,7 +1,10 @@
 package com.ebank.service;
 
+import com.ebank.dto.NotificationInboxDTO;
 import com.ebank.model.notification.Notification;
+import com.ebank.model.notification.NotificationBroadcast;
 import com.ebank.model.notification.NotificationType;
+import com.ebank.model.user.Role;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -11,6 +14,14 @@ public interface NotificationService {
     Notification sendNotification(Long userId, String title,
                                   String message, NotificationType type);
 
+    /**
+     * Like {@link #sendNotification(Long, String, String, NotificationType)},
+     * but sends nothing if a notification with the same {@code dedupeKey}
+     * exists already. Returns null in that case.
+     */
+    Notification sendNotification(Long userId, String title,
+                                  String message, NotificationType type, String dedupeKey);
+
     Notification markAsRead(Long notificationId);
 
     void deleteNotification(Long notificationId);
@@ -19,6 +30,8 @@ public interface NotificationService {
 
     Page<Notification> getUserNotifications(Long userId, Pageable pageable);
 
+    NotificationInboxDTO getInbox(Long userId, String cursor, int size);
+
     List<Notification> getUnreadNotifications(Long userId);
 
     List<Notification> getNotificationsByType(Long userId, NotificationType type);
@@ -29,4 +42,11 @@ public interface NotificationService {
 
     Notification updateNotification(Notification notification);
 
+    NotificationBroadcast startBroadcast(String title, String message,
+                                         NotificationType type, Role segment);
+
+    NotificationBroadcast getBroadcast(Long broadcastId);
+
+    NotificationBroadcast cancelBroadcast(Long broadcastId);
+
 }
\ No newline at end of file
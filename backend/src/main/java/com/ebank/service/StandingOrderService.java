@@ -0,0 +1,23 @@
+package com.ebank.service;
+
+import com.ebank.dto.StandingOrderDTO;
+import com.ebank.dto.StandingOrderExecutionDTO;
+import com.ebank.dto.StandingOrderRequest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+public interface StandingOrderService {
+    StandingOrderDTO createStandingOrder(Long ownerId, StandingOrderRequest request);
+
+    Page<StandingOrderDTO> getUserStandingOrders(Long ownerId, Pageable pageable);
+
+    StandingOrderDTO getStandingOrder(Long ownerId, Long orderId);
+
+    StandingOrderDTO pauseStandingOrder(Long ownerId, Long orderId);
+
+    StandingOrderDTO resumeStandingOrder(Long ownerId, Long orderId);
+
+    StandingOrderDTO cancelStandingOrder(Long ownerId, Long orderId);
+
+    Page<StandingOrderExecutionDTO> getExecutions(Long ownerId, Long orderId, Pageable pageable);
+}
@@ -13,7 +13,8 @@ public interface TransactionService {
     public Page<TransactionDTO> getAccountTransactions(String accountNumber, Pageable pageable);
     public List<TransactionDTO> getRecentTransactions(String accountNumber, int count);
     public TransactionDTO reverseTransaction(Long transactionId);
-    List<TransactionDTO> searchByReference(String reference);
+    Page<TransactionDTO> searchByReference(String referencePrefix, int page, int size);
+    TransactionDTO getByReference(String reference);
     List<TransactionDTO> getUserTransactions(Long userId);
 
 }
@@ -19,7 +19,7 @@ public interface WireTransferService {
 
     Page<WireTransferResponseDTO> getTransfersByAccount(String accountNumber, Pageable pageable);
 
-    List<WireTransferResponseDTO> getPendingTransfers();
+    Page<WireTransferResponseDTO> getPendingTransfers(Pageable pageable);
 
     WireTransferResponseDTO getTransferByReference(String referenceNumber);
 
@@ -0,0 +1,43 @@
+package com.ebank.service.account;
+
+import com.ebank.service.CacheService;
+import com.ebank.service.outbox.AccountBalanceChanged;
+import com.ebank.service.outbox.OutboxSubscriber;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Drops every cached view of an account whose balance changed: details,
+ * balance, the owner's account list and the analytics built from its
+ * transactions. A batch is evicted with one multi-key DEL. Account search is
+ * left alone: its cached pages hold only ids, and balances are not searched.
+ */
+@Component
+@RequiredArgsConstructor
+public class AccountBalanceCacheSubscriber implements OutboxSubscriber<AccountBalanceChanged> {
+
+    private final CacheService cacheService;
+
+    @Override
+    public Class<AccountBalanceChanged> payloadType() {
+        return AccountBalanceChanged.class;
+    }
+
+    @Override
+    public void handle(List<AccountBalanceChanged> events) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (AccountBalanceChanged event : events) {
+            keys.add("account:balance:" + event.accountId());
+            keys.add("account:details:" + event.accountId());
+            keys.add("account:details:" + event.accountNumber());
+            keys.add("user:accounts:" + event.userId());
+            keys.add("spending-breakdown-account-" + event.accountNumber());
+            keys.add("monthly-trends-account-" + event.accountNumber());
+        }
+        cacheService.evictAll(keys);
+    }
+}
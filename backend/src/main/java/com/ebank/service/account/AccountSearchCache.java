@@ -0,0 +1,55 @@
+package com.ebank.service.account;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Locale;
+
+/**
+ * Cache keys for account search. Keys contain the normalized term itself
+ * (not its hash) and a global generation that is bumped only when searchable
+ * data changes: account numbers, account names and owner names. A cached page
+ * holds the ranked account ids, so balance and status changes need no bump;
+ * the FULLTEXT indexes themselves are kept current by InnoDB.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AccountSearchCache {
+
+    private static final String GENERATION_KEY = "account:search:gen";
+
+    private final StringRedisTemplate redisTemplate;
+
+    /** Lower-cased, whitespace-collapsed, without FULLTEXT boolean operators. */
+    public static String normalize(String term) {
+        return term.replaceAll("[+\\-<>()~*\"@]", " ")
+                .trim()
+                .replaceAll("\\s+", " ")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    /** Returns null when Redis is unavailable, meaning results should not be cached. */
+    public String key(String normalizedTerm, int page, int size) {
+        try {
+            String generation = redisTemplate.opsForValue().get(GENERATION_KEY);
+            return "account:search:ids:g" + (generation != null ? generation : "0")
+                    + ":" + page + ":" + size + ":" + normalizedTerm;
+        } catch (Exception e) {
+            log.warn("Account search generation unavailable: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSearchChanged(AccountSearchChangedEvent event) {
+        try {
+            redisTemplate.opsForValue().increment(GENERATION_KEY);
+        } catch (Exception e) {
+            log.warn("Failed to invalidate account search cache: {}", e.getMessage());
+        }
+    }
+}
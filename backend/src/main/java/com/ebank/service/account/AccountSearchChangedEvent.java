@@ -0,0 +1,8 @@
+package com.ebank.service.account;
+
+/**
+ * Published when an account or an account holder's name changes, so cached
+ * search results are dropped once the change is committed.
+ */
+public record AccountSearchChangedEvent() {
+}
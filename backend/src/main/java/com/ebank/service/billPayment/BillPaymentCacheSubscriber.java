@@ -0,0 +1,40 @@
+package com.ebank.service.billPayment;
+
+import com.ebank.dto.BillPaymentCacheDTO;
+import com.ebank.service.CacheService;
+import com.ebank.service.outbox.BillPaymentRecorded;
+import com.ebank.service.outbox.OutboxSubscriber;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+@Component
+@RequiredArgsConstructor
+public class BillPaymentCacheSubscriber implements OutboxSubscriber<BillPaymentRecorded> {
+
+    private final CacheService cacheService;
+
+    @Override
+    public Class<BillPaymentRecorded> payloadType() {
+        return BillPaymentRecorded.class;
+    }
+
+    @Override
+    public void handle(List<BillPaymentRecorded> events) {
+        Set<String> historyKeys = new LinkedHashSet<>();
+        for (BillPaymentRecorded event : events) {
+            BillPaymentCacheDTO receipt = BillPaymentCacheDTO.builder()
+                    .receiptNumber(event.receiptNumber())
+                    .payerAccountId(event.accountId())
+                    .amount(event.amount())
+                    .paymentDate(event.paymentDate())
+                    .build();
+            cacheService.cacheData("bill:receipt:" + event.receiptNumber(), receipt, BillPaymentCacheDTO.class);
+            historyKeys.add("bill:history:" + event.accountId());
+        }
+        cacheService.evictAll(historyKeys);
+    }
+}
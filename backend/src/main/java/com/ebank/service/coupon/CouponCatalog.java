@@ -0,0 +1,160 @@
+package com.ebank.service.coupon;
+
+import com.ebank.model.discountCoupon.DiscountCoupon;
+import com.ebank.repository.DiscountCouponRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of the coupon table used by checkout for validity checks and
+ * the active listing. Entries are reloaded on {@link CouponChangedEvent}, the
+ * change is fanned out to the other instances over Redis pub/sub, and expired
+ * coupons are dropped by a sweep right after midnight. Reads still check the
+ * expiry date so a coupon never outlives its day even before the sweep runs.
+ * <p>
+ * Pub/sub drops messages sent while an instance is disconnected, so a code
+ * that is missing or expired here is looked up in the table before it is
+ * refused, and the whole table is reloaded every {@code catalog-resync-ms}.
+ * <p>
+ * Callers get copies of the cached coupons, never the cached entities
+ * themselves, so nothing they set leaks into the catalogue or other requests.
+ * {@code usedCount} in the copies is as of the last reload; the remaining
+ * quota is kept by {@link CouponRedemptionEngine}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CouponCatalog {
+
+    static final String CHANGES_CHANNEL = "coupon:catalog:changes";
+
+    private final DiscountCouponRepository discountCouponRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private final Map<String, DiscountCoupon> coupons = new ConcurrentHashMap<>();
+    private volatile List<DiscountCoupon> activeCoupons = List.of();
+    private volatile boolean loaded;
+
+    @PostConstruct
+    void subscribe() {
+        listenerContainer.addMessageListener(
+                (message, pattern) -> reload(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(CHANGES_CHANNEL));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAll() {
+        LocalDate today = LocalDate.now();
+        Map<String, DiscountCoupon> fresh = new HashMap<>();
+        discountCouponRepository.findAll().stream()
+                .filter(coupon -> !coupon.getExpiryDate().isBefore(today))
+                .forEach(coupon -> fresh.put(coupon.getCouponCode(), coupon));
+        // بلا clear حتى لا تبدو القائمة فارغة لطلب يقرأ أثناء التحميل
+        coupons.putAll(fresh);
+        coupons.keySet().retainAll(fresh.keySet());
+        rebuildActiveCoupons();
+        loaded = true;
+        log.info("Loaded {} coupons into the catalogue", coupons.size());
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /** Catches up with changes whose pub/sub message this instance missed. */
+    @Scheduled(fixedDelayString = "${app.coupons.catalog-resync-ms:300000}",
+               initialDelayString = "${app.coupons.catalog-resync-ms:300000}")
+    public void resync() {
+        try {
+            loadAll();
+        } catch (RuntimeException e) {
+            log.warn("Coupon catalogue resync failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the coupon if it exists and has not expired. A code that is
+     * missing or expired here is read from the table, in case its change
+     * never reached this instance.
+     */
+    public Optional<DiscountCoupon> findValid(String couponCode) {
+        LocalDate today = LocalDate.now();
+        DiscountCoupon coupon = coupons.get(couponCode);
+        if (coupon == null || coupon.getExpiryDate().isBefore(today)) {
+            coupon = discountCouponRepository.findById(couponCode)
+                    .filter(found -> !found.getExpiryDate().isBefore(today))
+                    .orElse(null);
+            if (coupon == null) return Optional.empty();
+            coupons.put(couponCode, coupon);
+            rebuildActiveCoupons();
+        }
+        return Optional.of(coupon.toBuilder().build());
+    }
+
+    /** Coupons expiring after today, the same rule as {@code findByExpiryDateAfter(today)}. */
+    public List<DiscountCoupon> getActiveCoupons() {
+        LocalDate today = LocalDate.now();
+        return activeCoupons.stream()
+                .filter(coupon -> coupon.getExpiryDate().isAfter(today))
+                .map(coupon -> coupon.toBuilder().build())
+                .toList();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCouponChanged(CouponChangedEvent event) {
+        reload(event.couponCode());
+        try {
+            redisTemplate.convertAndSend(CHANGES_CHANNEL, event.couponCode());
+        } catch (Exception e) {
+            log.warn("Failed to broadcast change of coupon {}: {}", event.couponCode(), e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${app.coupons.expiry-sweep-cron:1 0 0 * * *}")
+    public void evictExpired() {
+        LocalDate today = LocalDate.now();
+        boolean removed = coupons.values().removeIf(coupon -> coupon.getExpiryDate().isBefore(today));
+        rebuildActiveCoupons();
+        if (removed) {
+            log.info("Evicted expired coupons from the catalogue, {} remaining", coupons.size());
+        }
+    }
+
+    private void reload(String couponCode) {
+        LocalDate today = LocalDate.now();
+        discountCouponRepository.findById(couponCode)
+                .filter(coupon -> !coupon.getExpiryDate().isBefore(today))
+                .ifPresentOrElse(
+                        coupon -> coupons.put(couponCode, coupon),
+                        () -> coupons.remove(couponCode));
+        rebuildActiveCoupons();
+    }
+
+    private synchronized void rebuildActiveCoupons() {
+        LocalDate today = LocalDate.now();
+        activeCoupons = coupons.values().stream()
+                .filter(coupon -> coupon.getExpiryDate().isAfter(today))
+                .sorted(Comparator.comparing(DiscountCoupon::getExpiryDate)
+                        .thenComparing(DiscountCoupon::getCouponCode))
+                .toList();
+    }
+}
@@ -0,0 +1,8 @@
+package com.ebank.service.coupon;
+
+/**
+ * Published after a coupon is created, deactivated or updated so that every
+ * {@link CouponCatalog} in the cluster reloads it.
+ */
+public record CouponChangedEvent(String couponCode) {
+}
@@ -0,0 +1,188 @@
+package com.ebank.service.coupon;
+
+import com.ebank.exception.DiscountCouponException;
+import com.ebank.model.discountCoupon.DiscountCoupon;
+import com.ebank.repository.DiscountCouponRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Coupon redemption without row locks. The remaining quota of each coupon
+ * lives in Redis and is decremented by a Lua script together with the
+ * per-user redemption set, so the limit can never be oversold and a user can
+ * redeem a coupon only once. {@code used_count} in MySQL is brought up to date
+ * asynchronously by {@link #reconcileUsage()}.
+ * <p>
+ * Every instance runs the reconciliation. A run first moves a coupon's
+ * pending count into {@link #RECONCILING_KEY} with one script, so no other
+ * instance can claim the same redemptions, and removes it from there once
+ * {@code used_count} has been updated, or puts it back if the update failed.
+ * A claim left behind by an instance that died is put back after
+ * {@code reconcile-stale-after-ms}.
+ */
+@Slf4j
+@Component
+public class CouponRedemptionEngine {
+
+    static final String PENDING_USAGE_KEY = "coupon:pending-usage";
+    static final String RECONCILING_KEY = "coupon:reconciling-usage";
+    static final String CLAIMED_AT_KEY = "coupon:reconciling-usage:claimed-at";
+
+    private static final long ALREADY_REDEEMED = -2;
+    private static final long QUOTA_NOT_LOADED = -3;
+    private static final long SOLD_OUT = -1;
+
+    // KEYS: quota, redeemed-users, pending-usage | ARGV: userId, couponCode
+    private static final RedisScript<Long> REDEEM_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('SISMEMBER', KEYS[2], ARGV[1]) == 1 then return -2 end " +
+            "local remaining = redis.call('GET', KEYS[1]) " +
+            "if not remaining then return -3 end " +
+            "if tonumber(remaining) <= 0 then return -1 end " +
+            "remaining = redis.call('DECR', KEYS[1]) " +
+            "redis.call('SADD', KEYS[2], ARGV[1]) " +
+            "redis.call('HINCRBY', KEYS[3], ARGV[2], 1) " +
+            "return remaining", Long.class);
+
+    // KEYS: quota, pending-usage, reconciling | ARGV: limit - usedCount, couponCode
+    private static final RedisScript<Long> LOAD_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then " +
+            "  local pending = tonumber(redis.call('HGET', KEYS[2], ARGV[2]) or '0') " +
+            "      + tonumber(redis.call('HGET', KEYS[3], ARGV[2]) or '0') " +
+            "  redis.call('SET', KEYS[1], tonumber(ARGV[1]) - pending) " +
+            "end " +
+            "return tonumber(redis.call('GET', KEYS[1]))", Long.class);
+
+    // KEYS: quota | ARGV: delta
+    private static final RedisScript<Long> ADJUST_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then return redis.call('INCRBY', KEYS[1], ARGV[1]) end " +
+            "return nil", Long.class);
+
+    // KEYS: pending-usage, reconciling, claimed-at | ARGV: couponCode, now ms, stale after ms
+    private static final RedisScript<Long> CLAIM_SCRIPT = new DefaultRedisScript<>(
+            "local held = tonumber(redis.call('HGET', KEYS[2], ARGV[1]) or '0') " +
+            "if held ~= 0 then " +
+            "  local at = tonumber(redis.call('HGET', KEYS[3], ARGV[1]) or '0') " +
+            "  if tonumber(ARGV[2]) - at < tonumber(ARGV[3]) then return 0 end " +
+            "  redis.call('HINCRBY', KEYS[1], ARGV[1], held) " +
+            "  redis.call('HDEL', KEYS[2], ARGV[1]) " +
+            "  redis.call('HDEL', KEYS[3], ARGV[1]) " +
+            "end " +
+            "local count = tonumber(redis.call('HGET', KEYS[1], ARGV[1]) or '0') " +
+            "if count <= 0 then return 0 end " +
+            "redis.call('HDEL', KEYS[1], ARGV[1]) " +
+            "redis.call('HSET', KEYS[2], ARGV[1], count) " +
+            "redis.call('HSET', KEYS[3], ARGV[1], ARGV[2]) " +
+            "return count", Long.class);
+
+    // KEYS: pending-usage, reconciling, claimed-at | ARGV: couponCode, claimed at ms, put back (1/0)
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('HGET', KEYS[3], ARGV[1]) ~= ARGV[2] then return 0 end " +
+            "local count = redis.call('HGET', KEYS[2], ARGV[1]) " +
+            "redis.call('HDEL', KEYS[2], ARGV[1]) " +
+            "redis.call('HDEL', KEYS[3], ARGV[1]) " +
+            "if ARGV[3] == '1' then redis.call('HINCRBY', KEYS[1], ARGV[1], count) end " +
+            "return 1", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final DiscountCouponRepository discountCouponRepository;
+    private final long staleAfterMs;
+
+    public CouponRedemptionEngine(StringRedisTemplate redisTemplate,
+                                  DiscountCouponRepository discountCouponRepository,
+                                  @Value("${app.coupons.reconcile-stale-after-ms:300000}") long staleAfterMs) {
+        this.redisTemplate = redisTemplate;
+        this.discountCouponRepository = discountCouponRepository;
+        this.staleAfterMs = staleAfterMs;
+    }
+
+    /**
+     * Atomically takes one unit of the coupon's quota for the given user.
+     *
+     * @return the quota left after this redemption
+     */
+    public long redeem(DiscountCoupon coupon, Long userId) {
+        String code = coupon.getCouponCode();
+        List<String> keys = List.of(quotaKey(code), redeemedUsersKey(code), PENDING_USAGE_KEY);
+
+        Long result = redisTemplate.execute(REDEEM_SCRIPT, keys, String.valueOf(userId), code);
+        if (result != null && result == QUOTA_NOT_LOADED) {
+            loadQuota(coupon);
+            result = redisTemplate.execute(REDEEM_SCRIPT, keys, String.valueOf(userId), code);
+        }
+
+        if (result == null || result == QUOTA_NOT_LOADED) {
+            throw new DiscountCouponException("Coupon redemption is temporarily unavailable");
+        }
+        if (result == ALREADY_REDEEMED) {
+            throw new DiscountCouponException("Coupon already redeemed by this user");
+        }
+        if (result == SOLD_OUT) {
+            throw new DiscountCouponException("Coupon usage limit exceeded");
+        }
+        return result;
+    }
+
+    /** Shifts the remaining quota when an admin changes the usage limit. */
+    public void adjustQuota(String couponCode, int delta) {
+        if (delta != 0) {
+            redisTemplate.execute(ADJUST_SCRIPT, List.of(quotaKey(couponCode)), String.valueOf(delta));
+        }
+    }
+
+    // العدد من الجدول لا من الـ catalogue: نسخته قد تسبق آخر ترحيل للاستخدامات
+    private void loadQuota(DiscountCoupon coupon) {
+        int available = discountCouponRepository.findRemainingQuota(coupon.getCouponCode())
+                .orElseThrow(() -> new DiscountCouponException("Coupon not found"));
+        redisTemplate.execute(LOAD_SCRIPT,
+                List.of(quotaKey(coupon.getCouponCode()), PENDING_USAGE_KEY, RECONCILING_KEY),
+                String.valueOf(available), coupon.getCouponCode());
+    }
+
+    /**
+     * Moves redemptions counted in Redis into {@code discount_coupons.used_count}.
+     * The claimed count is only dropped after the row update succeeded; a
+     * failure puts it back to be applied on the next run.
+     */
+    @Scheduled(fixedDelayString = "${app.coupons.reconcile-interval-ms:5000}")
+    public void reconcileUsage() {
+        Set<String> codes = new LinkedHashSet<>();
+        redisTemplate.opsForHash().keys(PENDING_USAGE_KEY).forEach(code -> codes.add((String) code));
+        // مطالبات عالقة لنسخة توقفت، تُعاد إلى العداد عند انتهاء مهلتها
+        redisTemplate.opsForHash().keys(RECONCILING_KEY).forEach(code -> codes.add((String) code));
+
+        List<String> keys = List.of(PENDING_USAGE_KEY, RECONCILING_KEY, CLAIMED_AT_KEY);
+        for (String code : codes) {
+            String claimedAt = String.valueOf(System.currentTimeMillis());
+            Long count = redisTemplate.execute(CLAIM_SCRIPT, keys, code, claimedAt, String.valueOf(staleAfterMs));
+            if (count == null || count <= 0) continue;
+
+            boolean applied = false;
+            try {
+                discountCouponRepository.incrementUsedCount(code, count.intValue());
+                applied = true;
+                log.debug("Reconciled {} redemptions of coupon {}", count, code);
+            } catch (Exception e) {
+                log.error("Failed to reconcile usage of coupon {}: {}", code, e.getMessage());
+            } finally {
+                redisTemplate.execute(RELEASE_SCRIPT, keys, code, claimedAt, applied ? "0" : "1");
+            }
+        }
+    }
+
+    private static String quotaKey(String couponCode) {
+        return "coupon:{" + couponCode + "}:quota";
+    }
+
+    private static String redeemedUsersKey(String couponCode) {
+        return "coupon:{" + couponCode + "}:redeemed";
+    }
+}
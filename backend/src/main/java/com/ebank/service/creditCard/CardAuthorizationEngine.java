@@ -0,0 +1,316 @@
+package com.ebank.service.creditCard;
+
+import com.ebank.dto.CardAuthorizationDTO;
+import com.ebank.exception.CreditCardException;
+import com.ebank.exception.ResourceNotFoundException;
+import com.ebank.model.creditCard.AuthorizationStatus;
+import com.ebank.model.creditCard.CardAuthorization;
+import com.ebank.repository.CardAuthorizationRepository;
+import com.ebank.repository.CardCreditView;
+import com.ebank.repository.CreditCardRepository;
+import com.ebank.service.reference.ReferenceNumberGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Authorizes card payments against the {@link CardCreditLedger}. A hold is
+ * one atomic Redis script that also appends it to the ledger's journal
+ * stream, and is approved before anything is written to the database; the
+ * {@link CardAuthorizationJournal} of any instance persists holds, captures
+ * and voids right behind it.
+ * <p>
+ * The ledger of a card is loaded from {@code credit_cards.available_balance}
+ * on its first authorization and is shared by every instance, so a card is
+ * never authorized beyond its credit and a deactivation stops the next swipe
+ * everywhere. If Redis cannot be reached, authorizations are declined. The
+ * nightly {@link #reconcile()} brings each ledger back to its row and voids
+ * holds that were never captured.
+ */
+@Slf4j
+@Component
+public class CardAuthorizationEngine {
+
+    private static final int RECONCILE_CHUNK = 500;
+
+    private final CreditCardRepository creditCardRepository;
+    private final CardAuthorizationRepository cardAuthorizationRepository;
+    private final CardAuthorizationJournal journal;
+    private final CardCreditLedger ledger;
+    private final ReferenceNumberGenerator referenceNumberGenerator;
+    private final Duration holdExpiry;
+
+    public CardAuthorizationEngine(CreditCardRepository creditCardRepository,
+                                   CardAuthorizationRepository cardAuthorizationRepository,
+                                   CardAuthorizationJournal journal,
+                                   CardCreditLedger ledger,
+                                   ReferenceNumberGenerator referenceNumberGenerator,
+                                   @Value("${app.card-authorization.hold-expiry-days:7}") long holdExpiryDays) {
+        this.creditCardRepository = creditCardRepository;
+        this.cardAuthorizationRepository = cardAuthorizationRepository;
+        this.journal = journal;
+        this.ledger = ledger;
+        this.referenceNumberGenerator = referenceNumberGenerator;
+        this.holdExpiry = Duration.ofDays(holdExpiryDays);
+        journal.onPersisted(this::persisted);
+    }
+
+    public CardAuthorizationDTO authorize(Long cardId, BigDecimal amount, String merchant) {
+        long minor = toMinor(amount);
+        if (minor <= 0) {
+            throw new CreditCardException("Amount must be positive");
+        }
+        // الدفتر متأخر كثيراً عن قاعدة البيانات: لا حجوزات جديدة حتى يلحق
+        if (!journal.acceptingHolds()) {
+            throw new CreditCardException("Card authorization is temporarily unavailable");
+        }
+
+        CardHold hold = new CardHold(referenceNumberGenerator.next("AU"), cardId, minor, merchant, LocalDateTime.now());
+        long result = ledger.tryHold(hold, holdTtl());
+        if (result == CardCreditLedger.NOT_LOADED) {
+            load(cardId);
+            result = ledger.tryHold(hold, holdTtl());
+        }
+        if (result == CardCreditLedger.NOT_LOADED) {
+            throw new CreditCardException("Card authorization is temporarily unavailable");
+        }
+        if (result == CardCreditLedger.INACTIVE) {
+            throw new CreditCardException("Card is not active");
+        }
+        if (result == CardCreditLedger.EXPIRED) {
+            throw new CreditCardException("Card has expired");
+        }
+        if (result == CardCreditLedger.INSUFFICIENT) {
+            throw new CreditCardException("Insufficient available credit");
+        }
+
+        journal.poll();
+        return toDto(hold, AuthorizationStatus.HELD, null, result);
+    }
+
+    /** Captures {@code amount} of the hold, or all of it when null, and releases the rest. */
+    public CardAuthorizationDTO capture(String authCode, BigDecimal amount) {
+        CardHold hold = hold(authCode);
+        long captured = amount == null ? hold.amount : toMinor(amount);
+        if (captured <= 0 || captured > hold.amount) {
+            throw new CreditCardException("Capture amount must be positive and not exceed the authorized amount");
+        }
+        Long available = settle(hold, AuthorizationStatus.CAPTURED, CardJournalEntry.Kind.CAPTURE,
+                hold.amount - captured, captured);
+        journal.poll();
+        return toDto(hold, AuthorizationStatus.CAPTURED, captured, captured < hold.amount ? available : null);
+    }
+
+    public CardAuthorizationDTO voidAuthorization(String authCode) {
+        CardHold hold = hold(authCode);
+        Long available = settle(hold, AuthorizationStatus.VOIDED, CardJournalEntry.Kind.VOID, hold.amount, 0);
+        journal.poll();
+        return toDto(hold, AuthorizationStatus.VOIDED, null, available);
+    }
+
+    /**
+     * Gives a repayment back to the card's loaded ledger. Called after the
+     * transaction that debited the account and credited the card's row has
+     * committed, so the journal has nothing to write.
+     */
+    public void repaid(Long cardId, BigDecimal amount) {
+        try {
+            ledger.adjust(cardId, toMinor(amount));
+        } catch (RuntimeException e) {
+            // الصف صحيح؛ الرصيد المشترك أقل من الحقيقة حتى المطابقة، لا أكثر
+            log.warn("Could not credit repayment of {} to card {} ledger: {}", amount, cardId, e.getMessage());
+        }
+    }
+
+    /**
+     * Gives a credit limit change, {@code delta} being the change of the
+     * limit, to the card's loaded ledger. Called after the transaction that
+     * updated the card's row has committed, as {@link #repaid} is.
+     */
+    public void creditLimitChanged(Long cardId, BigDecimal delta) {
+        try {
+            ledger.adjust(cardId, toMinor(delta));
+        } catch (RuntimeException e) {
+            // الصف صحيح؛ المطابقة الليلية تعيد الرصيد المشترك إليه
+            log.error("Could not apply credit limit change of {} to card {} ledger: {}", delta, cardId, e.getMessage());
+        }
+    }
+
+    public void deactivate(Long cardId) {
+        ledger.deactivate(cardId);
+    }
+
+    /** The live available credit, if the card's ledger is loaded. */
+    public Optional<BigDecimal> availableCredit(Long cardId) {
+        return ledger.available(cardId).map(CardAuthorizationEngine::toAmount);
+    }
+
+    @Scheduled(cron = "${app.card-authorization.reconcile-cron:0 0 3 * * *}")
+    public void reconcile() {
+        int expired = voidExpiredHolds();
+        journal.flushAll();
+
+        int corrected = 0;
+        int skipped = 0;
+        List<Long> ids = ledger.loadedCardIds().stream().map(Long::valueOf).toList();
+        for (int from = 0; from < ids.size(); from += RECONCILE_CHUNK) {
+            int[] result = reconcileChunk(ids.subList(from, Math.min(from + RECONCILE_CHUNK, ids.size())));
+            corrected += result[0];
+            skipped += result[1];
+        }
+        log.info("Card ledger reconciled: {} cards, {} corrected, {} busy, {} expired holds voided",
+                ids.size(), corrected, skipped, expired);
+    }
+
+    /**
+     * A card with changes the journal has not written yet, on any instance,
+     * is busy and left for the next run. Otherwise its ledger is read before
+     * its row, and reset to the row only if it did not move in between.
+     */
+    private int[] reconcileChunk(List<Long> ids) {
+        Map<Long, Long> seen = new HashMap<>();
+        int skipped = 0;
+        for (Long cardId : ids) {
+            Optional<Long> snapshot = ledger.snapshot(cardId);
+            if (snapshot.isPresent()) {
+                seen.put(cardId, snapshot.get());
+            } else {
+                skipped++;
+            }
+        }
+        if (seen.isEmpty()) return new int[]{0, skipped};
+
+        Map<Long, CardCreditView> rows = new HashMap<>();
+        creditCardRepository.findCreditViewsByIdIn(seen.keySet()).forEach(row -> rows.put(row.getId(), row));
+
+        int corrected = 0;
+        for (Map.Entry<Long, Long> entry : seen.entrySet()) {
+            Long cardId = entry.getKey();
+            long actual = entry.getValue();
+            CardCreditView row = rows.get(cardId);
+            Long expected = row == null ? null : toMinor(row.getAvailableBalance());
+            boolean active = row != null && Boolean.TRUE.equals(row.getIsActive());
+
+            // البطاقة الموقوفة أو المحذوفة لا تحتاج مكاناً في Redis
+            long result = ledger.reconcile(cardId, actual, expected, active);
+            if (result == 0) {
+                skipped++;
+            } else if (result == 1 && expected != actual) {
+                corrected++;
+                log.warn("Card {} ledger drifted by {} minor units, reset to {}", cardId, actual - expected, expected);
+            }
+        }
+        return new int[]{corrected, skipped};
+    }
+
+    private int voidExpiredHolds() {
+        LocalDateTime before = LocalDateTime.now().minus(holdExpiry);
+        int voided = 0;
+        List<String> authCodes;
+        int voidedInPage;
+        do {
+            authCodes = cardAuthorizationRepository.findHeldAuthCodesBefore(before, PageRequest.of(0, RECONCILE_CHUNK));
+            voidedInPage = 0;
+            for (String authCode : authCodes) {
+                try {
+                    voidAuthorization(authCode);
+                    voidedInPage++;
+                } catch (CreditCardException e) {
+                    // التُقط أو أُلغي للتو ولم يُكتب بعد
+                }
+            }
+            voided += voidedInPage;
+            // بدون كتابة الإلغاءات ستعود نفس الحجوزات في الصفحة التالية؛ وقد تكتبها نسخة أخرى،
+            // فالصفحة التي لم يُلغَ منها شيء تنهي الدورة والباقي لليلة التالية
+        } while (authCodes.size() == RECONCILE_CHUNK && voidedInPage > 0 && journal.flushAll());
+        return voided;
+    }
+
+    // الحالة النهائية في الجدول الآن؛ أي طلب لاحق يقرأها من هناك. العدادات حُررت عند التأكيد
+    private void persisted(List<CardJournalEntry> entries) {
+        for (CardJournalEntry entry : entries) {
+            if (entry.kind() == CardJournalEntry.Kind.CAPTURE || entry.kind() == CardJournalEntry.Kind.VOID) {
+                ledger.removeHold(entry.authCode());
+            }
+        }
+    }
+
+    private void load(Long cardId) {
+        CardCreditView row = creditCardRepository.findCreditViewById(cardId)
+                .orElseThrow(() -> new CreditCardException("Card not found"));
+        ledger.load(cardId, toMinor(row.getAvailableBalance()),
+                Boolean.TRUE.equals(row.getIsActive()), row.getExpiryDate());
+    }
+
+    // الحجز الذي لم يعد في Redis (بعد انتهاء مدته مثلاً) يُقرأ من الجدول
+    private CardHold hold(String authCode) {
+        Optional<CardHold> cached = ledger.hold(authCode);
+        if (cached.isPresent()) return cached.get();
+
+        CardAuthorization authorization = cardAuthorizationRepository.findByAuthCode(authCode)
+                .orElseThrow(() -> new ResourceNotFoundException("Authorization not found: " + authCode));
+        if (authorization.getStatus() != AuthorizationStatus.HELD) {
+            throw new CreditCardException("Authorization " + authCode + " is already "
+                    + authorization.getStatus().name().toLowerCase());
+        }
+        CardHold loaded = new CardHold(authCode, authorization.getCardId(), toMinor(authorization.getAmount()),
+                authorization.getMerchant(), authorization.getAuthorizedAt());
+        ledger.putHold(loaded, AuthorizationStatus.HELD.name(), holdTtl());
+        return loaded;
+    }
+
+    // يعيد الرصيد المتاح بعد التسوية إن كانت البطاقة محمّلة
+    private Long settle(CardHold hold, AuthorizationStatus target, CardJournalEntry.Kind kind,
+                        long released, long captured) {
+        CardCreditLedger.Settlement settlement = ledger.settle(hold, target.name(), kind, released, captured);
+        long result = settlement.result();
+        if (result == 1) return settlement.available();
+        if (result == 0) {
+            String status = ledger.holdStatus(hold.authCode);
+            throw new CreditCardException("Authorization " + hold.authCode + " is already "
+                    + (status == null ? "settled" : status.toLowerCase()));
+        }
+        throw new CreditCardException("Authorization " + hold.authCode + " is already settled");
+    }
+
+    private Duration holdTtl() {
+        return holdExpiry.plusDays(1);
+    }
+
+    private static CardAuthorizationDTO toDto(CardHold hold, AuthorizationStatus status, Long captured, Long available) {
+        return CardAuthorizationDTO.builder()
+                .authCode(hold.authCode)
+                .cardId(hold.cardId)
+                .amount(toAmount(hold.amount))
+                .capturedAmount(captured == null ? null : toAmount(captured))
+                .merchant(hold.merchant)
+                .status(status)
+                .availableCredit(available == null ? null : toAmount(available))
+                .authorizedAt(hold.authorizedAt)
+                .build();
+    }
+
+    static long toMinor(BigDecimal amount) {
+        if (amount == null) return 0;
+        try {
+            return amount.setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new CreditCardException("Amount must have at most two decimal places");
+        }
+    }
+
+    static BigDecimal toAmount(long minor) {
+        return BigDecimal.valueOf(minor, 2);
+    }
+}
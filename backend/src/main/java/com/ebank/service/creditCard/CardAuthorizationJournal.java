@@ -0,0 +1,432 @@
+package com.ebank.service.creditCard;
+
+import com.ebank.model.creditCard.AuthorizationStatus;
+import com.ebank.model.creditCard.CardAuthorization;
+import com.ebank.model.creditCard.CardJournalDeadLetter;
+import com.ebank.model.creditCard.CardSpendEvent;
+import com.ebank.model.creditCard.SpendEventType;
+import com.ebank.repository.CardAuthorizationRepository;
+import com.ebank.repository.CardJournalDeadLetterRepository;
+import com.ebank.repository.CardSpendEventRepository;
+import com.ebank.repository.CreditCardRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Writes the decisions of {@link CardAuthorizationEngine} behind it. The
+ * {@link CardCreditLedger} appends every hold, capture and void to a Redis
+ * stream in the same script that makes it; each instance reads that stream
+ * as one consumer of a group and applies its entries in one transaction per
+ * batch: new holds are inserted, captures and voids update their rows,
+ * captures are recorded as {@link CardSpendEvent}s, and the net change of
+ * every card is applied to {@code available_balance} with one relative update.
+ * Entries are acknowledged, and their pending counts released, only after
+ * the transaction commits.
+ * <p>
+ * Entries read by an instance that died are claimed by another one after
+ * {@code journal-claim-idle-ms}. An entry may therefore be applied twice;
+ * a hold whose row exists and a capture or void of a row that is no longer
+ * held are skipped, so writing it again changes nothing.
+ * <p>
+ * A batch that fails is retried up to {@code journal-max-attempts} times.
+ * It is then split in halves until the entries that fail on their own are
+ * found; those are moved to {@code card_journal_dead_letters} and everything
+ * else is written. Once {@code journal-max-backlog} entries are waiting, new
+ * holds are declined until the journal catches up.
+ * <p>
+ * A capture or void can be read before the hold it settles has been written
+ * by the instance that read the hold; such entries are left unacknowledged
+ * and tried again with the next batch.
+ */
+@Slf4j
+@Component
+public class CardAuthorizationJournal {
+
+    // حجز لم يظهر في الجدول خلال هذه المدة لن يظهر
+    private static final Duration MAX_DEFERRAL = Duration.ofMinutes(10);
+
+    private final CardAuthorizationRepository cardAuthorizationRepository;
+    private final CreditCardRepository creditCardRepository;
+    private final CardSpendEventRepository cardSpendEventRepository;
+    private final CardJournalDeadLetterRepository deadLetterRepository;
+    private final CardCreditLedger ledger;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final int maxBacklog;
+    private final Duration claimIdle;
+
+    // اسم هذه النسخة في مجموعة القراءة؛ جديد عند كل تشغيل
+    private final String consumer = "journal-" + UUID.randomUUID();
+    private final Object writeLock = new Object();
+    private int failedAttempts;
+    // آخر دفعة لم تترك شيئاً للمحاولة التالية
+    private boolean caughtUp = true;
+    // ما في الـ stream ولم يُكتب بعد، من كل النسخ
+    private final AtomicLong backlog = new AtomicLong();
+    private volatile Consumer<List<CardJournalEntry>> persistedListener = entries -> { };
+
+    private final Counter failures;
+    private final Counter quarantined;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "card-journal");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean busy = new AtomicBoolean();
+    private final AtomicBoolean wakeUp = new AtomicBoolean();
+
+    public CardAuthorizationJournal(CardAuthorizationRepository cardAuthorizationRepository,
+                                    CreditCardRepository creditCardRepository,
+                                    CardSpendEventRepository cardSpendEventRepository,
+                                    CardJournalDeadLetterRepository deadLetterRepository,
+                                    CardCreditLedger ledger,
+                                    PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${app.card-authorization.journal-batch-size:500}") int batchSize,
+                                    @Value("${app.card-authorization.journal-max-attempts:5}") int maxAttempts,
+                                    @Value("${app.card-authorization.journal-max-backlog:50000}") int maxBacklog,
+                                    @Value("${app.card-authorization.journal-claim-idle-ms:60000}") long claimIdleMs) {
+        this.cardAuthorizationRepository = cardAuthorizationRepository;
+        this.creditCardRepository = creditCardRepository;
+        this.cardSpendEventRepository = cardSpendEventRepository;
+        this.deadLetterRepository = deadLetterRepository;
+        this.ledger = ledger;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(batchSize, 1);
+        this.maxAttempts = Math.max(maxAttempts, 1);
+        this.maxBacklog = maxBacklog;
+        this.claimIdle = Duration.ofMillis(claimIdleMs);
+
+        Gauge.builder("ebank.card.journal.backlog", backlog, AtomicLong::get)
+                .description("Card journal entries not written yet")
+                .register(meterRegistry);
+        this.failures = Counter.builder("ebank.card.journal.failures")
+                .description("Card journal batches that failed to write")
+                .register(meterRegistry);
+        this.quarantined = Counter.builder("ebank.card.journal.quarantined")
+                .description("Card journal entries moved to card_journal_dead_letters")
+                .register(meterRegistry);
+    }
+
+    void onPersisted(Consumer<List<CardJournalEntry>> listener) {
+        this.persistedListener = listener;
+    }
+
+    /** False once too many entries are waiting; new holds are declined until then. */
+    boolean acceptingHolds() {
+        return backlog.get() < maxBacklog;
+    }
+
+    @Scheduled(fixedDelayString = "${app.card-authorization.journal-flush-ms:200}")
+    public void poll() {
+        wakeUp.set(true);
+        if (!busy.compareAndSet(false, true)) return;
+
+        executor.execute(() -> {
+            try {
+                while (wakeUp.getAndSet(false)) {
+                    while (flush() == batchSize) {
+                        // الدفعة الممتلئة تعني أن هناك المزيد
+                    }
+                }
+            } catch (Exception e) {
+                log.error("Card journal flush failed: {}", e.getMessage());
+            } finally {
+                busy.set(false);
+            }
+        });
+    }
+
+    /** Takes over entries that another instance read and never acknowledged. */
+    @Scheduled(fixedDelayString = "${app.card-authorization.journal-claim-ms:30000}")
+    public void claimAbandoned() {
+        try {
+            int claimed = ledger.claimAbandoned(consumer, claimIdle, batchSize);
+            if (claimed > 0) {
+                log.warn("Card journal claimed {} entries left by another instance", claimed);
+                poll();
+            }
+            ledger.removeIdleConsumers(Duration.ofDays(1));
+        } catch (RuntimeException e) {
+            log.warn("Could not claim abandoned card journal entries: {}", e.getMessage());
+        }
+    }
+
+    /** Writes everything this instance can read so far; false if something is left. */
+    boolean flushAll() {
+        while (flush() > 0) {
+            // حتى يفرغ الطابور
+        }
+        synchronized (writeLock) {
+            return caughtUp;
+        }
+    }
+
+    private int flush() {
+        synchronized (writeLock) {
+            List<CardJournalEntry> batch = ledger.readJournal(consumer, batchSize);
+            backlog.set(ledger.journalBacklog());
+            caughtUp = batch.isEmpty();
+            if (batch.isEmpty()) return 0;
+
+            Outcome outcome;
+            try {
+                outcome = transactionTemplate.execute(status -> write(batch));
+            } catch (RuntimeException e) {
+                failures.increment();
+                if (++failedAttempts < maxAttempts || isTransient(e)) {
+                    // تبقى البنود غير مؤكدة في الـ stream وتُقرأ من جديد في المحاولة التالية
+                    log.warn("Could not write {} card journal entries (attempt {}), will retry: {}",
+                            batch.size(), failedAttempts, e.getMessage());
+                    return 0;
+                }
+                return isolate(batch);
+            }
+
+            failedAttempts = 0;
+            return finish(batch, outcome, List.of());
+        }
+    }
+
+    /**
+     * Writes {@code batch} in ever smaller parts, in order, and quarantines
+     * the single entries that still fail. A failure that looks like the
+     * database itself is unavailable stops the split; what is left stays
+     * unacknowledged and is retried as before.
+     */
+    private int isolate(List<CardJournalEntry> batch) {
+        Deque<List<CardJournalEntry>> parts = new ArrayDeque<>();
+        parts.push(batch);
+        Outcome outcome = new Outcome();
+        List<CardJournalEntry> done = new ArrayList<>();
+        List<CardJournalEntry> rejected = new ArrayList<>();
+        boolean stopped = false;
+
+        while (!parts.isEmpty()) {
+            List<CardJournalEntry> part = parts.pop();
+            try {
+                Outcome partOutcome = transactionTemplate.execute(status -> write(part));
+                outcome.keptBack.addAll(partOutcome.keptBack);
+                outcome.abandoned.addAll(partOutcome.abandoned);
+                done.addAll(part);
+                continue;
+            } catch (RuntimeException e) {
+                failures.increment();
+                if (!isTransient(e) && part.size() == 1 && deadLetter(part.get(0), e)) {
+                    rejected.add(part.get(0));
+                    done.add(part.get(0));
+                    continue;
+                }
+                if (!isTransient(e) && part.size() > 1) {
+                    parts.push(part.subList(part.size() / 2, part.size()));
+                    parts.push(part.subList(0, part.size() / 2));
+                    continue;
+                }
+                log.warn("Card journal isolation stopped, will retry: {}", e.getMessage());
+            }
+            stopped = true;
+            break;
+        }
+
+        failedAttempts = 0;
+        int written = finish(done, outcome, rejected);
+        caughtUp &= !stopped;
+        return written;
+    }
+
+    // ما أُعيد للمحاولة يبقى غير مؤكد، والباقي يُؤكَّد ويُحرَّر عداده ويُبلَّغ به المحرك
+    private int finish(List<CardJournalEntry> batch, Outcome outcome, List<CardJournalEntry> rejected) {
+        Set<CardJournalEntry> keptBack = Collections.newSetFromMap(new IdentityHashMap<>());
+        keptBack.addAll(outcome.keptBack);
+        Set<CardJournalEntry> notWritten = Collections.newSetFromMap(new IdentityHashMap<>());
+        notWritten.addAll(keptBack);
+        notWritten.addAll(outcome.abandoned);
+        notWritten.addAll(rejected);
+
+        List<CardJournalEntry> settled = batch.stream().filter(entry -> !keptBack.contains(entry)).toList();
+        List<CardJournalEntry> written = batch.stream().filter(entry -> !notWritten.contains(entry)).toList();
+        ledger.acknowledge(settled);
+        caughtUp = keptBack.isEmpty();
+        persistedListener.accept(written);
+
+        List<CardJournalEntry> givenUp = new ArrayList<>(outcome.abandoned);
+        givenUp.addAll(rejected);
+        if (!givenUp.isEmpty()) {
+            // لن تصل هذه التغييرات إلى الجدول؛ تحرير عدادها يترك المطابقة تعيد الرصيد إلى قيمة الصف
+            quarantined.increment(givenUp.size());
+        }
+        return written.size();
+    }
+
+    private boolean deadLetter(CardJournalEntry entry, RuntimeException cause) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> deadLetterRepository.save(deadLetterOf(entry, cause)));
+        } catch (RuntimeException e) {
+            log.warn("Could not quarantine card journal entry {} {}: {}", entry.kind(), entry.authCode(), e.getMessage());
+            return false;
+        }
+        log.error("Card journal entry {} {} of card {} quarantined: {}",
+                entry.kind(), entry.authCode(), entry.cardId(), cause.getMessage());
+        return true;
+    }
+
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof TransactionException;
+    }
+
+    private Outcome write(List<CardJournalEntry> batch) {
+        Outcome outcome = new Outcome();
+        LocalDateTime deferUntil = LocalDateTime.now().minus(MAX_DEFERRAL);
+        Map<String, CardAuthorization> inserted = new HashMap<>();
+        List<CardAuthorization> authorizations = new ArrayList<>();
+        List<CardSpendEvent> spendEvents = new ArrayList<>();
+        // ترتيب ثابت للبطاقات يمنع الـ deadlock بين النسخ
+        Map<Long, Long> deltas = new TreeMap<>();
+        // حجز كُتب من قبل (قرأته نسخة أخرى أيضاً) لا يُكتب ثانية
+        List<String> holdCodes = batch.stream()
+                .filter(entry -> entry.kind() == CardJournalEntry.Kind.HOLD)
+                .map(CardJournalEntry::authCode)
+                .toList();
+        Set<String> existing = holdCodes.isEmpty() ? Set.of()
+                : new HashSet<>(cardAuthorizationRepository.findExistingAuthCodes(holdCodes));
+
+        for (CardJournalEntry entry : batch) {
+            switch (entry.kind()) {
+                case HOLD -> {
+                    if (existing.contains(entry.authCode())) continue;
+                    CardAuthorization authorization = CardAuthorization.builder()
+                            .authCode(entry.authCode())
+                            .cardId(entry.cardId())
+                            .amount(BigDecimal.valueOf(entry.amount(), 2))
+                            .merchant(entry.merchant())
+                            .status(AuthorizationStatus.HELD)
+                            .authorizedAt(entry.at())
+                            .build();
+                    inserted.put(entry.authCode(), authorization);
+                    authorizations.add(authorization);
+                }
+                case CAPTURE, VOID -> {
+                    CardAuthorization authorization = inserted.get(entry.authCode());
+                    if (authorization == null) {
+                        authorization = cardAuthorizationRepository.findByAuthCode(entry.authCode()).orElse(null);
+                    }
+                    if (authorization == null) {
+                        if (entry.at().isAfter(deferUntil)) {
+                            outcome.keptBack.add(entry);
+                        } else {
+                            log.error("Card journal: authorization {} never written, quarantining {}",
+                                    entry.authCode(), entry.kind());
+                            outcome.abandoned.add(entry);
+                            deadLetterRepository.save(deadLetterOf(entry, null));
+                        }
+                        continue;
+                    }
+                    if (authorization.getStatus() != AuthorizationStatus.HELD) continue;
+                    authorization.setStatus(entry.kind() == CardJournalEntry.Kind.CAPTURE
+                            ? AuthorizationStatus.CAPTURED
+                            : AuthorizationStatus.VOIDED);
+                    if (entry.kind() == CardJournalEntry.Kind.CAPTURE) {
+                        authorization.setCapturedAmount(BigDecimal.valueOf(entry.captured(), 2));
+                        spendEvents.add(spendEvent(entry, SpendEventType.PURCHASE, entry.captured()));
+                    }
+                    authorization.setSettledAt(entry.at());
+                }
+            }
+            if (entry.delta() != 0) {
+                deltas.merge(entry.cardId(), entry.delta(), Long::sum);
+            }
+        }
+
+        cardAuthorizationRepository.saveAll(authorizations);
+        cardSpendEventRepository.saveAll(spendEvents);
+        deltas.forEach((cardId, delta) -> {
+            if (delta != 0) {
+                creditCardRepository.adjustAvailableBalance(cardId, BigDecimal.valueOf(delta, 2));
+            }
+        });
+        return outcome;
+    }
+
+    private static CardJournalDeadLetter deadLetterOf(CardJournalEntry entry, RuntimeException cause) {
+        String error = cause == null ? "Authorization was never written" : String.valueOf(cause.getMessage());
+        return CardJournalDeadLetter.builder()
+                .kind(entry.kind().name())
+                .cardId(entry.cardId())
+                .authCode(entry.authCode())
+                .amount(BigDecimal.valueOf(entry.amount(), 2))
+                .capturedAmount(BigDecimal.valueOf(entry.captured(), 2))
+                .delta(BigDecimal.valueOf(entry.delta(), 2))
+                .merchant(entry.merchant())
+                .occurredAt(entry.at())
+                .error(error.length() > 500 ? error.substring(0, 500) : error)
+                .quarantinedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static CardSpendEvent spendEvent(CardJournalEntry entry, SpendEventType type, long amount) {
+        return CardSpendEvent.builder()
+                .cardId(entry.cardId())
+                .type(type)
+                .amount(BigDecimal.valueOf(amount, 2))
+                .reference(entry.authCode())
+                .occurredAt(entry.at())
+                .build();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+        // ما يبقى غير مكتوب لا يضيع: تأخذه نسخة أخرى بعد journal-claim-idle-ms
+        try {
+            if (!flushAll()) {
+                log.warn("Card journal closed with entries left for another instance");
+            }
+        } catch (RuntimeException e) {
+            log.warn("Card journal could not flush on shutdown: {}", e.getMessage());
+        }
+    }
+
+    /** What a write left undone: entries to try again, and entries given up on. */
+    private static final class Outcome {
+        final List<CardJournalEntry> keptBack = new ArrayList<>();
+        final List<CardJournalEntry> abandoned = new ArrayList<>();
+    }
+}
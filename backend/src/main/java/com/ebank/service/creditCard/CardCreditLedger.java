@@ -0,0 +1,392 @@
+package com.ebank.service.creditCard;
+
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamInfo;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+
+/**
+ * Available credit of every card, shared by all instances through Redis. A
+ * hold is one Lua script that checks the card is active and unexpired and
+ * takes the amount only if it is covered, so a card can never be authorized
+ * beyond its credit however many instances serve it.
+ * <p>
+ * Every hold, capture and void is appended to the {@link #JOURNAL_KEY}
+ * stream by the same script that makes it, so it survives the instance that
+ * approved it; the {@link CardAuthorizationJournal} of any instance writes it
+ * to the database. Until then its change is counted per card in
+ * {@link #PENDING_KEY}, and the count is released when the entry is
+ * acknowledged. A ledger that is loaded from
+ * {@code credit_cards.available_balance} adds that count back, and
+ * {@link #reconcile} only touches cards that have nothing pending.
+ * <p>
+ * Open holds are kept here too, so a hold is captured or voided exactly once
+ * whichever instance receives the request.
+ */
+@Component
+public class CardCreditLedger {
+
+    static final String PENDING_KEY = "card:credit:pending";
+    static final String LOADED_KEY = "card:credit:loaded";
+    static final String JOURNAL_KEY = "card:journal";
+    static final String JOURNAL_GROUP = "card-journal";
+
+    static final long INSUFFICIENT = -1;
+    static final long NOT_LOADED = -3;
+    static final long INACTIVE = -4;
+    static final long EXPIRED = -5;
+
+    // KEYS: credit, pending, hold, journal
+    // ARGV: amount, cardId, today (epoch day), authCode, merchant, authorized at, ttl seconds, delta
+    private static final RedisScript<Long> HOLD_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return -3 end " +
+            "if redis.call('HGET', KEYS[1], 'active') ~= '1' then return -4 end " +
+            "local expires = redis.call('HGET', KEYS[1], 'expires') " +
+            "if expires and expires ~= '' and tonumber(expires) < tonumber(ARGV[3]) then return -5 end " +
+            "local amount = tonumber(ARGV[1]) " +
+            "if tonumber(redis.call('HGET', KEYS[1], 'available')) < amount then return -1 end " +
+            "redis.call('HINCRBY', KEYS[2], ARGV[2], -amount) " +
+            "local left = redis.call('HINCRBY', KEYS[1], 'available', -amount) " +
+            "redis.call('HSET', KEYS[3], 'card', ARGV[2], 'amount', ARGV[1], 'merchant', ARGV[5], " +
+            "    'at', ARGV[6], 'status', 'HELD') " +
+            "redis.call('EXPIRE', KEYS[3], ARGV[7]) " +
+            "redis.call('XADD', KEYS[4], '*', 'kind', 'HOLD', 'card', ARGV[2], 'auth', ARGV[4], " +
+            "    'amount', ARGV[1], 'captured', '0', 'delta', ARGV[8], 'merchant', ARGV[5], " +
+            "    'at', ARGV[6], 'pending', '1') " +
+            "return left", Long.class);
+
+    // KEYS: credit | ARGV: delta
+    private static final RedisScript<Long> ADJUST_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return nil end " +
+            "return redis.call('HINCRBY', KEYS[1], 'available', ARGV[1])", Long.class);
+
+    // KEYS: credit, pending, loaded | ARGV: available, active, expires, cardId
+    private static final RedisScript<Long> LOAD_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then " +
+            "  local pending = tonumber(redis.call('HGET', KEYS[2], ARGV[4]) or '0') " +
+            "  redis.call('HSET', KEYS[1], 'available', tonumber(ARGV[1]) + pending, " +
+            "      'active', ARGV[2], 'expires', ARGV[3]) " +
+            "  redis.call('SADD', KEYS[3], ARGV[4]) " +
+            "end " +
+            "return 1", Long.class);
+
+    // KEYS: journal, pending | ARGV: group, then (entry id, cardId, pending delta) per entry.
+    // Only an entry this call acknowledges releases its count, so a count is released once
+    // even if two instances wrote the same entry.
+    private static final RedisScript<Long> ACKNOWLEDGE_SCRIPT = new DefaultRedisScript<>(
+            "local acked = 0 " +
+            "for i = 2, #ARGV, 3 do " +
+            "  if redis.call('XACK', KEYS[1], ARGV[1], ARGV[i]) == 1 then " +
+            "    redis.call('XDEL', KEYS[1], ARGV[i]) " +
+            "    local delta = tonumber(ARGV[i + 2]) " +
+            "    if delta ~= 0 then " +
+            "      local left = redis.call('HINCRBY', KEYS[2], ARGV[i + 1], -delta) " +
+            "      if left == 0 then redis.call('HDEL', KEYS[2], ARGV[i + 1]) end " +
+            "    end " +
+            "    acked = acked + 1 " +
+            "  end " +
+            "end " +
+            "return acked", Long.class);
+
+    // KEYS: credit
+    private static final RedisScript<Long> DEACTIVATE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end " +
+            "redis.call('HSET', KEYS[1], 'active', '0') " +
+            "return 1", Long.class);
+
+    // KEYS: credit, pending | ARGV: cardId — nil while the card has unwritten changes
+    private static final RedisScript<Long> SNAPSHOT_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return nil end " +
+            "if tonumber(redis.call('HGET', KEYS[2], ARGV[1]) or '0') ~= 0 then return nil end " +
+            "return tonumber(redis.call('HGET', KEYS[1], 'available'))", Long.class);
+
+    // KEYS: credit, pending, loaded | ARGV: snapshot, row available, row active, cardId
+    private static final RedisScript<Long> RECONCILE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end " +
+            "if tonumber(redis.call('HGET', KEYS[2], ARGV[4]) or '0') ~= 0 then return 0 end " +
+            "if redis.call('HGET', KEYS[1], 'available') ~= ARGV[1] then return 0 end " +
+            "if ARGV[3] ~= '1' then " +
+            "  redis.call('DEL', KEYS[1]) " +
+            "  redis.call('SREM', KEYS[3], ARGV[4]) " +
+            "  return 2 " +
+            "end " +
+            "redis.call('HSET', KEYS[1], 'available', ARGV[2], 'active', '1') " +
+            "return 1", Long.class);
+
+    // KEYS: hold | ARGV: card, amount, merchant, authorized at, status, ttl seconds
+    private static final RedisScript<Long> PUT_HOLD_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then return 0 end " +
+            "redis.call('HSET', KEYS[1], 'card', ARGV[1], 'amount', ARGV[2], 'merchant', ARGV[3], " +
+            "    'at', ARGV[4], 'status', ARGV[5]) " +
+            "redis.call('EXPIRE', KEYS[1], ARGV[6]) " +
+            "return 1", Long.class);
+
+    // KEYS: hold, credit, pending, journal
+    // ARGV: target status, journal kind, released, captured, settled at, cardId, authCode, amount
+    // Returns {-1} if the hold is unknown, {0} if already settled, {1[, available]} once settled.
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SETTLE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return {-1} end " +
+            "if redis.call('HGET', KEYS[1], 'status') ~= 'HELD' then return {0} end " +
+            "redis.call('HSET', KEYS[1], 'status', ARGV[1]) " +
+            "local released = tonumber(ARGV[3]) " +
+            "local pending = '0' " +
+            "local available = nil " +
+            "if redis.call('EXISTS', KEYS[2]) == 1 then " +
+            "  pending = '1' " +
+            "  if released ~= 0 then redis.call('HINCRBY', KEYS[3], ARGV[6], released) end " +
+            "  available = redis.call('HINCRBY', KEYS[2], 'available', released) " +
+            "end " +
+            "redis.call('XADD', KEYS[4], '*', 'kind', ARGV[2], 'card', ARGV[6], 'auth', ARGV[7], " +
+            "    'amount', ARGV[8], 'captured', ARGV[4], 'delta', ARGV[3], 'merchant', '', " +
+            "    'at', ARGV[5], 'pending', pending) " +
+            "return {1, available}", List.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    public CardCreditLedger(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Takes the hold's amount from the card's credit and, in the same script,
+     * keeps the hold and appends it to the journal stream.
+     *
+     * @return the credit left, or one of the negative outcome codes
+     */
+    long tryHold(CardHold hold, Duration ttl) {
+        Long result = redisTemplate.execute(HOLD_SCRIPT,
+                List.of(creditKey(hold.cardId), PENDING_KEY, holdKey(hold.authCode), JOURNAL_KEY),
+                String.valueOf(hold.amount), hold.cardId.toString(), String.valueOf(LocalDate.now().toEpochDay()),
+                hold.authCode, hold.merchant == null ? "" : hold.merchant, hold.authorizedAt.toString(),
+                String.valueOf(ttl.toSeconds()), String.valueOf(-hold.amount));
+        return result == null ? NOT_LOADED : result;
+    }
+
+    /**
+     * Moves the card's credit by a change its row already carries. Empty if
+     * the card is not loaded, in which case its row is the only copy.
+     */
+    OptionalLong adjust(Long cardId, long delta) {
+        Long result = redisTemplate.execute(ADJUST_SCRIPT, List.of(creditKey(cardId)), String.valueOf(delta));
+        return result == null ? OptionalLong.empty() : OptionalLong.of(result);
+    }
+
+    void load(Long cardId, long available, boolean active, LocalDate expiryDate) {
+        redisTemplate.execute(LOAD_SCRIPT, List.of(creditKey(cardId), PENDING_KEY, LOADED_KEY),
+                String.valueOf(available), active ? "1" : "0",
+                expiryDate == null ? "" : String.valueOf(expiryDate.toEpochDay()), cardId.toString());
+    }
+
+    void deactivate(Long cardId) {
+        redisTemplate.execute(DEACTIVATE_SCRIPT, List.of(creditKey(cardId)));
+    }
+
+    Optional<Long> available(Long cardId) {
+        Object available = redisTemplate.opsForHash().get(creditKey(cardId), "available");
+        return available == null ? Optional.empty() : Optional.of(Long.parseLong(available.toString()));
+    }
+
+    Set<String> loadedCardIds() {
+        return redisTemplate.opsForSet().members(LOADED_KEY);
+    }
+
+    /** The card's credit if nothing of it is waiting for the journal. */
+    Optional<Long> snapshot(Long cardId) {
+        return Optional.ofNullable(redisTemplate.execute(SNAPSHOT_SCRIPT,
+                List.of(creditKey(cardId), PENDING_KEY), cardId.toString()));
+    }
+
+    /**
+     * Resets the ledger to its row if it still equals {@code snapshot} and has
+     * nothing pending; an inactive or deleted card is dropped instead.
+     *
+     * @return 1 if reset, 2 if dropped, 0 if the card moved since the snapshot
+     */
+    long reconcile(Long cardId, long snapshot, Long rowAvailable, boolean active) {
+        Long result = redisTemplate.execute(RECONCILE_SCRIPT, List.of(creditKey(cardId), PENDING_KEY, LOADED_KEY),
+                String.valueOf(snapshot), String.valueOf(rowAvailable == null ? 0 : rowAvailable),
+                active && rowAvailable != null ? "1" : "0", cardId.toString());
+        return result == null ? 0 : result;
+    }
+
+    // —————— Holds ——————
+
+    Optional<CardHold> hold(String authCode) {
+        Map<Object, Object> fields = redisTemplate.opsForHash().entries(holdKey(authCode));
+        if (fields.isEmpty()) return Optional.empty();
+        String merchant = (String) fields.get("merchant");
+        return Optional.of(new CardHold(authCode,
+                Long.valueOf((String) fields.get("card")),
+                Long.parseLong((String) fields.get("amount")),
+                merchant == null || merchant.isEmpty() ? null : merchant,
+                LocalDateTime.parse((String) fields.get("at"))));
+    }
+
+    void putHold(CardHold hold, String status, Duration ttl) {
+        redisTemplate.execute(PUT_HOLD_SCRIPT, List.of(holdKey(hold.authCode)),
+                hold.cardId.toString(), String.valueOf(hold.amount), hold.merchant == null ? "" : hold.merchant,
+                hold.authorizedAt.toString(), status, String.valueOf(ttl.toSeconds()));
+    }
+
+    /**
+     * Moves the hold out of HELD, gives {@code released} back to the card's
+     * credit and appends the settlement to the journal stream, in one script.
+     */
+    Settlement settle(CardHold hold, String target, CardJournalEntry.Kind kind, long released, long captured) {
+        List<?> result = redisTemplate.execute(SETTLE_SCRIPT,
+                List.of(holdKey(hold.authCode), creditKey(hold.cardId), PENDING_KEY, JOURNAL_KEY),
+                target, kind.name(), String.valueOf(released), String.valueOf(captured),
+                LocalDateTime.now().toString(), hold.cardId.toString(), hold.authCode, String.valueOf(hold.amount));
+        if (result == null || result.isEmpty()) return new Settlement(-1, null);
+        return new Settlement((Long) result.get(0), result.size() > 1 ? (Long) result.get(1) : null);
+    }
+
+    String holdStatus(String authCode) {
+        Object status = redisTemplate.opsForHash().get(holdKey(authCode), "status");
+        return status == null ? null : status.toString();
+    }
+
+    void removeHold(String authCode) {
+        redisTemplate.delete(holdKey(authCode));
+    }
+
+    // —————— Journal ——————
+
+    /**
+     * Up to {@code count} journal entries for {@code consumer}: first those it
+     * read before and has not acknowledged, then new ones.
+     */
+    List<CardJournalEntry> readJournal(String consumer, int count) {
+        try {
+            return readJournalEntries(consumer, count);
+        } catch (RedisSystemException e) {
+            if (!String.valueOf(e.getMostSpecificCause().getMessage()).contains("NOGROUP")) throw e;
+            createJournalGroup();
+            return readJournalEntries(consumer, count);
+        }
+    }
+
+    private List<CardJournalEntry> readJournalEntries(String consumer, int count) {
+        Consumer reader = Consumer.from(JOURNAL_GROUP, consumer);
+        List<CardJournalEntry> entries = new ArrayList<>(toEntries(redisTemplate.opsForStream().read(reader,
+                StreamReadOptions.empty().count(count), StreamOffset.create(JOURNAL_KEY, ReadOffset.from("0")))));
+        if (entries.size() < count) {
+            entries.addAll(toEntries(redisTemplate.opsForStream().read(reader,
+                    StreamReadOptions.empty().count(count - entries.size()),
+                    StreamOffset.create(JOURNAL_KEY, ReadOffset.lastConsumed()))));
+        }
+        return entries;
+    }
+
+    /**
+     * Acknowledges entries that were written or given up on, deletes them
+     * from the stream and releases their pending counts.
+     */
+    void acknowledge(List<CardJournalEntry> entries) {
+        if (entries.isEmpty()) return;
+        List<String> args = new ArrayList<>(1 + entries.size() * 3);
+        args.add(JOURNAL_GROUP);
+        for (CardJournalEntry entry : entries) {
+            args.add(entry.id());
+            args.add(entry.cardId().toString());
+            args.add(String.valueOf(entry.pending() ? entry.delta() : 0));
+        }
+        redisTemplate.execute(ACKNOWLEDGE_SCRIPT, List.of(JOURNAL_KEY, PENDING_KEY), args.toArray());
+    }
+
+    /**
+     * Moves entries that other consumers read but left unacknowledged for
+     * {@code minIdle} to {@code consumer}; their instance is gone or stuck.
+     *
+     * @return the number of entries claimed
+     */
+    int claimAbandoned(String consumer, Duration minIdle, int count) {
+        PendingMessages pending;
+        try {
+            pending = redisTemplate.opsForStream().pending(JOURNAL_KEY, JOURNAL_GROUP, Range.unbounded(), count);
+        } catch (RedisSystemException e) {
+            // لم يُنشأ الـ stream أو المجموعة بعد
+            return 0;
+        }
+        List<RecordId> stale = new ArrayList<>();
+        for (PendingMessage message : pending) {
+            if (!consumer.equals(message.getConsumerName())
+                    && message.getElapsedTimeSinceLastDelivery().compareTo(minIdle) >= 0) {
+                stale.add(message.getId());
+            }
+        }
+        if (stale.isEmpty()) return 0;
+        return redisTemplate.opsForStream()
+                .claim(JOURNAL_KEY, JOURNAL_GROUP, consumer, minIdle, stale.toArray(new RecordId[0]))
+                .size();
+    }
+
+    /** Forgets consumers that hold no entries and have not read for {@code idle}. */
+    void removeIdleConsumers(Duration idle) {
+        try {
+            StreamInfo.XInfoConsumers consumers = redisTemplate.opsForStream().consumers(JOURNAL_KEY, JOURNAL_GROUP);
+            for (StreamInfo.XInfoConsumer info : consumers.stream().toList()) {
+                if (info.pendingCount() == 0 && info.idleTimeMs() >= idle.toMillis()) {
+                    redisTemplate.opsForStream().deleteConsumer(JOURNAL_KEY,
+                            Consumer.from(JOURNAL_GROUP, info.consumerName()));
+                }
+            }
+        } catch (RedisSystemException e) {
+            // لا مجموعة بعد
+        }
+    }
+
+    /** Entries appended to the journal and not written yet, on any instance. */
+    long journalBacklog() {
+        Long size = redisTemplate.opsForStream().size(JOURNAL_KEY);
+        return size == null ? 0 : size;
+    }
+
+    private void createJournalGroup() {
+        try {
+            redisTemplate.opsForStream().createGroup(JOURNAL_KEY, ReadOffset.from("0"), JOURNAL_GROUP);
+        } catch (RedisSystemException e) {
+            if (!String.valueOf(e.getMostSpecificCause().getMessage()).contains("BUSYGROUP")) throw e;
+        }
+    }
+
+    private static List<CardJournalEntry> toEntries(List<MapRecord<String, Object, Object>> records) {
+        if (records == null) return List.of();
+        return records.stream()
+                .map(record -> CardJournalEntry.of(record.getId().getValue(), record.getValue()))
+                .toList();
+    }
+
+    private static String creditKey(Long cardId) {
+        return "card:{" + cardId + "}:credit";
+    }
+
+    private static String holdKey(String authCode) {
+        return "card:hold:" + authCode;
+    }
+
+    /** What {@link #settle} did: 1 settled, 0 already settled, -1 hold unknown. */
+    record Settlement(long result, Long available) { }
+}
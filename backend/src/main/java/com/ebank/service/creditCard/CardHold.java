@@ -0,0 +1,21 @@
+package com.ebank.service.creditCard;
+
+import java.time.LocalDateTime;
+
+/** An open authorization as kept by {@link CardCreditLedger}. */
+final class CardHold {
+
+    final String authCode;
+    final Long cardId;
+    final long amount;
+    final String merchant;
+    final LocalDateTime authorizedAt;
+
+    CardHold(String authCode, Long cardId, long amount, String merchant, LocalDateTime authorizedAt) {
+        this.authCode = authCode;
+        this.cardId = cardId;
+        this.amount = amount;
+        this.merchant = merchant;
+        this.authorizedAt = authorizedAt;
+    }
+}
@@ -0,0 +1,341 @@
+package com.ebank.service.creditCard;
+
+import com.ebank.model.account.Account;
+import com.ebank.model.account.AccountStatus;
+import com.ebank.model.creditCard.CardIssuanceItem;
+import com.ebank.model.creditCard.IssuanceItemStatus;
+import com.ebank.repository.AccountRepository;
+import com.ebank.repository.CardIssuanceBatchRepository;
+import com.ebank.repository.CardIssuanceItemRepository;
+import com.ebank.service.CacheService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Issues the cards of a {@link com.ebank.model.creditCard.CardIssuanceBatch}
+ * in the background, one batch at a time per instance. Each chunk of pending
+ * items is handled in one transaction: the linked accounts are loaded with a
+ * single query, card numbers are generated in parallel, the cards are
+ * inserted with a JDBC batch and the items are marked ISSUED or FAILED in the
+ * same commit. The active-card cache keys of the chunk are then evicted with
+ * one Redis call. A batch whose worker died is picked up again once its
+ * heartbeat is stale and continues with the items still PENDING.
+ * <p>
+ * A chunk that keeps failing is split in halves until the items that fail on
+ * their own are found; each of those is marked FAILED with the error and the
+ * rest are issued. If even that cannot be recorded, the batch is marked
+ * FAILED so that no worker picks it up again. Errors that look like the
+ * database being unavailable stop the run instead, and the batch resumes
+ * once its heartbeat is stale.
+ */
+@Slf4j
+@Component
+public class CardIssuanceWorker {
+
+    private static final int MAX_CHUNK_ATTEMPTS = 3;
+
+    private static final String INSERT_CARD_SQL =
+            "INSERT INTO credit_cards (card_number, card_holder_name, expiry_date, cvv, card_type, account_id, " +
+            "is_active, credit_limit, available_balance) VALUES (?, ?, ?, ?, ?, ?, true, ?, ?)";
+
+    private static final String UPDATE_ITEM_SQL =
+            "UPDATE card_issuance_items SET status = ?, card_number = ?, failure_reason = ? " +
+            "WHERE id = ? AND status = 'PENDING'";
+
+    private final CardIssuanceBatchRepository batchRepository;
+    private final CardIssuanceItemRepository itemRepository;
+    private final AccountRepository accountRepository;
+    private final CardNumberGenerator cardNumberGenerator;
+    private final CacheService cacheService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int chunkSize;
+    private final long staleAfterMs;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "card-issuance");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean busy = new AtomicBoolean();
+
+    public CardIssuanceWorker(CardIssuanceBatchRepository batchRepository,
+                              CardIssuanceItemRepository itemRepository,
+                              AccountRepository accountRepository,
+                              CardNumberGenerator cardNumberGenerator,
+                              CacheService cacheService,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.card-issuance.chunk-size:500}") int chunkSize,
+                              @Value("${app.card-issuance.stale-after-ms:120000}") long staleAfterMs) {
+        this.batchRepository = batchRepository;
+        this.itemRepository = itemRepository;
+        this.accountRepository = accountRepository;
+        this.cardNumberGenerator = cardNumberGenerator;
+        this.cacheService = cacheService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(chunkSize, 1);
+        this.staleAfterMs = staleAfterMs;
+    }
+
+    @Scheduled(fixedDelayString = "${app.card-issuance.poll-interval-ms:5000}")
+    public void pollForWork() {
+        if (!busy.compareAndSet(false, true)) return;
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime staleBefore = now.minusNanos(staleAfterMs * 1_000_000);
+        List<Long> candidates = batchRepository.findClaimableIds(staleBefore, PageRequest.of(0, 1));
+
+        if (candidates.isEmpty() || batchRepository.claim(candidates.get(0), now, staleBefore) == 0) {
+            busy.set(false);
+            return;
+        }
+
+        Long batchId = candidates.get(0);
+        executor.execute(() -> {
+            try {
+                run(batchId);
+            } catch (Exception e) {
+                log.error("Card issuance batch {} interrupted: {}", batchId, e.getMessage());
+            } finally {
+                busy.set(false);
+            }
+        });
+    }
+
+    private void run(Long batchId) {
+        log.info("Running card issuance batch {}", batchId);
+        int attempts = 0;
+
+        while (true) {
+            List<CardIssuanceItem> items = itemRepository.findByBatchIdAndStatusOrderByLineNumber(
+                    batchId, IssuanceItemStatus.PENDING, PageRequest.of(0, chunkSize));
+
+            if (items.isEmpty()) {
+                batchRepository.complete(batchId, LocalDateTime.now());
+                log.info("Completed card issuance batch {}", batchId);
+                return;
+            }
+
+            Set<Long> issuedAccounts;
+            try {
+                issuedAccounts = issueInTransaction(batchId, items);
+            } catch (RuntimeException e) {
+                if (isTransient(e)) {
+                    log.warn("Stopped card issuance batch {}, database unavailable: {}", batchId, e.getMessage());
+                    return;
+                }
+                // رقم مكرر مثلاً: تُعاد الدفعة كاملة، ثم تُقسم لمعرفة البنود التي تفشل وحدها
+                if (++attempts < MAX_CHUNK_ATTEMPTS) {
+                    log.warn("Card issuance chunk of batch {} failed, retrying: {}", batchId, e.getMessage());
+                    continue;
+                }
+                log.warn("Card issuance chunk of batch {} failed {} times, isolating the failing items: {}",
+                        batchId, attempts, e.getMessage());
+                issuedAccounts = isolate(batchId, items);
+            }
+
+            if (issuedAccounts == null) {
+                if (attempts < MAX_CHUNK_ATTEMPTS) {
+                    log.info("Stopped card issuance batch {}: taken over by another worker", batchId);
+                }
+                return;
+            }
+
+            attempts = 0;
+            evictActiveCards(issuedAccounts);
+        }
+    }
+
+    private void evictActiveCards(Set<Long> accountIds) {
+        if (!accountIds.isEmpty()) {
+            cacheService.evictAll(accountIds.stream()
+                    .map(accountId -> "account:active-cards:" + accountId)
+                    .toList());
+        }
+    }
+
+    private Set<Long> issueInTransaction(Long batchId, List<CardIssuanceItem> items) {
+        return transactionTemplate.execute(status -> {
+            Set<Long> accounts = issueChunk(batchId, items);
+            if (accounts == null) status.setRollbackOnly();
+            return accounts;
+        });
+    }
+
+    /**
+     * Issues {@code items} in ever smaller parts and marks FAILED the single
+     * items that still fail. Null if the run has to stop: another worker
+     * took the batch over, the database is unavailable, or the batch had to
+     * be marked FAILED.
+     */
+    private Set<Long> isolate(Long batchId, List<CardIssuanceItem> items) {
+        Deque<List<CardIssuanceItem>> parts = new ArrayDeque<>();
+        parts.push(items);
+        Set<Long> issuedAccounts = new TreeSet<>();
+
+        while (!parts.isEmpty()) {
+            List<CardIssuanceItem> part = parts.pop();
+            boolean carryOn;
+            try {
+                Set<Long> accounts = issueInTransaction(batchId, part);
+                carryOn = accounts != null;
+                if (carryOn) {
+                    issuedAccounts.addAll(accounts);
+                } else {
+                    log.info("Stopped card issuance batch {}: taken over by another worker", batchId);
+                }
+            } catch (RuntimeException e) {
+                if (isTransient(e)) {
+                    log.warn("Stopped card issuance batch {}, database unavailable: {}", batchId, e.getMessage());
+                    carryOn = false;
+                } else if (part.size() > 1) {
+                    parts.push(part.subList(part.size() / 2, part.size()));
+                    parts.push(part.subList(0, part.size() / 2));
+                    carryOn = true;
+                } else {
+                    carryOn = markFailed(batchId, part.get(0), e);
+                }
+            }
+
+            if (!carryOn) {
+                // ما أُصدر قبل التوقف قد التزم، فيُحذف كاش حساباته
+                evictActiveCards(issuedAccounts);
+                return null;
+            }
+        }
+        return issuedAccounts;
+    }
+
+    // البند الذي يفشل وحده يُعلَّم FAILED؛ إن تعذر ذلك أيضاً يتوقف الطلب كله
+    private boolean markFailed(Long batchId, CardIssuanceItem item, RuntimeException cause) {
+        String reason = truncate("Issuance failed: " + cause.getMessage());
+        try {
+            Boolean marked = transactionTemplate.execute(status -> {
+                if (jdbcTemplate.update(UPDATE_ITEM_SQL, IssuanceItemStatus.FAILED.name(), null, reason, item.getId()) == 0
+                        || batchRepository.advance(batchId, 0, 1, LocalDateTime.now()) == 0) {
+                    status.setRollbackOnly();
+                    return false;
+                }
+                return true;
+            });
+            if (Boolean.TRUE.equals(marked)) {
+                log.warn("Card issuance item {} of batch {} failed: {}", item.getLineNumber(), batchId, cause.getMessage());
+                return true;
+            }
+            log.info("Stopped card issuance batch {}: taken over by another worker", batchId);
+        } catch (RuntimeException e) {
+            log.error("Card issuance batch {} failed, could not record failing item {}: {}",
+                    batchId, item.getLineNumber(), e.getMessage());
+            batchRepository.fail(batchId, reason, LocalDateTime.now());
+        }
+        return false;
+    }
+
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof TransactionException;
+    }
+
+    private static String truncate(String reason) {
+        return reason.length() > 500 ? reason.substring(0, 500) : reason;
+    }
+
+    // null إذا عالج عامل آخر أياً من البنود في هذه الأثناء
+    private Set<Long> issueChunk(Long batchId, List<CardIssuanceItem> items) {
+        Set<Long> accountIds = items.stream().map(CardIssuanceItem::getAccountId).collect(Collectors.toSet());
+        Map<Long, Account> accounts = accountRepository.findAllById(accountIds).stream()
+                .collect(Collectors.toMap(Account::getId, Function.identity()));
+
+        List<CardIssuanceItem> valid = new ArrayList<>(items.size());
+        for (CardIssuanceItem item : items) {
+            Account account = accounts.get(item.getAccountId());
+            if (account == null) {
+                fail(item, "Account not found");
+            } else if (account.getStatus() != AccountStatus.ACTIVE) {
+                fail(item, "Account is not active");
+            } else {
+                valid.add(item);
+            }
+        }
+
+        // المولّد آمن للخيوط: SecureRandom لكل خيط، والفلتر على AtomicLongArray
+        valid.parallelStream().forEach(item -> {
+            item.setCardNumber(cardNumberGenerator.issue(item.getCardType()));
+            item.setStatus(IssuanceItemStatus.ISSUED);
+        });
+
+        Date expiryDate = Date.valueOf(LocalDate.now().plusYears(3));
+        jdbcTemplate.batchUpdate(INSERT_CARD_SQL, valid, valid.size(), (ps, item) -> {
+            ps.setString(1, item.getCardNumber());
+            ps.setString(2, item.getCardHolderName());
+            ps.setDate(3, expiryDate);
+            ps.setInt(4, cardNumberGenerator.cvv());
+            ps.setString(5, item.getCardType().name());
+            ps.setLong(6, item.getAccountId());
+            ps.setBigDecimal(7, item.getCreditLimit());
+            ps.setBigDecimal(8, item.getCreditLimit());
+        });
+
+        int[][] updated = jdbcTemplate.batchUpdate(UPDATE_ITEM_SQL, items, items.size(), (ps, item) -> {
+            ps.setString(1, item.getStatus().name());
+            ps.setString(2, item.getCardNumber());
+            ps.setString(3, item.getFailureReason());
+            ps.setLong(4, item.getId());
+        });
+        if (Arrays.stream(updated).flatMapToInt(Arrays::stream).anyMatch(count -> count == 0)) {
+            return null;
+        }
+
+        int issued = valid.size();
+        if (batchRepository.advance(batchId, issued, items.size() - issued, LocalDateTime.now()) == 0) {
+            return null;
+        }
+
+        Set<Long> issuedAccounts = new TreeSet<>();
+        valid.forEach(item -> issuedAccounts.add(item.getAccountId()));
+        return issuedAccounts;
+    }
+
+    private static void fail(CardIssuanceItem item, String reason) {
+        item.setStatus(IssuanceItemStatus.FAILED);
+        item.setFailureReason(reason);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
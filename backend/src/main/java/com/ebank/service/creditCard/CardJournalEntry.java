@@ -0,0 +1,40 @@
+package com.ebank.service.creditCard;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * One change to write behind the {@link CardCreditLedger}, as read back from
+ * its journal stream. {@code id} is the stream entry id. {@code delta} is
+ * what the change did to the card's available credit, in minor units;
+ * {@code pending} tells whether the ledger counted it as pending, so the
+ * count is released once the change is written.
+ */
+record CardJournalEntry(String id,
+                        Kind kind,
+                        Long cardId,
+                        String authCode,
+                        long amount,
+                        long captured,
+                        long delta,
+                        String merchant,
+                        LocalDateTime at,
+                        boolean pending) {
+
+    enum Kind { HOLD, CAPTURE, VOID }
+
+    /** Reads an entry written by one of the ledger's scripts. */
+    static CardJournalEntry of(String id, Map<Object, Object> fields) {
+        String merchant = (String) fields.get("merchant");
+        return new CardJournalEntry(id,
+                Kind.valueOf((String) fields.get("kind")),
+                Long.valueOf((String) fields.get("card")),
+                (String) fields.get("auth"),
+                Long.parseLong((String) fields.get("amount")),
+                Long.parseLong((String) fields.get("captured")),
+                Long.parseLong((String) fields.get("delta")),
+                merchant == null || merchant.isEmpty() ? null : merchant,
+                LocalDateTime.parse((String) fields.get("at")),
+                "1".equals(fields.get("pending")));
+    }
+}
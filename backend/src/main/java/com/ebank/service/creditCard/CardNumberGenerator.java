@@ -0,0 +1,132 @@
+package com.ebank.service.creditCard;
+
+import com.ebank.exception.CreditCardException;
+import com.ebank.model.creditCard.CardType;
+import com.ebank.repository.CreditCardRepository;
+import com.ebank.service.reference.SecureCodeGenerator;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Issues card numbers: a configured BIN of the card type, random digits from
+ * {@link SecureCodeGenerator} and a Luhn check digit. Uniqueness is checked
+ * against {@link IssuedCardNumberFilter} first, and against the database only
+ * when the filter cannot rule the number out.
+ */
+@Component
+public class CardNumberGenerator {
+
+    private static final int MAX_ATTEMPTS = 10;
+
+    private static final Map<CardType, String> DEFAULT_BINS = Map.of(
+            CardType.VISA, "453201,491671",
+            CardType.MASTERCARD, "510510,545454",
+            CardType.AMERICAN_EXPRESS, "340000,370000",
+            CardType.DISCOVER, "601100");
+
+    private final SecureCodeGenerator codes;
+    private final IssuedCardNumberFilter issuedNumbers;
+    private final CreditCardRepository creditCardRepository;
+    private final Map<CardType, List<String>> bins = new EnumMap<>(CardType.class);
+
+    public CardNumberGenerator(SecureCodeGenerator codes,
+                               IssuedCardNumberFilter issuedNumbers,
+                               CreditCardRepository creditCardRepository,
+                               Environment environment) {
+        this.codes = codes;
+        this.issuedNumbers = issuedNumbers;
+        this.creditCardRepository = creditCardRepository;
+
+        // المفاتيح في الإعدادات: visa, mastercard, american-express, discover
+        Map<String, String> configured = Binder.get(environment)
+                .bind("app.cards.bins", Bindable.mapOf(String.class, String.class))
+                .orElse(Map.of());
+        for (CardType type : CardType.values()) {
+            String key = type.name().toLowerCase().replace('_', '-');
+            List<String> prefixes = Arrays.stream(configured.getOrDefault(key, DEFAULT_BINS.get(type)).split(","))
+                    .map(String::trim)
+                    .filter(prefix -> !prefix.isEmpty())
+                    .toList();
+            for (String prefix : prefixes) {
+                if (!prefix.chars().allMatch(Character::isDigit) || prefix.length() >= lengthOf(type) - 1) {
+                    throw new IllegalStateException("Invalid BIN " + prefix + " for " + type);
+                }
+            }
+            if (prefixes.isEmpty()) {
+                throw new IllegalStateException("No BIN configured for " + type);
+            }
+            bins.put(type, prefixes);
+        }
+    }
+
+    /** A Luhn-valid number of the given type that no known card has. */
+    public String issue(CardType type) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            String number = generate(type);
+            if (!issuedNumbers.mightContain(number) || !creditCardRepository.existsByCardNumber(number)) {
+                issuedNumbers.add(number);
+                return number;
+            }
+        }
+        throw new CreditCardException("Could not generate a unique card number");
+    }
+
+    public int cvv() {
+        return 100 + codes.nextInt(900);
+    }
+
+    String generate(CardType type) {
+        List<String> prefixes = bins.get(type);
+        String bin = prefixes.size() == 1 ? prefixes.get(0) : prefixes.get(codes.nextInt(prefixes.size()));
+
+        int length = lengthOf(type);
+        char[] digits = new char[length];
+        bin.getChars(0, bin.length(), digits, 0);
+        for (int i = bin.length(); i < length - 1; i++) {
+            digits[i] = (char) ('0' + codes.nextDigit());
+        }
+        digits[length - 1] = luhnCheckDigit(digits, length - 1);
+        return format(digits);
+    }
+
+    public static boolean isLuhnValid(String cardNumber) {
+        char[] digits = cardNumber.replace("-", "").toCharArray();
+        return digits.length > 1 && luhnCheckDigit(digits, digits.length - 1) == digits[digits.length - 1];
+    }
+
+    private static char luhnCheckDigit(char[] digits, int payloadLength) {
+        int sum = 0;
+        boolean doubled = true;
+        for (int i = payloadLength - 1; i >= 0; i--) {
+            int digit = digits[i] - '0';
+            if (doubled) {
+                digit *= 2;
+                if (digit > 9) digit -= 9;
+            }
+            sum += digit;
+            doubled = !doubled;
+        }
+        return (char) ('0' + (10 - sum % 10) % 10);
+    }
+
+    private static int lengthOf(CardType type) {
+        return type == CardType.AMERICAN_EXPRESS ? 15 : 16;
+    }
+
+    // XXXX-XXXX-XXXX-XXXX، وأمريكان إكسبريس XXXX-XXXXXX-XXXXX
+    private static String format(char[] digits) {
+        String number = new String(digits);
+        if (digits.length == 15) {
+            return number.substring(0, 4) + "-" + number.substring(4, 10) + "-" + number.substring(10);
+        }
+        return number.substring(0, 4) + "-" + number.substring(4, 8) + "-" +
+                number.substring(8, 12) + "-" + number.substring(12, 16);
+    }
+}
@@ -0,0 +1,235 @@
+package com.ebank.service.creditCard;
+
+import com.ebank.model.creditCard.CardStatement;
+import com.ebank.model.creditCard.SpendEventType;
+import com.ebank.repository.CardLastSpend;
+import com.ebank.repository.CardSpendEventRepository;
+import com.ebank.repository.CardSpendTotal;
+import com.ebank.repository.CardStatementRepository;
+import com.ebank.repository.CreditCardRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Closes the monthly billing cycle of every card. The card id space is split
+ * recursively on a {@link ForkJoinPool} until a range holds at most
+ * {@code range-size} ids; each range is closed in one transaction with three
+ * set-based reads (card ids, previous statements, spend totals) and one batch
+ * of inserts. Cards that already have a statement for the cycle are skipped,
+ * so a run that was interrupted can simply be started again.
+ * <p>
+ * The opening balance is the closing balance of the card's latest statement
+ * before the cycle. A card whose earlier cycle is missing a statement while
+ * it carried a balance or had activity since its latest statement is not
+ * closed: its debt or spending would silently drop out of every later
+ * statement. Such cards are logged and counted in
+ * {@code ebank.card.statements.gaps}; closing the missing cycle and running
+ * this one again closes them.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.card-statements.enabled", havingValue = "true", matchIfMissing = true)
+public class CardStatementJob {
+
+    private final CreditCardRepository creditCardRepository;
+    private final CardSpendEventRepository cardSpendEventRepository;
+    private final CardStatementRepository cardStatementRepository;
+    private final StatementCalculator calculator;
+    private final TransactionTemplate transactionTemplate;
+    private final int rangeSize;
+
+    // عدد الخيوط يحدد عدد اتصالات قاعدة البيانات المستخدمة معاً
+    private final ForkJoinPool pool;
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "card-statements");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean busy = new AtomicBoolean();
+    // البطاقات التي تُركت في التشغيل الحالي لأن كشف دورة سابقة ينقصها
+    private final Set<Long> gaps = ConcurrentHashMap.newKeySet();
+    private final Counter gapCounter;
+
+    public CardStatementJob(CreditCardRepository creditCardRepository,
+                            CardSpendEventRepository cardSpendEventRepository,
+                            CardStatementRepository cardStatementRepository,
+                            StatementCalculator calculator,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.card-statements.range-size:500}") int rangeSize,
+                            @Value("${app.card-statements.threads:4}") int threads) {
+        this.creditCardRepository = creditCardRepository;
+        this.cardSpendEventRepository = cardSpendEventRepository;
+        this.cardStatementRepository = cardStatementRepository;
+        this.calculator = calculator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rangeSize = Math.max(rangeSize, 1);
+        this.pool = new ForkJoinPool(Math.max(threads, 1));
+        this.gapCounter = Counter.builder("ebank.card.statements.gaps")
+                .description("Cards not closed because a statement of an earlier cycle is missing")
+                .register(meterRegistry);
+    }
+
+    /** Closes the calendar month that has just ended. */
+    @Scheduled(cron = "${app.card-statements.close-cron:0 30 2 1 * *}")
+    public void closePreviousMonth() {
+        LocalDate periodEnd = LocalDate.now().withDayOfMonth(1).minusDays(1);
+        closeCycle(periodEnd.withDayOfMonth(1), periodEnd);
+    }
+
+    public void closeCycle(LocalDate periodStart, LocalDate periodEnd) {
+        if (!busy.compareAndSet(false, true)) {
+            log.warn("Statement run already in progress, skipping cycle ending {}", periodEnd);
+            return;
+        }
+
+        coordinator.execute(() -> {
+            try {
+                Long minId = creditCardRepository.findMinId();
+                Long maxId = creditCardRepository.findMaxId();
+                if (minId == null) return;
+
+                long started = System.currentTimeMillis();
+                gaps.clear();
+                int closed = pool.invoke(new CloseRange(minId, maxId, periodStart, periodEnd));
+                log.info("Closed {} card statements for {} - {} in {} ms",
+                        closed, periodStart, periodEnd, System.currentTimeMillis() - started);
+                if (!gaps.isEmpty()) {
+                    gapCounter.increment(gaps.size());
+                    log.error("{} cards not closed for cycle ending {}: a statement of an earlier cycle is missing. " +
+                                    "Close that cycle, then run this one again. Cards: {}",
+                            gaps.size(), periodEnd, gaps.stream().sorted().limit(50).toList());
+                }
+            } catch (Exception e) {
+                log.error("Statement run for cycle ending {} failed: {}", periodEnd, e.getMessage());
+            } finally {
+                busy.set(false);
+            }
+        });
+    }
+
+    private final class CloseRange extends RecursiveTask<Integer> {
+        private final long fromId;
+        private final long toId;
+        private final LocalDate periodStart;
+        private final LocalDate periodEnd;
+
+        CloseRange(long fromId, long toId, LocalDate periodStart, LocalDate periodEnd) {
+            this.fromId = fromId;
+            this.toId = toId;
+            this.periodStart = periodStart;
+            this.periodEnd = periodEnd;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (toId - fromId < rangeSize) {
+                return closeRange(fromId, toId, periodStart, periodEnd);
+            }
+            long middle = fromId + (toId - fromId) / 2;
+            CloseRange left = new CloseRange(fromId, middle, periodStart, periodEnd);
+            CloseRange right = new CloseRange(middle + 1, toId, periodStart, periodEnd);
+            left.fork();
+            return right.compute() + left.join();
+        }
+    }
+
+    private int closeRange(long fromId, long toId, LocalDate periodStart, LocalDate periodEnd) {
+        try {
+            Integer closed = transactionTemplate.execute(status ->
+                    closeCards(fromId, toId, periodStart, periodEnd));
+            return closed == null ? 0 : closed;
+        } catch (RuntimeException e) {
+            // نطاق فاشل لا يوقف الباقي؛ إعادة التشغيل تكمل ما لم يُغلق
+            log.error("Could not close statements for cards {}-{}: {}", fromId, toId, e.getMessage());
+            return 0;
+        }
+    }
+
+    private int closeCards(long fromId, long toId, LocalDate periodStart, LocalDate periodEnd) {
+        List<Long> cardIds = creditCardRepository.findIdsBetween(fromId, toId);
+        if (cardIds.isEmpty()) return 0;
+
+        Set<Long> alreadyClosed = new HashSet<>(cardStatementRepository.findClosedCardIds(fromId, toId, periodEnd));
+        Map<Long, CardStatement> previous = cardStatementRepository
+                .findLatestBefore(fromId, toId, periodStart).stream()
+                .collect(Collectors.toMap(CardStatement::getCardId, Function.identity()));
+        Map<Long, LocalDateTime> lastSpendBefore = cardSpendEventRepository
+                .findLastSpendBefore(fromId, toId, periodStart.atStartOfDay()).stream()
+                .collect(Collectors.toMap(CardLastSpend::getCardId, CardLastSpend::getLastOccurredAt));
+
+        Map<Long, Map<SpendEventType, BigDecimal>> totals = new HashMap<>();
+        LocalDateTime from = periodStart.atStartOfDay();
+        LocalDateTime to = periodEnd.plusDays(1).atStartOfDay();
+        for (CardSpendTotal total : cardSpendEventRepository.sumByCard(fromId, toId, from, to)) {
+            totals.computeIfAbsent(total.getCardId(), id -> new HashMap<>()).put(total.getType(), total.getTotal());
+        }
+
+        List<CardStatement> statements = new ArrayList<>();
+        for (Long cardId : cardIds) {
+            if (alreadyClosed.contains(cardId)) continue;
+
+            CardStatement last = previous.get(cardId);
+            if (missesEarlierCycle(last, lastSpendBefore.get(cardId), periodStart)) {
+                gaps.add(cardId);
+                continue;
+            }
+            Map<SpendEventType, BigDecimal> cardTotals = totals.getOrDefault(cardId, Map.of());
+            BigDecimal purchases = cardTotals.getOrDefault(SpendEventType.PURCHASE, BigDecimal.ZERO);
+            BigDecimal payments = cardTotals.getOrDefault(SpendEventType.PAYMENT, BigDecimal.ZERO);
+
+            // بطاقة بلا رصيد ولا حركة لا تحتاج كشفاً
+            if (cardTotals.isEmpty() && (last == null || last.getClosingBalance().signum() == 0)) continue;
+
+            statements.add(calculator.close(cardId, last, periodStart, periodEnd, purchases, payments));
+        }
+
+        cardStatementRepository.saveAll(statements);
+        return statements.size();
+    }
+
+    /**
+     * True if something before the cycle is on no statement: a balance
+     * carried past a cycle that has no statement, or spending after the
+     * latest statement (or before the first one).
+     */
+    private static boolean missesEarlierCycle(CardStatement last, LocalDateTime lastSpend, LocalDate periodStart) {
+        LocalDate coveredUntil = last == null ? null : last.getPeriodEnd();
+        boolean adjacent = coveredUntil != null && coveredUntil.equals(periodStart.minusDays(1));
+        if (adjacent) return false;
+        if (last != null && last.getClosingBalance().signum() != 0) return true;
+        return lastSpend != null && (coveredUntil == null || !lastSpend.toLocalDate().isBefore(coveredUntil.plusDays(1)));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        coordinator.shutdownNow();
+        pool.shutdownNow();
+    }
+}
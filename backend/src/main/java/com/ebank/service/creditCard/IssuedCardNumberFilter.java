@@ -0,0 +1,109 @@
+package com.ebank.service.creditCard;
+
+import com.ebank.repository.CreditCardRepository;
+import com.ebank.repository.IssuedCardNumber;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over every card number issued, so that a freshly generated
+ * number only costs a database lookup when the filter thinks it may be taken.
+ * It is filled from {@code credit_cards} once the application is ready and
+ * answers "maybe" for everything until then. Numbers issued by other
+ * instances are not in it; the unique key on {@code card_number} stays the
+ * final guard.
+ */
+@Slf4j
+@Component
+public class IssuedCardNumberFilter {
+
+    private static final int LOAD_CHUNK = 5000;
+    private static final double LN2 = Math.log(2);
+
+    private final CreditCardRepository creditCardRepository;
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+    private volatile boolean loaded;
+
+    public IssuedCardNumberFilter(CreditCardRepository creditCardRepository,
+                                  @Value("${app.cards.bloom.expected-numbers:1000000}") long expectedNumbers,
+                                  @Value("${app.cards.bloom.false-positive-rate:0.001}") double falsePositiveRate) {
+        this.creditCardRepository = creditCardRepository;
+        long n = Math.max(expectedNumbers, 1);
+        long bits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (LN2 * LN2));
+        this.words = new AtomicLongArray((int) Math.max((bits + 63) / 64, 1));
+        this.bitCount = (long) words.length() * 64;
+        this.hashCount = (int) Math.max(Math.round((double) bitCount / n * LN2), 1);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long afterId = 0;
+        int count = 0;
+        List<IssuedCardNumber> chunk;
+        do {
+            chunk = creditCardRepository.findCardNumbersAfter(afterId, PageRequest.of(0, LOAD_CHUNK));
+            for (IssuedCardNumber issued : chunk) {
+                if (issued.getCardNumber() != null) {
+                    add(issued.getCardNumber());
+                    count++;
+                }
+                afterId = issued.getId();
+            }
+        } while (chunk.size() == LOAD_CHUNK);
+
+        loaded = true;
+        log.info("Loaded {} issued card numbers into the filter ({} bits, {} hashes)", count, bitCount, hashCount);
+    }
+
+    /** False only if the number has certainly not been issued. */
+    public boolean mightContain(String cardNumber) {
+        if (!loaded) return true;
+
+        long h1 = hash(cardNumber);
+        long h2 = mix(h1) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void add(String cardNumber) {
+        long h1 = hash(cardNumber);
+        long h2 = mix(h1) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            long mask = 1L << bit;
+            words.accumulateAndGet((int) (bit >>> 6), mask, (word, m) -> word | m);
+        }
+    }
+
+    // FNV-1a على الأرقام فقط، فالرقم بالشرطات وبدونها له نفس القيمة
+    private static long hash(String cardNumber) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < cardNumber.length(); i++) {
+            char c = cardNumber.charAt(i);
+            if (c < '0' || c > '9') continue;
+            hash ^= c;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
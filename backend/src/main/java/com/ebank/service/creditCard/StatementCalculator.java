@@ -0,0 +1,84 @@
+package com.ebank.service.creditCard;
+
+import com.ebank.model.creditCard.CardStatement;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Closes one billing cycle of one card. Everything is {@link BigDecimal}:
+ * intermediate results keep 34 significant digits and only the amounts put
+ * on the statement are rounded to cents.
+ * <p>
+ * Interest is charged on the part of the previous statement balance that was
+ * not repaid during this cycle, at {@code apr / 365} per day of the cycle.
+ * The minimum due is a percentage of the new balance plus the interest, never
+ * less than the floor and never more than the balance.
+ */
+@Component
+public class StatementCalculator {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+    private static final BigDecimal DAYS_PER_YEAR = BigDecimal.valueOf(365);
+
+    private final BigDecimal dailyRate;
+    private final BigDecimal minimumDueRate;
+    private final BigDecimal minimumDueFloor;
+    private final int graceDays;
+
+    public StatementCalculator(@Value("${app.card-statements.apr-percent:24.00}") BigDecimal aprPercent,
+                               @Value("${app.card-statements.minimum-due-percent:3.00}") BigDecimal minimumDuePercent,
+                               @Value("${app.card-statements.minimum-due-floor:25.00}") BigDecimal minimumDueFloor,
+                               @Value("${app.card-statements.grace-days:21}") int graceDays) {
+        this.dailyRate = aprPercent.divide(HUNDRED, MathContext.DECIMAL128).divide(DAYS_PER_YEAR, MathContext.DECIMAL128);
+        this.minimumDueRate = minimumDuePercent.divide(HUNDRED, MathContext.DECIMAL128);
+        this.minimumDueFloor = minimumDueFloor;
+        this.graceDays = graceDays;
+    }
+
+    /**
+     * @param previous   the card's statement for the cycle before, or null for its first one;
+     *                   the caller makes sure no cycle in between is missing
+     * @param periodEnd  last day of the cycle, inclusive
+     */
+    public CardStatement close(Long cardId, CardStatement previous, LocalDate periodStart, LocalDate periodEnd,
+                               BigDecimal purchases, BigDecimal payments) {
+        BigDecimal opening = previous == null ? BigDecimal.ZERO : previous.getClosingBalance();
+
+        BigDecimal unpaid = opening.subtract(payments).max(BigDecimal.ZERO);
+        long days = ChronoUnit.DAYS.between(periodStart, periodEnd) + 1;
+        BigDecimal interest = unpaid.multiply(dailyRate, MathContext.DECIMAL128)
+                .multiply(BigDecimal.valueOf(days), MathContext.DECIMAL128)
+                .setScale(2, RoundingMode.HALF_EVEN);
+
+        BigDecimal closing = opening.add(purchases).subtract(payments).add(interest);
+
+        return CardStatement.builder()
+                .cardId(cardId)
+                .periodStart(periodStart)
+                .periodEnd(periodEnd)
+                .openingBalance(opening)
+                .purchases(purchases)
+                .payments(payments)
+                .interest(interest)
+                .closingBalance(closing)
+                .minimumDue(minimumDue(closing, interest))
+                .dueDate(periodEnd.plusDays(graceDays))
+                .build();
+    }
+
+    private BigDecimal minimumDue(BigDecimal closing, BigDecimal interest) {
+        if (closing.signum() <= 0) {
+            return BigDecimal.ZERO.setScale(2);
+        }
+        // التقريب للأعلى حتى لا يقل الحد الأدنى عن النسبة المطلوبة
+        BigDecimal due = closing.multiply(minimumDueRate, MathContext.DECIMAL128).add(interest)
+                .setScale(2, RoundingMode.UP);
+        return due.max(minimumDueFloor).min(closing).setScale(2, RoundingMode.UNNECESSARY);
+    }
+}
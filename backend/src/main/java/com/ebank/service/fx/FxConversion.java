@@ -0,0 +1,16 @@
+package com.ebank.service.fx;
+
+import java.math.BigDecimal;
+
+/**
+ * Result of one conversion together with the rate and table version used,
+ * so the exact figures can be stored next to the money movement.
+ */
+public record FxConversion(BigDecimal sourceAmount, String sourceCurrency,
+                           BigDecimal targetAmount, String targetCurrency,
+                           BigDecimal rate, String rateVersion) {
+
+    public boolean isCrossCurrency() {
+        return !sourceCurrency.equals(targetCurrency);
+    }
+}
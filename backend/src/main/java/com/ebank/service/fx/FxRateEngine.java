@@ -0,0 +1,84 @@
+package com.ebank.service.fx;
+
+import com.ebank.exception.FxRateUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Converts amounts between currencies using the current {@link FxRateTable}.
+ * The table is fetched from the configured {@link FxRateFeed} at startup and
+ * on a schedule, and swapped in whole; conversions only read the reference,
+ * so they never wait on the feed and always see one consistent table. A
+ * failed refresh keeps the previous table.
+ */
+@Slf4j
+@Component
+public class FxRateEngine {
+
+    // المبالغ تُخزن بخانتين عشريتين؛ التقريب المصرفي يمنع انحياز التقريب للأعلى
+    public static final int MONEY_SCALE = 2;
+    public static final RoundingMode MONEY_ROUNDING = RoundingMode.HALF_EVEN;
+
+    private final FxRateFeed feed;
+    private final AtomicReference<FxRateTable> table = new AtomicReference<>();
+
+    public FxRateEngine(FxRateFeed feed) {
+        this.feed = feed;
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${app.fx.refresh-interval-ms:60000}",
+               initialDelayString = "${app.fx.refresh-interval-ms:60000}")
+    public void refresh() {
+        try {
+            FxRateTable loaded = FxRateTable.from(feed.fetch());
+            FxRateTable previous = table.get();
+            if (previous != null && previous.getVersion().equals(loaded.getVersion())) return;
+
+            table.set(loaded);
+            log.info("Loaded FX rate table {} with {} currencies", loaded.getVersion(), loaded.currencies().size());
+        } catch (Exception e) {
+            log.error("FX rate refresh failed, keeping {}: {}",
+                    table.get() == null ? "no table" : table.get().getVersion(), e.getMessage());
+        }
+    }
+
+    public FxRateTable currentTable() {
+        return table.get();
+    }
+
+    /**
+     * Converts {@code amount} from one currency to another and rounds the
+     * result to {@link #MONEY_SCALE} with {@link #MONEY_ROUNDING}. The same
+     * currency, or a missing one, converts at exactly 1 without touching the table.
+     */
+    public FxConversion convert(BigDecimal amount, String fromCurrency, String toCurrency) {
+        String from = normalize(fromCurrency);
+        String to = normalize(toCurrency);
+
+        // حسابات قديمة بلا عملة كانت تُحوَّل بلا تحويل عملة، فتبقى كذلك
+        if (from.equals(to) || from.isEmpty() || to.isEmpty()) {
+            String currency = from.isEmpty() ? to : from;
+            return new FxConversion(amount, currency, amount, currency, BigDecimal.ONE, null);
+        }
+
+        FxRateTable current = table.get();
+        BigDecimal rate = current == null ? null : current.rate(from, to);
+        if (rate == null) {
+            throw new FxRateUnavailableException(from, to);
+        }
+
+        BigDecimal converted = amount.multiply(rate).setScale(MONEY_SCALE, MONEY_ROUNDING);
+        return new FxConversion(amount, from, converted, to, rate, current.getVersion());
+    }
+
+    private static String normalize(String currency) {
+        return currency == null ? "" : currency.trim().toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,10 @@
+package com.ebank.service.fx;
+
+/**
+ * Source of exchange rates. Called only when the rate table is refreshed,
+ * never on the transfer path.
+ */
+public interface FxRateFeed {
+
+    FxRateSnapshot fetch() throws Exception;
+}
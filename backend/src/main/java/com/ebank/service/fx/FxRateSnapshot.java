@@ -0,0 +1,12 @@
+package com.ebank.service.fx;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Rates as published by a feed: units of each currency for one unit of
+ * {@code baseCurrency}.
+ */
+public record FxRateSnapshot(String baseCurrency, Instant asOf, Map<String, BigDecimal> ratesPerBase) {
+}
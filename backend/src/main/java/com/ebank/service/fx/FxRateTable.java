@@ -0,0 +1,78 @@
+package com.ebank.service.fx;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable cross-rate matrix built once per feed snapshot. Every pair is
+ * derived through the base currency at load time, so a lookup is two hash
+ * probes and never divides.
+ */
+public final class FxRateTable {
+
+    public static final int RATE_SCALE = 10;
+
+    private static final DateTimeFormatter VERSION_FORMAT =
+            DateTimeFormatter.ofPattern("yyyyMMddHHmmss").withZone(ZoneOffset.UTC);
+
+    private final String version;
+    private final Instant asOf;
+    private final Map<String, Map<String, BigDecimal>> crossRates;
+
+    private FxRateTable(String version, Instant asOf, Map<String, Map<String, BigDecimal>> crossRates) {
+        this.version = version;
+        this.asOf = asOf;
+        this.crossRates = crossRates;
+    }
+
+    static FxRateTable from(FxRateSnapshot snapshot) {
+        Map<String, BigDecimal> perBase = new HashMap<>();
+        snapshot.ratesPerBase().forEach((currency, rate) -> {
+            if (rate == null || rate.signum() <= 0) {
+                throw new IllegalArgumentException("Invalid rate for " + currency + ": " + rate);
+            }
+            perBase.put(currency.toUpperCase(Locale.ROOT), rate);
+        });
+        perBase.put(snapshot.baseCurrency().toUpperCase(Locale.ROOT), BigDecimal.ONE);
+
+        Map<String, Map<String, BigDecimal>> crossRates = new HashMap<>();
+        perBase.forEach((from, fromPerBase) -> {
+            Map<String, BigDecimal> row = new HashMap<>();
+            perBase.forEach((to, toPerBase) ->
+                    row.put(to, from.equals(to) ? BigDecimal.ONE
+                            : toPerBase.divide(fromPerBase, RATE_SCALE, RoundingMode.HALF_EVEN)));
+            crossRates.put(from, Map.copyOf(row));
+        });
+
+        return new FxRateTable("FX-" + VERSION_FORMAT.format(snapshot.asOf()), snapshot.asOf(),
+                Map.copyOf(crossRates));
+    }
+
+    /**
+     * @return units of {@code to} for one unit of {@code from}, or null when
+     * either currency is not in the table
+     */
+    public BigDecimal rate(String from, String to) {
+        Map<String, BigDecimal> row = crossRates.get(from);
+        return row == null ? null : row.get(to);
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public Instant getAsOf() {
+        return asOf;
+    }
+
+    public Set<String> currencies() {
+        return crossRates.keySet();
+    }
+}
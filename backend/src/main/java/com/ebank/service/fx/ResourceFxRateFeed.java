@@ -0,0 +1,58 @@
+package com.ebank.service.fx;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Reads rates from a properties file, e.g. one dropped by the treasury system:
+ * <pre>
+ * base=USD
+ * as-of=2026-10-19T08:00:00Z
+ * rate.EGP=48.3500
+ * rate.EUR=0.9200
+ * </pre>
+ */
+@Component
+@ConditionalOnProperty(name = "app.fx.feed", havingValue = "resource")
+public class ResourceFxRateFeed implements FxRateFeed {
+
+    private static final String RATE_PREFIX = "rate.";
+
+    private final Resource location;
+
+    public ResourceFxRateFeed(@Value("${app.fx.rates-location}") Resource location) {
+        this.location = location;
+    }
+
+    @Override
+    public FxRateSnapshot fetch() throws Exception {
+        Properties properties = new Properties();
+        try (InputStream in = location.getInputStream()) {
+            properties.load(in);
+        }
+
+        String base = properties.getProperty("base");
+        String asOf = properties.getProperty("as-of");
+        if (base == null || asOf == null) {
+            throw new IllegalStateException("Rate file " + location + " must declare base and as-of");
+        }
+
+        Map<String, BigDecimal> rates = new HashMap<>();
+        rates.put(base, BigDecimal.ONE);
+        for (String name : properties.stringPropertyNames()) {
+            if (name.startsWith(RATE_PREFIX)) {
+                rates.put(name.substring(RATE_PREFIX.length()), new BigDecimal(properties.getProperty(name).trim()));
+            }
+        }
+        return new FxRateSnapshot(base, Instant.parse(asOf), rates);
+    }
+}
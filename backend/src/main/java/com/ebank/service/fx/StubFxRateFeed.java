@@ -0,0 +1,44 @@
+package com.ebank.service.fx;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Fixed rates for development and tests, so transfers between accounts in
+ * different currencies work without an external feed. Real balances must
+ * never be converted at these rates, so the {@code prod} profile refuses to
+ * start with it.
+ */
+@Component
+@ConditionalOnProperty(name = "app.fx.feed", havingValue = "stub", matchIfMissing = true)
+public class StubFxRateFeed implements FxRateFeed {
+
+    private static final Map<String, BigDecimal> RATES_PER_USD = Map.of(
+            "USD", BigDecimal.ONE,
+            "EGP", new BigDecimal("48.3500"),
+            "EUR", new BigDecimal("0.9200"),
+            "GBP", new BigDecimal("0.7700"),
+            "SAR", new BigDecimal("3.7500"),
+            "AED", new BigDecimal("3.6725"),
+            "KWD", new BigDecimal("0.3070"));
+
+    // ثابت حتى يبقى إصدار الجدول كما هو بين التحديثات
+    private final Instant asOf = Instant.now();
+
+    public StubFxRateFeed(Environment environment) {
+        if (environment.acceptsProfiles(Profiles.of("prod"))) {
+            throw new IllegalStateException("app.fx.feed must not be stub in production; set it to resource");
+        }
+    }
+
+    @Override
+    public FxRateSnapshot fetch() {
+        return new FxRateSnapshot("USD", asOf, RATES_PER_USD);
+    }
+}
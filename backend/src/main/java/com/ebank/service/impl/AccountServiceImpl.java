@@ -3,17 +3,20 @@ package com.ebank.service.impl;
 import com.ebank.dto.*;
 import com.ebank.exception.*;
 import com.ebank.model.account.*;
+import com.ebank.mapper.AccountMapper;
 import com.ebank.model.user.User;
 import com.ebank.repository.AccountRepository;
+import com.ebank.repository.AccountSearchHit;
 import com.ebank.repository.UserRepository;
 import com.ebank.service.AccountService;
 import com.ebank.service.CacheService;
-import jakarta.annotation.PostConstruct;
+import com.ebank.service.account.AccountSearchCache;
+import com.ebank.service.account.AccountSearchChangedEvent;
+import com.ebank.service.outbox.AccountBalanceChanged;
+import com.ebank.service.outbox.OutboxPublisher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
-import org.modelmapper.TypeMap;
-import org.modelmapper.convention.MatchingStrategies;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -22,8 +25,11 @@ import com.ebank.exception.UserNotFoundException;
 import com.ebank.exception.AccountNotFoundException;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -34,8 +40,14 @@ public class AccountServiceImpl implements AccountService {
 
     private final AccountRepository accountRepository;
     private final UserRepository userRepository;
-    private final ModelMapper modelMapper;
+    private final AccountMapper accountMapper;
     private final CacheService cacheService;
+    private final AccountSearchCache accountSearchCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxPublisher outboxPublisher;
+
+    private static final int MIN_SEARCH_TERM_LENGTH = 2;
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
 
     @Override
     public AccountDTO createAccount(AccountCreationDTO accountCreationDTO) {
@@ -46,28 +58,20 @@ public class AccountServiceImpl implements AccountService {
         User user = userRepository.findById(accountCreationDTO.getUserId())
                 .orElseThrow(() -> new UserNotFoundException(accountCreationDTO.getUserId()));
 
-        Account account = modelMapper.map(accountCreationDTO, Account.class);
+        Account account = accountMapper.toEntity(accountCreationDTO);
         account.setUser(user);
         account.setBalance(BigDecimal.ZERO);
         account.setStatus(AccountStatus.ACTIVE);
 
         Account savedAccount = accountRepository.save(account);
+        eventPublisher.publishEvent(new AccountSearchChangedEvent());
 
-        AccountDTO savedDTO = modelMapper.map(savedAccount, AccountDTO.class);
-
-        savedDTO.setBalance(savedAccount.getBalance());
-        savedDTO.setAccountName(savedAccount.getAccountName());
-        savedDTO.setCurrency(savedAccount.getCurrency());
-        savedDTO.setAccountType(savedAccount.getAccountType());
-        savedDTO.setStatus(savedAccount.getStatus());
+        AccountDTO savedDTO = accountMapper.toDto(savedAccount);
 
         String userAccountsCacheKey = "user:accounts:" + user.getId();
         cacheService.evictAccountCache(userAccountsCacheKey);
 
-        List<AccountDTO> updatedAccounts = accountRepository.findByUserId(user.getId())
-                .stream()
-                .map(acc -> modelMapper.map(acc, AccountDTO.class))
-                .collect(Collectors.toList());
+        List<AccountDTO> updatedAccounts = accountMapper.toDtoList(accountRepository.findByUserId(user.getId()));
         cacheService.cacheData(userAccountsCacheKey, updatedAccounts, List.class);
         cacheService.setExpiration(userAccountsCacheKey, 1, TimeUnit.HOURS);
 
@@ -77,7 +81,7 @@ public class AccountServiceImpl implements AccountService {
 
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional
     public AccountDetailsDTO getAccountDetails(Long accountId) {
         String cacheKey = "account:details:" + accountId;
         AccountDetailsDTO cached = cacheService.getCachedData(cacheKey, AccountDetailsDTO.class);
@@ -89,7 +93,7 @@ public class AccountServiceImpl implements AccountService {
 
         log.debug("CACHE MISS for key {}, loading from DB", cacheKey);
         Account account = getAccountById(accountId);
-        AccountDetailsDTO dto = modelMapper.map(account, AccountDetailsDTO.class);
+        AccountDetailsDTO dto = accountMapper.toDetailsDto(account);
 
         cacheService.cacheData(cacheKey, dto, AccountDetailsDTO.class);
         cacheService.setExpiration(cacheKey, 30, TimeUnit.MINUTES);
@@ -102,21 +106,18 @@ public class AccountServiceImpl implements AccountService {
     @Transactional(readOnly = true)
     public Page<AccountDTO> getAllAccounts(Pageable pageable) {
         return accountRepository.findAll(pageable)
-                .map(account -> modelMapper.map(account, AccountDTO.class));
+                .map(accountMapper::toDto);
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional
     public List<AccountDTO> getUserAccounts(Long userId) {
         String cacheKey = "user:accounts:" + userId;
         List<AccountDTO> cached = cacheService.getCachedData(cacheKey, List.class);
 
         if (cached != null) return cached;
 
-        List<AccountDTO> accounts = accountRepository.findByUserId(userId)
-                .stream()
-                .map(account -> modelMapper.map(account, AccountDTO.class))
-                .collect(Collectors.toList());
+        List<AccountDTO> accounts = accountMapper.toDtoList(accountRepository.findByUserId(userId));
 
         cacheService.cacheData(cacheKey, accounts, List.class);
         cacheService.setExpiration(cacheKey, 1, TimeUnit.HOURS);
@@ -125,7 +126,7 @@ public class AccountServiceImpl implements AccountService {
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional
     public BigDecimal getAccountBalance(Long accountId) {
         String cacheKey = "account:balance:" + accountId;
         BigDecimal cachedBalance = cacheService.getCachedData(cacheKey, BigDecimal.class);
@@ -146,36 +147,13 @@ public class AccountServiceImpl implements AccountService {
             throw new InvalidAmountException("Deposit amount must be positive");
         }
 
-        // 1. جلب الحساب وحساب الرصيد الجديد
         Account account = getAccountById(accountId);
-        BigDecimal newBalance = account.getBalance().add(amount);
-        account.setBalance(newBalance);
-
-        // 2. حفظ التغيير في قاعدة البيانات
-        Account updated = accountRepository.save(account);
+        account.setBalance(account.getBalance().add(amount));
+        accountRepository.save(account);
         log.info("Deposited {} to account ID: {}", amount, accountId);
 
-        // 3. تحديث كاش الرصيد
-        String balanceKey = "account:balance:" + accountId;
-        cacheService.cacheData(balanceKey, newBalance, BigDecimal.class);
-        cacheService.setExpiration(balanceKey, 5, TimeUnit.MINUTES);
-
-        // 4. إعادة تعبئة كاش تفاصيل الحساب
-        String detailsKey = "account:details:" + accountId;
-        AccountDetailsDTO dto = modelMapper.map(updated, AccountDetailsDTO.class);
-        cacheService.cacheData(detailsKey, dto, AccountDetailsDTO.class);
-        cacheService.setExpiration(detailsKey, 30, TimeUnit.MINUTES);
-
-        // 5. **إعادة تعبئة** كاش قائمة حسابات المستخدم بالكامل
-        Long userId = account.getUser().getId();
-        String userAccountsKey = "user:accounts:" + userId;
-
-        List<AccountDTO> updatedAccounts = accountRepository.findByUserId(userId)
-                .stream()
-                .map(acc -> modelMapper.map(acc, AccountDTO.class))
-                .collect(Collectors.toList());
-        cacheService.cacheData(userAccountsKey, updatedAccounts, List.class);
-        cacheService.setExpiration(userAccountsKey, 1, TimeUnit.HOURS);
+        // الكاش يُحدَّث بعد الـ commit عبر الـ outbox، فلا يرى أحد رصيداً لم يُحفظ
+        outboxPublisher.publish(accountId, AccountBalanceChanged.of(account));
     }
 
 
@@ -192,19 +170,10 @@ public class AccountServiceImpl implements AccountService {
         }
 
         account.setBalance(account.getBalance().subtract(amount));
-        Account updatedAccount = accountRepository.save(account);
+        accountRepository.save(account);
         log.info("Withdrew {} from account ID: {}", amount, accountId);
 
-        String balanceKey = "account:balance:" + accountId;
-        cacheService.cacheData(balanceKey, updatedAccount.getBalance(), BigDecimal.class);
-        cacheService.setExpiration(balanceKey, 5, TimeUnit.MINUTES);
-
-        String detailsKey = "account:details:" + accountId;
-        AccountDetailsDTO updatedAccountDetails = modelMapper.map(updatedAccount, AccountDetailsDTO.class);
-        cacheService.cacheData(detailsKey, updatedAccountDetails, AccountDetailsDTO.class);
-        cacheService.setExpiration(detailsKey, 30, TimeUnit.MINUTES);
-
-        evictAccountCache(account);
+        outboxPublisher.publish(accountId, AccountBalanceChanged.of(account));
     }
 
 
@@ -235,34 +204,50 @@ public class AccountServiceImpl implements AccountService {
     }
 
     @Override
-    @Transactional(readOnly = true)
-    public List<AccountDTO> searchAccounts(String searchTerm) {
-        String cacheKey = "account:search:" + searchTerm.hashCode();
-        List<AccountDTO> cached = cacheService.getCachedData(cacheKey, List.class);
-
-        if (cached != null) return cached;
-
-        List<AccountDTO> results = accountRepository.search(searchTerm)
-                .stream()
-                .map(account -> modelMapper.map(account, AccountDTO.class))
-                .collect(Collectors.toList());
-
-        cacheService.cacheData(cacheKey, results, List.class);
-        cacheService.setExpiration(cacheKey, 10, TimeUnit.MINUTES);
+    @Transactional
+    public List<AccountDTO> searchAccounts(String searchTerm, int page, int size) {
+        String term = AccountSearchCache.normalize(searchTerm);
+        // أقصر من حجم الـ ngram لا يطابق أي token
+        if (term.length() < MIN_SEARCH_TERM_LENGTH) return List.of();
+
+        int pageSize = Math.min(Math.max(size, 1), MAX_SEARCH_PAGE_SIZE);
+        int pageNumber = Math.max(page, 0);
+        String cacheKey = accountSearchCache.key(term, pageNumber, pageSize);
+
+        // الكاش يحفظ ترتيب المعرّفات فقط؛ الرصيد والحالة يُقرآن من الصفوف في كل طلب
+        List<?> cached = cacheKey != null ? cacheService.getCachedData(cacheKey, List.class) : null;
+        List<Long> ids;
+        if (cached != null) {
+            ids = cached.stream().map(id -> ((Number) id).longValue()).toList();
+        } else {
+            ids = accountRepository.searchRanked('"' + term + '"', pageSize, pageNumber * pageSize).stream()
+                    .map(AccountSearchHit::getId)
+                    .toList();
+            if (cacheKey != null) {
+                cacheService.cacheData(cacheKey, ids, List.class);
+                cacheService.setExpiration(cacheKey, 10, TimeUnit.MINUTES);
+            }
+        }
 
+        Map<Long, Account> accounts = accountRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Account::getId, Function.identity()));
+        List<AccountDTO> results = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Account account = accounts.get(id);
+            if (account != null) results.add(accountMapper.toDto(account));
+        }
         return results;
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<AccountDTO> getAccountsByType(String accountType) {
-        return accountRepository.findByAccountType(AccountType.valueOf(accountType.toUpperCase())).stream()
-                .map(account -> modelMapper.map(account, AccountDTO.class))
-                .collect(Collectors.toList());
+        return accountMapper.toDtoList(
+                accountRepository.findByAccountType(AccountType.valueOf(accountType.toUpperCase())));
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional
     public AccountDetailsDTO getAccountByNumber(String accountNumber) {
         String cacheKey = "account:details:" + accountNumber;
         AccountDetailsDTO cached = cacheService.getCachedData(cacheKey, AccountDetailsDTO.class);
@@ -271,7 +256,7 @@ public class AccountServiceImpl implements AccountService {
         Account account = accountRepository.findByAccountNumber(accountNumber)
                 .orElseThrow(() -> new AccountNotFoundException("Account not found with number: " + accountNumber));
 
-        AccountDetailsDTO dto = modelMapper.map(account, AccountDetailsDTO.class);
+        AccountDetailsDTO dto = accountMapper.toDetailsDto(account);
         cacheService.cacheData(cacheKey, dto, AccountDetailsDTO.class);
         cacheService.setExpiration(cacheKey, 30, TimeUnit.MINUTES);
         return dto;
@@ -280,8 +265,13 @@ public class AccountServiceImpl implements AccountService {
     @Override
     public void updateAccountDetails(Long accountId, AccountDTO accountDTO) {
         Account account = getAccountById(accountId);
-        modelMapper.map(accountDTO, account);
+        boolean nameChanged = accountDTO.getAccountName() != null
+                && !accountDTO.getAccountName().equals(account.getAccountName());
+        accountMapper.updateEntity(accountDTO, account);
         accountRepository.save(account);
+        // اسم الحساب جزء من بحث الحسابات
+        if (nameChanged) eventPublisher.publishEvent(new AccountSearchChangedEvent());
+        evictAccountCache(account);
         log.info("Updated details for account ID: {}", accountId);
     }
 
@@ -290,27 +280,6 @@ public class AccountServiceImpl implements AccountService {
                 .orElseThrow(() -> new AccountNotFoundException("Account not found with ID: " + accountId));
     }
 
-    @PostConstruct
-    public void configureModelMapper() {
-        modelMapper.getConfiguration()
-                .setMatchingStrategy(MatchingStrategies.STRICT)
-                .setSkipNullEnabled(true);
-
-
-        TypeMap<Account, AccountDetailsDTO> detailsMap =
-                modelMapper.createTypeMap(Account.class, AccountDetailsDTO.class);
-
-        detailsMap.addMapping(Account::getId,              AccountDetailsDTO::setId);
-        detailsMap.addMapping(Account::getAccountNumber,   AccountDetailsDTO::setAccountNumber);
-        detailsMap.addMapping(Account::getAccountName,     AccountDetailsDTO::setAccountName);
-        detailsMap.addMapping(Account::getCurrency,        AccountDetailsDTO::setCurrency);
-        detailsMap.addMapping(Account::getAccountType,     AccountDetailsDTO::setAccountType);
-        detailsMap.addMapping(Account::getStatus,          AccountDetailsDTO::setStatus);
-        detailsMap.addMapping(Account::getBalance,         AccountDetailsDTO::setBalance);
-
-    }
-
-
     private void evictAccountCache(Account account) {
         cacheService.evictAccountCache("account:details:" + account.getId());
         cacheService.evictAccountCache("account:balance:" + account.getId());
@@ -1,6 +1,5 @@
 package com.ebank.service.impl;
 
-import com.ebank.dto.BillPaymentCacheDTO;
 import com.ebank.dto.BillPaymentResponseDTO;
 import com.ebank.exception.BillPaymentException;
 import com.ebank.exception.InsufficientBalanceException;
@@ -10,7 +9,10 @@ import com.ebank.model.billPayment.BillPayment;
 import com.ebank.repository.AccountRepository;
 import com.ebank.repository.BillPaymentRepository;
 import com.ebank.service.BillPaymentService;
-import com.ebank.service.CacheService;
+import com.ebank.service.outbox.AccountBalanceChanged;
+import com.ebank.service.outbox.BillPaymentRecorded;
+import com.ebank.service.outbox.OutboxPublisher;
+import com.ebank.service.reference.ReferenceNumberGenerator;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -29,7 +31,8 @@ public class BillPaymentServiceImpl implements BillPaymentService {
 
     private final BillPaymentRepository billPaymentRepository;
     private final AccountRepository accountRepository;
-    private final CacheService cacheService;
+    private final ReferenceNumberGenerator referenceNumberGenerator;
+    private final OutboxPublisher outboxPublisher;
 
     @Override
     @Transactional
@@ -56,23 +59,16 @@ public class BillPaymentServiceImpl implements BillPaymentService {
                 .customerReference(customerReference)
                 .amount(amount)
                 .paymentDate(LocalDateTime.now())
-                .paymentReceiptNumber("RCPT-" + System.currentTimeMillis())
+                .paymentReceiptNumber(referenceNumberGenerator.next("RCPT"))
                 .build();
 
         BillPayment saved = billPaymentRepository.save(payment);
         log.info("Processed bill payment with receipt: {}", saved.getPaymentReceiptNumber());
 
-        // Cache lightweight DTO
-        BillPaymentCacheDTO cacheDto = BillPaymentCacheDTO.builder()
-                .receiptNumber(saved.getPaymentReceiptNumber())
-                .payerAccountId(accountId)
-                .amount(saved.getAmount())
-                .paymentDate(saved.getPaymentDate())
-                .build();
-        cacheService.cacheData("bill:receipt:" + cacheDto.getReceiptNumber(),
-                cacheDto,
-                BillPaymentCacheDTO.class);
-        cacheService.evictAccountCache("bill:history:" + accountId);
+        // الإيصال في الكاش وإبطال السجل يتمان بعد الـ commit
+        outboxPublisher.publish(accountId, AccountBalanceChanged.of(account));
+        outboxPublisher.publish(accountId, new BillPaymentRecorded(accountId,
+                saved.getPaymentReceiptNumber(), saved.getAmount(), saved.getPaymentDate()));
 
         // Return response DTO
         return BillPaymentResponseDTO.builder()
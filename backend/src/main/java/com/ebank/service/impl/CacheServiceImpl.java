@@ -1,13 +1,16 @@
 package com.ebank.service.impl;
 
+import com.ebank.metrics.RequestMetrics;
 import com.ebank.service.CacheService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.concurrent.TimeUnit;
 
 @Service
@@ -27,6 +30,7 @@ public class CacheServiceImpl implements CacheService {
     public <T> T getCachedData(String key, Class<T> type) {
         try {
             Object value = redisTemplate.opsForValue().get(key);
+            RequestMetrics.recordCacheLookup(key, value != null);
             return type.cast(value);
         } catch (Exception e) {
             logger.error("Error retrieving cached data for key {}: {}", key, e.getMessage());
@@ -42,7 +46,9 @@ public class CacheServiceImpl implements CacheService {
 
     @Override
     public Object getCachedUserDetails(String key) {
-        return redisTemplate.opsForValue().get(key);
+        Object value = redisTemplate.opsForValue().get(key);
+        RequestMetrics.recordCacheLookup(key, value != null);
+        return value;
     }
 
     @Override
@@ -58,7 +64,9 @@ public class CacheServiceImpl implements CacheService {
 
     @Override
     public Object getCachedAccountDetails(String key) {
-        return redisTemplate.opsForValue().get(key);
+        Object value = redisTemplate.opsForValue().get(key);
+        RequestMetrics.recordCacheLookup(key, value != null);
+        return value;
     }
 
     @Override
@@ -72,6 +80,18 @@ public class CacheServiceImpl implements CacheService {
         redisTemplate.expire(key, 30, TimeUnit.MINUTES);
     }
 
+    @Override
+    public void evict(String key) {
+        redisTemplate.delete(key);
+    }
+
+    @Override
+    public void evictAll(Collection<String> keys) {
+        if (!keys.isEmpty()) {
+            redisTemplate.delete(keys);
+        }
+    }
+
     @Override
     public void setExpiration(String key, long timeout, TimeUnit unit) {
         redisTemplate.expire(key, timeout, unit);
@@ -85,6 +105,9 @@ public class CacheServiceImpl implements CacheService {
 
     @Override
     public void clearAllCaches() {
-        redisTemplate.getConnectionFactory().getConnection().flushDb();
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            connection.serverCommands().flushDb();
+            return null;
+        });
     }
 }
@@ -1,23 +1,51 @@
 package com.ebank.service.impl;
 
+import com.ebank.dto.BulkCardIssuanceRequest;
+import com.ebank.dto.CardAuthorizationDTO;
+import com.ebank.dto.CardIssuanceBatchDTO;
+import com.ebank.dto.CardIssuanceItemDTO;
+import com.ebank.dto.CardStatementDTO;
 import com.ebank.dto.CreditCardResponseDTO;
 import com.ebank.exception.CreditCardException;
+import com.ebank.exception.InsufficientBalanceException;
+import com.ebank.exception.ResourceNotFoundException;
 import com.ebank.model.account.Account;
+import com.ebank.model.creditCard.CardIssuanceBatch;
+import com.ebank.model.creditCard.CardIssuanceItem;
+import com.ebank.model.creditCard.CardSpendEvent;
 import com.ebank.model.creditCard.CardType;
+import com.ebank.model.creditCard.CardStatement;
 import com.ebank.model.creditCard.CreditCard;
+import com.ebank.model.creditCard.IssuanceItemStatus;
+import com.ebank.model.creditCard.SpendEventType;
 import com.ebank.repository.AccountRepository;
+import com.ebank.repository.CardIssuanceBatchRepository;
+import com.ebank.repository.CardIssuanceItemRepository;
+import com.ebank.repository.CardSpendEventRepository;
+import com.ebank.repository.CardStatementRepository;
 import com.ebank.repository.CreditCardRepository;
 import com.ebank.service.CacheService;
 import com.ebank.service.CreditCardService;
+import com.ebank.service.creditCard.CardAuthorizationEngine;
+import com.ebank.service.creditCard.CardNumberGenerator;
+import com.ebank.service.outbox.AccountBalanceChanged;
+import com.ebank.service.outbox.OutboxPublisher;
+import com.ebank.service.reference.ReferenceNumberGenerator;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -30,6 +58,19 @@ public class CreditCardServiceImpl implements CreditCardService {
     private final CreditCardRepository creditCardRepository;
     private final AccountRepository accountRepository;
     private final CacheService cacheService;
+    private final CardAuthorizationEngine authorizationEngine;
+    private final CardStatementRepository cardStatementRepository;
+    private final CardSpendEventRepository cardSpendEventRepository;
+    private final OutboxPublisher outboxPublisher;
+    private final ReferenceNumberGenerator referenceNumberGenerator;
+    private final CardNumberGenerator cardNumberGenerator;
+    private final CardIssuanceBatchRepository cardIssuanceBatchRepository;
+    private final CardIssuanceItemRepository cardIssuanceItemRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private static final String INSERT_ISSUANCE_ITEM_SQL =
+            "INSERT INTO card_issuance_items (batch_id, line_number, account_id, card_holder_name, card_type, " +
+            "credit_limit, status) VALUES (?, ?, ?, ?, ?, ?, 'PENDING')";
 
     @Override
     @Transactional
@@ -45,10 +86,10 @@ public class CreditCardServiceImpl implements CreditCardService {
         }
 
         CreditCard card = CreditCard.builder()
-                .cardNumber(generateSecureCardNumber())
+                .cardNumber(cardNumberGenerator.issue(cardType))
                 .cardHolderName(cardHolderName)
                 .expiryDate(LocalDate.now().plusYears(3))
-                .cvv(generateRandomCVV())
+                .cvv(cardNumberGenerator.cvv())
                 .cardType(cardType)
                 .linkedAccount(account)
                 .isActive(true)
@@ -66,23 +107,137 @@ public class CreditCardServiceImpl implements CreditCardService {
 
     @Override
     @Transactional
+    public CardIssuanceBatchDTO submitBulkIssuance(BulkCardIssuanceRequest request) {
+        List<BulkCardIssuanceRequest.Card> cards = request.getCards();
+        CardIssuanceBatch batch = cardIssuanceBatchRepository.save(CardIssuanceBatch.builder()
+                .totalCards(cards.size())
+                .build());
+
+        // البنود تُدرج دفعة واحدة؛ الإصدار نفسه يتم في CardIssuanceWorker
+        List<Integer> lines = new ArrayList<>(cards.size());
+        for (int i = 0; i < cards.size(); i++) lines.add(i + 1);
+        jdbcTemplate.batchUpdate(INSERT_ISSUANCE_ITEM_SQL, lines, lines.size(), (ps, line) -> {
+            BulkCardIssuanceRequest.Card card = cards.get(line - 1);
+            ps.setLong(1, batch.getId());
+            ps.setInt(2, line);
+            ps.setLong(3, card.getAccountId());
+            ps.setString(4, card.getCardHolderName());
+            ps.setString(5, card.getCardType().name());
+            ps.setBigDecimal(6, card.getCreditLimit());
+        });
+        log.info("Submitted card issuance batch {} with {} cards", batch.getId(), cards.size());
+
+        return toBatchDto(batch);
+    }
+
+    @Override
+    public CardIssuanceBatchDTO getIssuanceBatch(Long batchId) {
+        return cardIssuanceBatchRepository.findById(batchId)
+                .map(this::toBatchDto)
+                .orElseThrow(() -> new ResourceNotFoundException("Card issuance batch not found: " + batchId));
+    }
+
+    @Override
+    public Page<CardIssuanceItemDTO> getIssuanceItems(Long batchId, IssuanceItemStatus status, Pageable pageable) {
+        if (!cardIssuanceBatchRepository.existsById(batchId)) {
+            throw new ResourceNotFoundException("Card issuance batch not found: " + batchId);
+        }
+        Page<CardIssuanceItem> items = status == null
+                ? cardIssuanceItemRepository.findByBatchIdOrderByLineNumber(batchId, pageable)
+                : cardIssuanceItemRepository.findByBatchIdAndStatusOrderByLineNumber(batchId, status, pageable);
+        return items.map(this::toIssuanceItemDto);
+    }
+
+    @Override
     public CreditCardResponseDTO processPayment(Long cardId,
                                                 BigDecimal amount) {
-        CreditCard card = getActiveCreditCard(cardId);
+        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new CreditCardException("Amount must be positive");
+        }
+
+        CardAuthorizationDTO authorization = authorizationEngine.authorize(cardId, amount, null);
+        authorizationEngine.capture(authorization.getAuthCode(), null);
+        log.info("Processed payment of {} for card: {}", amount, cardId);
 
+        return getCardDetails(cardId);
+    }
+
+    @Override
+    public CardAuthorizationDTO authorize(Long cardId, BigDecimal amount, String merchant) {
+        CardAuthorizationDTO authorization = authorizationEngine.authorize(cardId, amount, merchant);
+        log.info("Authorized {} on card {}: {}", amount, cardId, authorization.getAuthCode());
+        return authorization;
+    }
+
+    @Override
+    public CardAuthorizationDTO captureAuthorization(String authCode, BigDecimal amount) {
+        CardAuthorizationDTO authorization = authorizationEngine.capture(authCode, amount);
+        log.info("Captured {} of authorization {}", authorization.getCapturedAmount(), authCode);
+        return authorization;
+    }
+
+    @Override
+    public CardAuthorizationDTO voidAuthorization(String authCode) {
+        CardAuthorizationDTO authorization = authorizationEngine.voidAuthorization(authCode);
+        log.info("Voided authorization {}", authCode);
+        return authorization;
+    }
+
+    @Override
+    @Transactional
+    public CreditCardResponseDTO repayCard(Long cardId, BigDecimal amount) {
         if (amount.compareTo(BigDecimal.ZERO) <= 0) {
             throw new CreditCardException("Amount must be positive");
         }
-        if (card.getAvailableBalance().compareTo(amount) < 0) {
-            throw new CreditCardException("Insufficient available credit");
+        CreditCard card = creditCardRepository.findById(cardId)
+                .orElseThrow(() -> new CreditCardException("Card not found"));
+
+        BigDecimal available = authorizationEngine.availableCredit(cardId).orElse(card.getAvailableBalance());
+        if (amount.compareTo(card.getCreditLimit().subtract(available)) > 0) {
+            throw new CreditCardException("Repayment exceeds the outstanding balance");
         }
 
-        card.setAvailableBalance(card.getAvailableBalance().subtract(amount));
-        CreditCard updated = creditCardRepository.save(card);
-        log.info("Processed payment of {} for card: {}", amount, cardId);
+        Account account = card.getLinkedAccount();
+        if (accountRepository.debitIfCovered(account.getId(), amount) == 0) {
+            throw new InsufficientBalanceException(account.getId(), amount);
+        }
+        outboxPublisher.publish(account.getId(), AccountBalanceChanged.of(account));
+
+        // الخصم وإعادة الرصيد للبطاقة وقيد الدفعة في الكشف: معاملة واحدة
+        String reference = referenceNumberGenerator.next("CP");
+        creditCardRepository.adjustAvailableBalance(cardId, amount);
+        cardSpendEventRepository.save(CardSpendEvent.builder()
+                .cardId(cardId)
+                .type(SpendEventType.PAYMENT)
+                .amount(amount)
+                .reference(reference)
+                .occurredAt(LocalDateTime.now())
+                .build());
+
+        // الرصيد المشترك في Redis يُرفع فقط بعد أن يثبت كل ذلك في الجدول
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                authorizationEngine.repaid(cardId, amount);
+            }
+        });
+        log.info("Repaid {} on card {} from account {}: {}", amount, cardId, account.getId(), reference);
 
-        evictCaches(updated);
-        return toDto(updated);
+        CreditCardResponseDTO dto = toDto(card);
+        dto.setAvailableBalance(available.add(amount));
+        return dto;
+    }
+
+    @Override
+    public CardStatementDTO getLatestStatement(Long cardId) {
+        return cardStatementRepository.findFirstByCardIdOrderByPeriodEndDesc(cardId)
+                .map(this::toStatementDto)
+                .orElseThrow(() -> new ResourceNotFoundException("No statement for card: " + cardId));
+    }
+
+    @Override
+    public Page<CardStatementDTO> getStatements(Long cardId, Pageable pageable) {
+        return cardStatementRepository.findByCardIdOrderByPeriodEndDesc(cardId, pageable).map(this::toStatementDto);
     }
 
     @Override
@@ -95,14 +250,23 @@ public class CreditCardServiceImpl implements CreditCardService {
             throw new CreditCardException("Credit limit must be positive");
         }
 
+        // تعديل نسبي للصف لا يتعارض مع ما يكتبه دفتر الحجوزات؛ الرصيد المشترك يتبعه بعد الـ commit
         BigDecimal diff = newLimit.subtract(card.getCreditLimit());
-        card.setCreditLimit(newLimit);
-        card.setAvailableBalance(card.getAvailableBalance().add(diff));
-        CreditCard updated = creditCardRepository.save(card);
+        BigDecimal available = authorizationEngine.availableCredit(cardId).orElse(card.getAvailableBalance());
+        creditCardRepository.updateCreditLimit(cardId, newLimit, diff);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                authorizationEngine.creditLimitChanged(cardId, diff);
+            }
+        });
         log.info("Updated credit limit to {} for card: {}", newLimit, cardId);
 
-        evictCaches(updated);
-        return toDto(updated);
+        evictCaches(card);
+        CreditCardResponseDTO dto = toDto(card);
+        dto.setCreditLimit(newLimit);
+        dto.setAvailableBalance(available.add(diff));
+        return dto;
     }
 
     @Override
@@ -113,6 +277,7 @@ public class CreditCardServiceImpl implements CreditCardService {
 
         card.setIsActive(false);
         creditCardRepository.save(card);
+        authorizationEngine.deactivate(cardId);
         log.info("Deactivated credit card: {}", cardId);
 
         evictCaches(card);
@@ -122,14 +287,14 @@ public class CreditCardServiceImpl implements CreditCardService {
     public CreditCardResponseDTO getCardDetails(Long cardId) {
         String key = "credit-card:details:" + cardId;
         CreditCardResponseDTO cached = cacheService.getCachedData(key, CreditCardResponseDTO.class);
-        if (cached != null) return cached;
+        if (cached != null) return withLiveCredit(cached);
 
         CreditCard card = creditCardRepository.findById(cardId)
                 .orElseThrow(() -> new CreditCardException("Card not found"));
         CreditCardResponseDTO dto = toDto(card);
         cacheService.cacheData(key, dto, CreditCardResponseDTO.class);
         cacheService.setExpiration(key, 1, TimeUnit.HOURS);
-        return dto;
+        return withLiveCredit(dto);
     }
 
     @Override
@@ -137,6 +302,7 @@ public class CreditCardServiceImpl implements CreditCardService {
         return creditCardRepository.findByLinkedAccount_Id(accountId)
                 .stream()
                 .map(this::toDto)
+                .map(this::withLiveCredit)
                 .collect(Collectors.toList());
     }
 
@@ -145,7 +311,7 @@ public class CreditCardServiceImpl implements CreditCardService {
         String key = "account:active-cards:" + accountId;
         @SuppressWarnings("unchecked")
         List<CreditCardResponseDTO> cached = cacheService.getCachedData(key, List.class);
-        if (cached != null) return cached;
+        if (cached != null) return cached.stream().map(this::withLiveCredit).collect(Collectors.toList());
 
         List<CreditCardResponseDTO> dtos = creditCardRepository
                 .findByLinkedAccount_IdAndIsActiveTrue(accountId)
@@ -155,7 +321,7 @@ public class CreditCardServiceImpl implements CreditCardService {
 
         cacheService.cacheData(key, dtos, List.class);
         cacheService.setExpiration(key, 2, TimeUnit.HOURS);
-        return dtos;
+        return dtos.stream().map(this::withLiveCredit).collect(Collectors.toList());
     }
 
     @Override
@@ -183,6 +349,12 @@ public class CreditCardServiceImpl implements CreditCardService {
         return card;
     }
 
+    // الرصيد المتاح في الكاش لا يتبع الحجوزات؛ القيمة الحية في محرك التفويض
+    private CreditCardResponseDTO withLiveCredit(CreditCardResponseDTO dto) {
+        authorizationEngine.availableCredit(dto.getId()).ifPresent(dto::setAvailableBalance);
+        return dto;
+    }
+
     private void evictCaches(CreditCard card) {
         cacheService.evictAccountCache("credit-card:details:" + card.getId());
         cacheService.evictAccountCache("account:active-cards:" + card.getLinkedAccount().getId());
@@ -202,20 +374,49 @@ public class CreditCardServiceImpl implements CreditCardService {
                 .build();
     }
 
-    private String generateSecureCardNumber() {
-        Random random = new Random();
-        StringBuilder cardNumber = new StringBuilder();
-        for (int i = 0; i < 16; i++) {
-            cardNumber.append(random.nextInt(10));
-        }
-        return cardNumber.substring(0, 4) + "-" +
-                cardNumber.substring(4, 8) + "-" +
-                cardNumber.substring(8, 12) + "-" +
-                cardNumber.substring(12, 16);
+    private CardIssuanceBatchDTO toBatchDto(CardIssuanceBatch b) {
+        return CardIssuanceBatchDTO.builder()
+                .id(b.getId())
+                .status(b.getStatus())
+                .totalCards(b.getTotalCards())
+                .issuedCount(b.getIssuedCount())
+                .failedCount(b.getFailedCount())
+                .createdAt(b.getCreatedAt())
+                .completedAt(b.getCompletedAt())
+                .failureReason(b.getFailureReason())
+                .build();
     }
 
+    private CardIssuanceItemDTO toIssuanceItemDto(CardIssuanceItem i) {
+        return CardIssuanceItemDTO.builder()
+                .lineNumber(i.getLineNumber())
+                .accountId(i.getAccountId())
+                .cardType(i.getCardType())
+                .status(i.getStatus())
+                .maskedCardNumber(maskCardNumber(i.getCardNumber()))
+                .failureReason(i.getFailureReason())
+                .build();
+    }
 
-    private int generateRandomCVV() {
-        return 100 + (int)(Math.random() * 900);
+    private static String maskCardNumber(String cardNumber) {
+        if (cardNumber == null || cardNumber.length() <= 4) {
+            return cardNumber;
+        }
+        return "*".repeat(cardNumber.length() - 4) + cardNumber.substring(cardNumber.length() - 4);
+    }
+
+    private CardStatementDTO toStatementDto(CardStatement s) {
+        return CardStatementDTO.builder()
+                .cardId(s.getCardId())
+                .periodStart(s.getPeriodStart())
+                .periodEnd(s.getPeriodEnd())
+                .openingBalance(s.getOpeningBalance())
+                .purchases(s.getPurchases())
+                .payments(s.getPayments())
+                .interest(s.getInterest())
+                .closingBalance(s.getClosingBalance())
+                .minimumDue(s.getMinimumDue())
+                .dueDate(s.getDueDate())
+                .build();
     }
 }
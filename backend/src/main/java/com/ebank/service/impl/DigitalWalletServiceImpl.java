@@ -7,14 +7,15 @@ import com.ebank.model.user.User;
 import com.ebank.repository.DigitalWalletRepository;
 import com.ebank.repository.UserRepository;
 import com.ebank.service.DigitalWalletService;
+import com.ebank.service.otp.OneTimeCodeStore;
+import com.ebank.service.otp.VerificationCodeSender;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Random;
 import java.util.UUID;
 
 @Slf4j
@@ -24,6 +25,11 @@ public class DigitalWalletServiceImpl implements DigitalWalletService {
 
     private final DigitalWalletRepository digitalWalletRepository;
     private final UserRepository userRepository;
+    private final OneTimeCodeStore oneTimeCodeStore;
+    // بدون مرسل مُعد يفشل طلب التحقق وحده، لا تشغيل التطبيق
+    private final ObjectProvider<VerificationCodeSender> verificationCodeSender;
+
+    private static final String VERIFICATION_PURPOSE = "wallet-verification";
 
     @Override
     @Transactional
@@ -37,48 +43,47 @@ public class DigitalWalletServiceImpl implements DigitalWalletService {
             throw new DigitalWalletException("User already has a wallet of this type");
         }
 
-        String verificationCode = generateVerificationCode();
-        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(10);
-
         DigitalWallet wallet = DigitalWallet.builder()
                 .owner(user)
                 .walletAddress(generateSecureWalletAddress())
                 .walletType(walletType)
                 .linkedPhoneNumber(phoneNumber)
                 .isVerified(false)
-                .verificationCode(verificationCode)
-                .verificationCodeExpiresAt(expiresAt)
                 .build();
 
         DigitalWallet savedWallet = digitalWalletRepository.save(wallet);
-        log.info("Created new {} wallet for user: {}, verification code: {}", walletType, userId, verificationCode);
-
-        // يمكنك هنا إرسال كود التحقق عبر SMS أو بريد إلكتروني
+        // الكود لا يُكتب في السجل؛ يُخزَّن في Redis كـ HMAC فقط
+        issueVerificationCode(savedWallet);
+        log.info("Created new {} wallet for user: {}", walletType, userId);
 
         return savedWallet;
     }
 
     @Override
-    @Transactional
-    public DigitalWallet verifyWallet(Long walletId, String inputCode) {
+    public void resendVerificationCode(Long walletId) {
         DigitalWallet wallet = getWalletById(walletId);
-
-        if (wallet.getVerificationCode() == null || wallet.getVerificationCodeExpiresAt() == null) {
-            throw new DigitalWalletException("Verification code not found");
+        if (Boolean.TRUE.equals(wallet.getIsVerified())) {
+            throw new DigitalWalletException("Wallet is already verified");
         }
+        issueVerificationCode(wallet);
+        log.info("Issued new verification code for wallet: {}", walletId);
+    }
 
-        if (wallet.getVerificationCodeExpiresAt().isBefore(LocalDateTime.now())) {
-            throw new DigitalWalletException("Verification code expired");
+    @Override
+    public DigitalWallet verifyWallet(Long walletId, String inputCode) {
+        DigitalWallet wallet = getWalletById(walletId);
+        if (Boolean.TRUE.equals(wallet.getIsVerified())) {
+            throw new DigitalWalletException("Wallet is already verified");
         }
 
-        if (!wallet.getVerificationCode().equals(inputCode)) {
-            throw new DigitalWalletException("Invalid verification code");
+        // المحاولات الفاشلة لا تلمس قاعدة البيانات؛ الصف يُكتب مرة واحدة عند النجاح
+        switch (oneTimeCodeStore.verify(VERIFICATION_PURPOSE, walletId.toString(), inputCode)) {
+            case EXPIRED -> throw new DigitalWalletException("Verification code not found or expired");
+            case LOCKED -> throw new DigitalWalletException("Too many attempts, try again later");
+            case INVALID -> throw new DigitalWalletException("Invalid verification code");
+            case VERIFIED -> wallet.setIsVerified(true);
         }
 
-        wallet.setIsVerified(true);
-        wallet.setVerificationCode(null);
-        wallet.setVerificationCodeExpiresAt(null);
-
         DigitalWallet verifiedWallet = digitalWalletRepository.save(wallet);
         log.info("Verified wallet: {}", walletId);
         return verifiedWallet;
@@ -131,9 +136,15 @@ public class DigitalWalletServiceImpl implements DigitalWalletService {
         return "WLT-" + UUID.randomUUID().toString().replace("-", "").substring(0, 15).toUpperCase();
     }
 
-    private String generateVerificationCode() {
-        Random random = new Random();
-        int code = 100000 + random.nextInt(900000); // Generates a 6-digit number
-        return String.valueOf(code);
+    private void issueVerificationCode(DigitalWallet wallet) {
+        VerificationCodeSender sender = verificationCodeSender.getIfAvailable();
+        if (sender == null) {
+            log.error("No verification code sender is configured (app.otp.sender)");
+            throw new DigitalWalletException("Wallet verification is not available right now");
+        }
+        String code = oneTimeCodeStore.issue(VERIFICATION_PURPOSE, wallet.getId().toString())
+                .orElseThrow(() -> new DigitalWalletException("A verification code was sent recently, try again later"));
+
+        sender.send(VERIFICATION_PURPOSE, wallet.getOwner().getId(), wallet.getLinkedPhoneNumber(), code);
     }
 }
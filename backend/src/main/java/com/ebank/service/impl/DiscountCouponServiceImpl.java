@@ -5,9 +5,13 @@ import com.ebank.model.discountCoupon.DiscountCoupon;
 import com.ebank.model.discountCoupon.DiscountType;
 import com.ebank.repository.DiscountCouponRepository;
 import com.ebank.service.DiscountCouponService;
+import com.ebank.service.coupon.CouponCatalog;
+import com.ebank.service.coupon.CouponChangedEvent;
+import com.ebank.service.coupon.CouponRedemptionEngine;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -20,6 +24,9 @@ import java.util.List;
 public class DiscountCouponServiceImpl implements DiscountCouponService {
 
     private final DiscountCouponRepository discountCouponRepository;
+    private final CouponRedemptionEngine couponRedemptionEngine;
+    private final CouponCatalog couponCatalog;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -44,23 +51,28 @@ public class DiscountCouponServiceImpl implements DiscountCouponService {
                 .build();
 
         DiscountCoupon savedCoupon = discountCouponRepository.save(coupon);
+        eventPublisher.publishEvent(new CouponChangedEvent(couponCode));
         log.info("Created new discount coupon: {}", couponCode);
         return savedCoupon;
     }
 
+    /**
+     * The quota is taken in Redis, not on the coupon row, so concurrent
+     * redemptions of the same code neither oversell nor queue on a row lock.
+     * The returned coupon is detached; used_count is persisted by the
+     * redemption engine's reconciliation job.
+     */
     @Override
-    @Transactional
-    public DiscountCoupon applyCoupon(String couponCode) {
+    public DiscountCoupon applyCoupon(String couponCode, Long userId) {
         DiscountCoupon coupon = getValidCoupon(couponCode);
 
-        if (coupon.getUsedCount() >= coupon.getUsageLimit()) {
-            throw new DiscountCouponException("Coupon usage limit exceeded");
-        }
+        long remaining = couponRedemptionEngine.redeem(coupon, userId);
 
-        coupon.setUsedCount(coupon.getUsedCount() + 1);
-        DiscountCoupon updatedCoupon = discountCouponRepository.save(coupon);
-        log.info("Applied coupon: {}, new usage count: {}", couponCode, updatedCoupon.getUsedCount());
-        return updatedCoupon;
+        DiscountCoupon redeemed = coupon.toBuilder()
+                .usedCount(coupon.getUsageLimit() - (int) remaining)
+                .build();
+        log.info("Applied coupon: {} for user {}, remaining quota: {}", couponCode, userId, remaining);
+        return redeemed;
     }
 
     @Override
@@ -75,6 +87,7 @@ public class DiscountCouponServiceImpl implements DiscountCouponService {
 
         coupon.setActive(false);
         discountCouponRepository.save(coupon);
+        eventPublisher.publishEvent(new CouponChangedEvent(couponCode));
         log.info("Deactivated coupon: {}", couponCode);
     }
 
@@ -87,6 +100,9 @@ public class DiscountCouponServiceImpl implements DiscountCouponService {
 
     @Override
     public List<DiscountCoupon> getActiveCoupons() {
+        if (couponCatalog.isLoaded()) {
+            return couponCatalog.getActiveCoupons();
+        }
         return discountCouponRepository.findByExpiryDateAfter(LocalDate.now());
     }
 
@@ -97,6 +113,9 @@ public class DiscountCouponServiceImpl implements DiscountCouponService {
 
     @Override
     public boolean isCouponValid(String couponCode) {
+        if (couponCatalog.isLoaded()) {
+            return couponCatalog.findValid(couponCode).isPresent();
+        }
         try {
             getValidCoupon(couponCode);
             return true;
@@ -108,12 +127,23 @@ public class DiscountCouponServiceImpl implements DiscountCouponService {
     @Override
     public DiscountCoupon updateCoupon(DiscountCoupon coupon) {
         DiscountCoupon existingCoupon = getCouponByCode(coupon.getCouponCode());
+        int limitDelta = coupon.getUsageLimit() - existingCoupon.getUsageLimit();
         existingCoupon.setUsageLimit(coupon.getUsageLimit());
         existingCoupon.setDescription(coupon.getDescription());
-        return discountCouponRepository.save(existingCoupon);
+        DiscountCoupon savedCoupon = discountCouponRepository.save(existingCoupon);
+        couponRedemptionEngine.adjustQuota(savedCoupon.getCouponCode(), limitDelta);
+        eventPublisher.publishEvent(new CouponChangedEvent(savedCoupon.getCouponCode()));
+        return savedCoupon;
     }
 
     private DiscountCoupon getValidCoupon(String couponCode) {
+        if (couponCatalog.isLoaded()) {
+            return couponCatalog.findValid(couponCode)
+                    .orElseThrow(() -> discountCouponRepository.existsById(couponCode)
+                            ? new DiscountCouponException("Coupon has expired")
+                            : new DiscountCouponException("Coupon not found"));
+        }
+
         DiscountCoupon coupon = getCouponByCode(couponCode);
 
         if (coupon.getExpiryDate().isBefore(LocalDate.now())) {
@@ -1,20 +1,33 @@
 package com.ebank.service.impl;
 
+import com.ebank.dto.NotificationDTO;
+import com.ebank.dto.NotificationInboxDTO;
 import com.ebank.exception.NotificationException;
 import com.ebank.model.notification.Notification;
+import com.ebank.model.notification.NotificationBroadcast;
 import com.ebank.model.notification.NotificationType;
+import com.ebank.model.user.Role;
 import com.ebank.model.user.User;
+import com.ebank.repository.NotificationBroadcastRepository;
 import com.ebank.repository.NotificationRepository;
 import com.ebank.repository.UserRepository;
 import com.ebank.service.CacheService;
 import com.ebank.service.NotificationService;
+import com.ebank.service.notification.InboxCacheGeneration;
+import com.ebank.service.notification.InboxCursor;
+import com.ebank.service.notification.NotificationPushMessage;
+import com.ebank.service.notification.UnreadCountChange;
+import com.ebank.service.notification.UnreadCounterStore;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
@@ -25,12 +38,31 @@ public class NotificationServiceImpl implements NotificationService {
 
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository;
+    private final NotificationBroadcastRepository broadcastRepository;
     private final CacheService cacheService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UnreadCounterStore unreadCounterStore;
+    private final InboxCacheGeneration inboxCacheGeneration;
+
+    private static final int MAX_INBOX_PAGE_SIZE = 100;
 
     @Override
     @Transactional
     public Notification sendNotification(Long userId, String title,
                                          String message, NotificationType type) {
+        return sendNotification(userId, title, message, type, null);
+    }
+
+    @Override
+    @Transactional
+    public Notification sendNotification(Long userId, String title,
+                                         String message, NotificationType type, String dedupeKey) {
+        // الفهرس الفريد يمنع التكرار إذا سُلِّم الحدث لنسختين معاً؛ هذا الفحص يتجنب الاستثناء في الحالة المعتادة
+        if (dedupeKey != null && notificationRepository.existsByDedupeKey(dedupeKey)) {
+            log.debug("Notification {} already sent, skipping", dedupeKey);
+            return null;
+        }
+
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new NotificationException("User not found"));
 
@@ -42,9 +74,20 @@ public class NotificationServiceImpl implements NotificationService {
                 .message(message)
                 .type(type)
                 .isRead(false)
+                .dedupeKey(dedupeKey)
                 .build();
 
         Notification savedNotification = notificationRepository.save(notification);
+        eventPublisher.publishEvent(NotificationPushMessage.of(NotificationDTO.builder()
+                .id(savedNotification.getId())
+                .recipientId(userId)
+                .title(savedNotification.getTitle())
+                .message(savedNotification.getMessage())
+                .type(savedNotification.getType())
+                .isRead(false)
+                .createdAt(savedNotification.getCreatedAt())
+                .build()));
+        eventPublisher.publishEvent(UnreadCountChange.by(userId, 1));
         log.info("Sent {} notification to user {}: {}", type, userId, title);
         return savedNotification;
     }
@@ -53,8 +96,12 @@ public class NotificationServiceImpl implements NotificationService {
     @Transactional
     public Notification markAsRead(Long notificationId) {
         Notification notification = getNotificationById(notificationId);
+        boolean wasUnread = !Boolean.TRUE.equals(notification.getIsRead());
         notification.setIsRead(true);
         Notification updatedNotification = notificationRepository.save(notification);
+        if (wasUnread) {
+            eventPublisher.publishEvent(UnreadCountChange.by(notification.getRecipient().getId(), -1));
+        }
         log.info("Marked notification {} as read", notificationId);
         return updatedNotification;
     }
@@ -64,6 +111,8 @@ public class NotificationServiceImpl implements NotificationService {
     public void deleteNotification(Long notificationId) {
         Notification notification = getNotificationById(notificationId);
         notificationRepository.delete(notification);
+        int unreadDelta = Boolean.TRUE.equals(notification.getIsRead()) ? 0 : -1;
+        eventPublisher.publishEvent(UnreadCountChange.by(notification.getRecipient().getId(), unreadDelta));
         log.info("Deleted notification: {}", notificationId);
     }
 
@@ -75,23 +124,53 @@ public class NotificationServiceImpl implements NotificationService {
 
     @Override
     public Page<Notification> getUserNotifications(Long userId, Pageable pageable) {
-        String cacheKey = "notifications:all:" + userId + ":" + pageable.getPageNumber();
-        Page<Notification> cached = cacheService.getCachedData(cacheKey, Page.class);
+        return notificationRepository.findByRecipient_IdOrderByCreatedAtDesc(userId, pageable);
+    }
 
-        if (cached != null) return cached;
+    /**
+     * Keyset-paged inbox of compact notifications. Cached pages are keyed by
+     * the user's inbox generation, so any change to the user's notifications
+     * invalidates all of them in one increment.
+     */
+    @Override
+    public NotificationInboxDTO getInbox(Long userId, String cursor, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_INBOX_PAGE_SIZE);
+        long generation = inboxCacheGeneration.current(userId);
+        String cacheKey = "notifications:inbox:" + userId + ":g" + generation + ":"
+                + (cursor != null ? cursor : "first") + ":" + pageSize;
+
+        if (generation >= 0) {
+            NotificationInboxDTO cached = cacheService.getCachedData(cacheKey, NotificationInboxDTO.class);
+            if (cached != null) return cached;
+        }
 
-        Page<Notification> notifications = notificationRepository
-                .findByRecipient_IdOrderByCreatedAtDesc(userId, pageable);
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<NotificationDTO> rows;
+        if (cursor == null) {
+            rows = notificationRepository.findInboxFirstPage(userId, limit);
+        } else {
+            InboxCursor position = InboxCursor.decode(cursor);
+            rows = notificationRepository.findInboxPageAfter(userId, position.createdAt(), position.id(), limit);
+        }
 
-        cacheService.cacheData(cacheKey, notifications, Page.class);
-        cacheService.setExpiration(cacheKey, 30, TimeUnit.MINUTES);
+        boolean hasMore = rows.size() > pageSize;
+        List<NotificationDTO> page = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+        NotificationInboxDTO inbox = NotificationInboxDTO.builder()
+                .notifications(page)
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? InboxCursor.after(page.get(page.size() - 1)).encode() : null)
+                .build();
 
-        return notifications;
+        if (generation >= 0) {
+            cacheService.cacheData(cacheKey, inbox, NotificationInboxDTO.class);
+            cacheService.setExpiration(cacheKey, 10, TimeUnit.MINUTES);
+        }
+        return inbox;
     }
 
     @Override
     public List<Notification> getUnreadNotifications(Long userId) {
-        String cacheKey = "notifications:unread:" + userId;
+        String cacheKey = UnreadCounterStore.unreadListKey(userId);
         List<Notification> cached = cacheService.getCachedData(cacheKey, List.class);
 
         if (cached != null) return cached;
@@ -113,22 +192,66 @@ public class NotificationServiceImpl implements NotificationService {
     @Override
     @Transactional
     public void markAllAsRead(Long userId) {
-        List<Notification> unreadNotifications = getUnreadNotifications(userId);
-        unreadNotifications.forEach(notification -> notification.setIsRead(true));
-        notificationRepository.saveAll(unreadNotifications);
-        log.info("Marked all notifications as read for user: {}", userId);
+        int updated = notificationRepository.markAllAsRead(userId);
+        eventPublisher.publishEvent(UnreadCountChange.reset(userId));
+        log.info("Marked {} notifications as read for user: {}", updated, userId);
     }
 
     @Override
     public int getUnreadCount(Long userId) {
-        return notificationRepository.countByRecipient_IdAndIsReadFalse(userId);
+        return unreadCounterStore.get(userId);
     }
 
     @Override
     public Notification updateNotification(Notification notification) {
         Notification existing = getNotificationById(notification.getId());
         existing.setMessage(notification.getMessage());
-        return notificationRepository.save(existing);
+        Notification updatedNotification = notificationRepository.save(existing);
+        eventPublisher.publishEvent(UnreadCountChange.by(existing.getRecipient().getId(), 0));
+        return updatedNotification;
+    }
+
+    /**
+     * Records the broadcast only; delivery is done in chunks by
+     * {@link com.ebank.service.notification.NotificationBroadcastWorker}.
+     */
+    @Override
+    @Transactional
+    public NotificationBroadcast startBroadcast(String title, String message,
+                                                NotificationType type, Role segment) {
+        validateNotificationContent(title, message);
+
+        NotificationBroadcast broadcast = NotificationBroadcast.builder()
+                .title(title)
+                .message(message)
+                .type(type)
+                .segment(segment)
+                .totalRecipients(userRepository.countRecipients(segment))
+                .build();
+
+        NotificationBroadcast savedBroadcast = broadcastRepository.save(broadcast);
+        log.info("Queued {} broadcast {} for {} recipients", type, savedBroadcast.getId(),
+                savedBroadcast.getTotalRecipients());
+        return savedBroadcast;
+    }
+
+    @Override
+    public NotificationBroadcast getBroadcast(Long broadcastId) {
+        return broadcastRepository.findById(broadcastId)
+                .orElseThrow(() -> new NotificationException("Broadcast not found"));
+    }
+
+    @Override
+    @Transactional
+    public NotificationBroadcast cancelBroadcast(Long broadcastId) {
+        // تحديث شرطي بدلاً من حفظ الكيان كاملاً: حفظه كان يمحو المؤشر والعدادات التي كتبها العامل
+        if (broadcastRepository.cancel(broadcastId) == 0) {
+            getBroadcast(broadcastId);
+            throw new NotificationException("Broadcast already finished");
+        }
+
+        log.info("Cancelled broadcast {}", broadcastId);
+        return getBroadcast(broadcastId);
     }
 
     private void validateNotificationContent(String title, String message) {
@@ -65,7 +65,7 @@ public class SecurityLogServiceImpl implements SecurityLogService {
     @Override
     public boolean hasSuspiciousActivity(Long userId) {
         LocalDateTime cutoff = LocalDateTime.now().minusHours(24);
-        int failedAttempts = securityLogRepository.countByUser_IdAndStatusAndTimestampAfter(
+        int failedAttempts = securityLogRepository.countByUser_IdAndStatusAndCreatedAtAfter(
                 userId, LogStatus.FAILED, cutoff);
         return failedAttempts >= 5;
     }
@@ -0,0 +1,189 @@
+package com.ebank.service.impl;
+
+import com.ebank.dto.StandingOrderDTO;
+import com.ebank.dto.StandingOrderExecutionDTO;
+import com.ebank.dto.StandingOrderRequest;
+import com.ebank.exception.AccountNotActiveException;
+import com.ebank.exception.AccountNotFoundException;
+import com.ebank.exception.ResourceNotFoundException;
+import com.ebank.exception.StandingOrderException;
+import com.ebank.model.account.Account;
+import com.ebank.model.account.AccountStatus;
+import com.ebank.model.standingOrder.StandingOrder;
+import com.ebank.model.standingOrder.StandingOrderStatus;
+import com.ebank.model.standingOrder.StandingOrderType;
+import com.ebank.repository.AccountRepository;
+import com.ebank.repository.StandingOrderExecutionRepository;
+import com.ebank.repository.StandingOrderRepository;
+import com.ebank.service.StandingOrderService;
+import com.ebank.service.standingOrder.StandingOrderSchedule;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StandingOrderServiceImpl implements StandingOrderService {
+
+    private final StandingOrderRepository standingOrderRepository;
+    private final StandingOrderExecutionRepository executionRepository;
+    private final AccountRepository accountRepository;
+    private final StandingOrderSchedule schedule;
+
+    @Override
+    @Transactional
+    public StandingOrderDTO createStandingOrder(Long ownerId, StandingOrderRequest request) {
+        Account source = accountRepository.findById(request.getSourceAccountId())
+                .orElseThrow(() -> new AccountNotFoundException(request.getSourceAccountId()));
+
+        if (!source.getUser().getId().equals(ownerId)) {
+            throw new StandingOrderException("Source account does not belong to the current user");
+        }
+        if (source.getStatus() != AccountStatus.ACTIVE) {
+            throw new AccountNotActiveException(source.getId());
+        }
+        validateRequest(source, request);
+
+        StandingOrder order = standingOrderRepository.save(StandingOrder.builder()
+                .owner(source.getUser())
+                .sourceAccount(source)
+                .type(request.getType())
+                .targetAccountNumber(request.getTargetAccountNumber())
+                .billerCode(request.getBillerCode())
+                .customerReference(request.getCustomerReference())
+                .amount(request.getAmount())
+                .frequency(request.getFrequency())
+                .startDate(request.getStartDate())
+                .endDate(request.getEndDate())
+                .status(StandingOrderStatus.ACTIVE)
+                .description(request.getDescription())
+                .build());
+
+        // الإزاحة داخل نافذة التنفيذ تعتمد على المعرّف، فتُحسب بعد الحفظ
+        schedule.scheduleFrom(order, 0, null);
+        log.info("Created {} standing order {} for user {}", order.getFrequency(), order.getId(), ownerId);
+        return toDto(order);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<StandingOrderDTO> getUserStandingOrders(Long ownerId, Pageable pageable) {
+        return standingOrderRepository.findByOwner_IdOrderByCreatedAtDesc(ownerId, pageable).map(this::toDto);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public StandingOrderDTO getStandingOrder(Long ownerId, Long orderId) {
+        return toDto(getOwnedOrder(ownerId, orderId));
+    }
+
+    @Override
+    @Transactional
+    public StandingOrderDTO pauseStandingOrder(Long ownerId, Long orderId) {
+        StandingOrder order = getOwnedOrder(ownerId, orderId);
+        if (order.getStatus() != StandingOrderStatus.ACTIVE) {
+            throw new StandingOrderException("Only active standing orders can be paused");
+        }
+        order.setStatus(StandingOrderStatus.PAUSED);
+        return toDto(order);
+    }
+
+    @Override
+    @Transactional
+    public StandingOrderDTO resumeStandingOrder(Long ownerId, Long orderId) {
+        StandingOrder order = getOwnedOrder(ownerId, orderId);
+        if (order.getStatus() != StandingOrderStatus.PAUSED) {
+            throw new StandingOrderException("Only paused standing orders can be resumed");
+        }
+        order.setStatus(StandingOrderStatus.ACTIVE);
+        order.setLeaseOwner(null);
+        order.setLeaseUntil(null);
+        // الاستحقاقات التي فاتت أثناء الإيقاف لا تُنفذ بأثر رجعي
+        schedule.scheduleFrom(order, order.getOccurrence(), LocalDate.now());
+        return toDto(order);
+    }
+
+    @Override
+    @Transactional
+    public StandingOrderDTO cancelStandingOrder(Long ownerId, Long orderId) {
+        StandingOrder order = getOwnedOrder(ownerId, orderId);
+        if (order.getStatus() == StandingOrderStatus.CANCELLED || order.getStatus() == StandingOrderStatus.COMPLETED) {
+            throw new StandingOrderException("Standing order is already " + order.getStatus().name().toLowerCase());
+        }
+        order.setStatus(StandingOrderStatus.CANCELLED);
+        order.setNextDueDate(null);
+        order.setNextDueAt(null);
+        log.info("Cancelled standing order {}", orderId);
+        return toDto(order);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<StandingOrderExecutionDTO> getExecutions(Long ownerId, Long orderId, Pageable pageable) {
+        getOwnedOrder(ownerId, orderId);
+        return executionRepository.findByStandingOrderIdOrderByDueDateDesc(orderId, pageable)
+                .map(execution -> StandingOrderExecutionDTO.builder()
+                        .id(execution.getId())
+                        .dueDate(execution.getDueDate())
+                        .status(execution.getStatus())
+                        .reference(execution.getReference())
+                        .failureReason(execution.getFailureReason())
+                        .executedAt(execution.getExecutedAt())
+                        .build());
+    }
+
+    private void validateRequest(Account source, StandingOrderRequest request) {
+        if (request.getStartDate().isBefore(LocalDate.now())) {
+            throw new StandingOrderException("Start date cannot be in the past");
+        }
+        if (request.getEndDate() != null && request.getEndDate().isBefore(request.getStartDate())) {
+            throw new StandingOrderException("End date must not be before start date");
+        }
+
+        if (request.getType() == StandingOrderType.TRANSFER) {
+            String target = request.getTargetAccountNumber();
+            if (target == null || target.isBlank()) {
+                throw new StandingOrderException("Target account number is required for transfers");
+            }
+            if (target.equals(source.getAccountNumber())) {
+                throw new StandingOrderException("Cannot transfer to same account");
+            }
+            if (!accountRepository.existsByAccountNumber(target)) {
+                throw new AccountNotFoundException(target);
+            }
+        } else if (request.getBillerCode() == null || request.getBillerCode().isBlank()
+                || request.getCustomerReference() == null || request.getCustomerReference().isBlank()) {
+            throw new StandingOrderException("Biller code and customer reference are required for bill payments");
+        }
+    }
+
+    private StandingOrder getOwnedOrder(Long ownerId, Long orderId) {
+        return standingOrderRepository.findByIdAndOwner_Id(orderId, ownerId)
+                .orElseThrow(() -> new ResourceNotFoundException("Standing order not found: " + orderId));
+    }
+
+    private StandingOrderDTO toDto(StandingOrder order) {
+        return StandingOrderDTO.builder()
+                .id(order.getId())
+                .sourceAccountNumber(order.getSourceAccount().getAccountNumber())
+                .type(order.getType())
+                .targetAccountNumber(order.getTargetAccountNumber())
+                .billerCode(order.getBillerCode())
+                .customerReference(order.getCustomerReference())
+                .amount(order.getAmount())
+                .frequency(order.getFrequency())
+                .startDate(order.getStartDate())
+                .endDate(order.getEndDate())
+                .nextDueAt(order.getNextDueAt())
+                .status(order.getStatus())
+                .description(order.getDescription())
+                .createdAt(order.getCreatedAt())
+                .build();
+    }
+}
@@ -12,19 +12,31 @@ import com.ebank.repository.AccountRepository;
 import com.ebank.repository.TransactionRepository;
 import com.ebank.service.CacheService;
 import com.ebank.service.TransactionService;
-import jakarta.transaction.Transactional;
+import com.ebank.service.fx.FxConversion;
+import com.ebank.service.fx.FxRateEngine;
+import com.ebank.service.fx.FxRateTable;
+import com.ebank.service.outbox.AccountBalanceChanged;
+import com.ebank.service.outbox.OutboxPublisher;
+import com.ebank.service.outbox.TransferCompleted;
+import com.ebank.service.reference.ReferenceNumberGenerator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.UUID;
+import java.util.Locale;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Slf4j
 @Service
@@ -34,6 +46,12 @@ public class TransactionServiceImpl implements TransactionService {
     private final TransactionRepository transactionRepository;
     private final AccountRepository accountRepository;
     private final CacheService cacheService;
+    private final ReferenceNumberGenerator referenceNumberGenerator;
+    private final FxRateEngine fxRateEngine;
+    private final OutboxPublisher outboxPublisher;
+
+    private static final int MAX_REFERENCE_PAGE_SIZE = 50;
+    private static final Pattern GENERATED_REFERENCE = Pattern.compile("(?:REV-)?TXN-([0-9A-Z]{14})");
 
     // Generic caching helper
     private <T> T cached(String key, Class<T> clazz, Supplier<T> loader, long ttlMinutes) {
@@ -63,9 +81,12 @@ public class TransactionServiceImpl implements TransactionService {
             throw new InvalidTransactionException("Cannot transfer to same account");
         }
 
+        // المبلغ بعملة المصدر؛ الوجهة تُضاف بعملتها حسب جدول الأسعار الحالي
+        FxConversion fx = fxRateEngine.convert(req.getAmount(), src.getCurrency(), tgt.getCurrency());
+
         // adjust balances
         src.setBalance(src.getBalance().subtract(req.getAmount()));
-        tgt.setBalance(tgt.getBalance().add(req.getAmount()));
+        tgt.setBalance(tgt.getBalance().add(fx.targetAmount()));
         accountRepository.save(src);
         accountRepository.save(tgt);
 
@@ -74,19 +95,29 @@ public class TransactionServiceImpl implements TransactionService {
                 .amount(req.getAmount())
                 .type(req.getType())
                 .status(TransactionStatus.COMPLETED)
-                .reference("TXN-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase())
+                .reference(referenceNumberGenerator.next("TXN"))
                 .timestamp(LocalDateTime.now())
                 .sourceAccount(src)
                 .targetAccount(tgt)
                 .description(req.getDescription())
+                .targetAmount(fx.targetAmount())
+                .sourceCurrency(src.getCurrency())
+                .targetCurrency(tgt.getCurrency())
+                .fxRate(fx.rate())
+                .fxRateVersion(fx.rateVersion())
                 .build();
 
         Transaction saved = transactionRepository.save(tx);
-        log.info("Transfer {} → {} amount {}", src.getAccountNumber(), tgt.getAccountNumber(), req.getAmount());
+        outboxPublisher.publish(src.getId(), AccountBalanceChanged.of(src));
+        outboxPublisher.publish(tgt.getId(), AccountBalanceChanged.of(tgt));
+        outboxPublisher.publish(saved.getId(), TransferCompleted.of(saved));
+        log.info("Transfer {} → {} amount {} ({} {})", src.getAccountNumber(), tgt.getAccountNumber(),
+                req.getAmount(), fx.targetAmount(), fx.targetCurrency());
         return toDto(saved);
     }
 
     @Override
+    @Transactional
     public TransactionDTO getTransactionById(Long id) {
         return cached(
                 "txn:" + id, TransactionDTO.class,
@@ -98,6 +129,7 @@ public class TransactionServiceImpl implements TransactionService {
     }
 
     @Override
+    @Transactional
     public Page<TransactionDTO> getAccountTransactions(String acctNum, Pageable pg) {
         return cached(
                 "acc_txns:" + acctNum + ":" + pg.getPageNumber(), Page.class,
@@ -109,6 +141,7 @@ public class TransactionServiceImpl implements TransactionService {
     }
 
     @Override
+    @Transactional
     public List<TransactionDTO> getRecentTransactions(String acctNum, int count) {
         // تضمين count في مفتاح الكاش
         String cacheKey = "recent_txns:" + acctNum + ":" + count;
@@ -136,10 +169,15 @@ public class TransactionServiceImpl implements TransactionService {
                 || orig.getTimestamp().isBefore(LocalDateTime.now().minusDays(30))) {
             throw new InvalidTransactionException("Cannot reverse transaction");
         }
+        if (transactionRepository.existsByReference("REV-" + orig.getReference())) {
+            throw new InvalidTransactionException("Transaction already reversed");
+        }
         Account src = orig.getSourceAccount(), tgt = orig.getTargetAccount();
+        // العكس يعيد نفس المبلغين المسجلين في الأصل، لا بسعر اليوم
+        BigDecimal credited = orig.getTargetAmount() != null ? orig.getTargetAmount() : orig.getAmount();
         // reverse
         Transaction rev = Transaction.builder()
-                .amount(orig.getAmount())
+                .amount(credited)
                 .type(TransactionType.REVERSAL)
                 .status(TransactionStatus.COMPLETED)
                 .reference("REV-" + orig.getReference())
@@ -147,23 +185,56 @@ public class TransactionServiceImpl implements TransactionService {
                 .sourceAccount(tgt)
                 .targetAccount(src)
                 .description("Reversal of #" + orig.getId())
+                .targetAmount(orig.getAmount())
+                .sourceCurrency(orig.getTargetCurrency())
+                .targetCurrency(orig.getSourceCurrency())
+                .fxRate(orig.getFxRate() == null ? null
+                        : BigDecimal.ONE.divide(orig.getFxRate(), FxRateTable.RATE_SCALE, RoundingMode.HALF_EVEN))
+                .fxRateVersion(orig.getFxRateVersion())
                 .build();
         Transaction savedRev = transactionRepository.save(rev);
         // restore balances
         src.setBalance(src.getBalance().add(orig.getAmount()));
-        tgt.setBalance(tgt.getBalance().subtract(orig.getAmount()));
+        tgt.setBalance(tgt.getBalance().subtract(credited));
         accountRepository.save(src);
         accountRepository.save(tgt);
+        outboxPublisher.publish(src.getId(), AccountBalanceChanged.of(src));
+        outboxPublisher.publish(tgt.getId(), AccountBalanceChanged.of(tgt));
         return toDto(savedRev);
     }
 
     @Override
-    public List<TransactionDTO> searchByReference(String ref) {
-        return transactionRepository.findByReferenceContainingIgnoreCase(ref)
-                .stream().map(this::toDto).toList();
+    @Transactional(readOnly = true)
+    public Page<TransactionDTO> searchByReference(String referencePrefix, int page, int size) {
+        String prefix = normalizeReference(referencePrefix);
+        if (prefix.isEmpty()) {
+            throw new InvalidTransactionException("Reference must not be empty");
+        }
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_REFERENCE_PAGE_SIZE),
+                Sort.by("reference"));
+        return transactionRepository.findByReferenceStartingWith(prefix, pageable).map(this::toDto);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TransactionDTO getByReference(String reference) {
+        String normalized = normalizeReference(reference);
+        Matcher generated = GENERATED_REFERENCE.matcher(normalized);
+        if (generated.matches() && !ReferenceNumberGenerator.hasValidCheckCharacter(generated.group(1))) {
+            throw new InvalidTransactionException("Invalid reference: check character mismatch");
+        }
+        return transactionRepository.findByReference(normalized)
+                .map(this::toDto)
+                .orElseThrow(() -> new TransactionNotFoundException("Transaction not found with reference: " + normalized));
+    }
+
+    // المراجع تُولَّد بأحرف كبيرة؛ نطبّع مدخل المستخدم بنفس الشكل
+    private static String normalizeReference(String reference) {
+        return reference == null ? "" : reference.trim().toUpperCase(Locale.ROOT);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<TransactionDTO> getUserTransactions(Long userId) {
         var acctNums = accountRepository.findByUserId(userId)
                 .stream().map(Account::getAccountNumber).toList();
@@ -191,6 +262,9 @@ public class TransactionServiceImpl implements TransactionService {
                 .status(tx.getStatus().name())
                 .reference(tx.getReference())
                 .description(tx.getDescription())
+                .targetAmount(tx.getTargetAmount())
+                .targetCurrency(tx.getTargetCurrency())
+                .fxRate(tx.getFxRate())
                 .build();
     }
 }
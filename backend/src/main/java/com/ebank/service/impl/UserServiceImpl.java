@@ -4,6 +4,8 @@ import com.ebank.model.user.User;
 import com.ebank.repository.UserRepository;
 import com.ebank.service.CacheService;
 import com.ebank.service.UserService;
+import com.ebank.service.account.AccountSearchChangedEvent;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,13 +21,16 @@ public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final CacheService cacheService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public UserServiceImpl(UserRepository userRepository,
                            PasswordEncoder passwordEncoder,
-                           CacheService cacheService) {
+                           CacheService cacheService,
+                           ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.cacheService = cacheService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -37,7 +42,7 @@ public class UserServiceImpl implements UserService {
 
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional
     public Optional<User> getUserById(Long id) {
         String cacheKey = "user:" + id;
         User cachedUser = cacheService.getCachedData(cacheKey, User.class);
@@ -55,7 +60,7 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional
     public Optional<User> getUserByUsername(String username) {
         String cacheKey = "user:username:" + username;
         User cachedUser = cacheService.getCachedData(cacheKey, User.class);
@@ -73,7 +78,7 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional
     public Optional<User> getUserByEmail(String email) {
         String cacheKey = "user:email:" + email;
         User cachedUser = cacheService.getCachedData(cacheKey, User.class);
@@ -101,8 +106,14 @@ public class UserServiceImpl implements UserService {
     public User updateUser(Long id, User userDetails) {
         return userRepository.findById(id)
                 .map(existingUser -> {
+                    boolean nameChanged = (userDetails.getFirstName() != null
+                            && !userDetails.getFirstName().equals(existingUser.getFirstName()))
+                            || (userDetails.getLastName() != null
+                            && !userDetails.getLastName().equals(existingUser.getLastName()));
                     if (userDetails.getFirstName() != null) existingUser.setFirstName(userDetails.getFirstName());
                     if (userDetails.getLastName()  != null) existingUser.setLastName(userDetails.getLastName());
+                    // أسماء أصحاب الحسابات جزء من بحث الحسابات
+                    if (nameChanged) eventPublisher.publishEvent(new AccountSearchChangedEvent());
                     if (userDetails.getUsername()  != null) existingUser.setUsername(userDetails.getUsername());
                     if (userDetails.getEmail()     != null) existingUser.setEmail(userDetails.getEmail());
                     if (userDetails.getPassword()  != null && !userDetails.getPassword().isBlank()) {
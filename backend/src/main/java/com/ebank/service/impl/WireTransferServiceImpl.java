@@ -9,6 +9,12 @@ import com.ebank.model.wireTransfer.WireTransfer;
 import com.ebank.repository.AccountRepository;
 import com.ebank.repository.WireTransferRepository;
 import com.ebank.service.WireTransferService;
+import com.ebank.service.fx.FxConversion;
+import com.ebank.service.fx.FxRateEngine;
+import com.ebank.service.outbox.AccountBalanceChanged;
+import com.ebank.service.outbox.OutboxPublisher;
+import com.ebank.service.reference.ReferenceNumberGenerator;
+import com.ebank.service.wireTransfer.WireSettlementEngine;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -19,7 +25,6 @@ import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.UUID;
 
 @Slf4j
 @Service
@@ -27,6 +32,9 @@ import java.util.UUID;
 public class WireTransferServiceImpl implements WireTransferService {
     private final WireTransferRepository wireTransferRepository;
     private final AccountRepository accountRepository;
+    private final ReferenceNumberGenerator referenceNumberGenerator;
+    private final FxRateEngine fxRateEngine;
+    private final OutboxPublisher outboxPublisher;
 
     @Override
     @Transactional
@@ -36,7 +44,9 @@ public class WireTransferServiceImpl implements WireTransferService {
         Account senderAccount = accountRepository.findById(senderAccountId)
                 .orElseThrow(() -> new AccountNotFoundException(senderAccountId));
 
-        validateTransfer(senderAccount, amount, currency);
+        // التحويل بعملة غير عملة الحساب يُخصم بما يقابله بسعر وقت الإنشاء
+        FxConversion debit = fxRateEngine.convert(amount, currency, senderAccount.getCurrency());
+        validateTransfer(senderAccount, debit.targetAmount());
 
         WireTransfer transfer = WireTransfer.builder()
                 .senderAccount(senderAccount)
@@ -45,6 +55,9 @@ public class WireTransferServiceImpl implements WireTransferService {
                 .recipientName(recipientName)
                 .amount(amount)
                 .currency(currency)
+                .debitAmount(debit.targetAmount())
+                .fxRate(debit.rate())
+                .fxRateVersion(debit.rateVersion())
                 .referenceNumber(generateReferenceNumber())
                 .status(TransferStatus.PENDING)
                 .initiatedAt(LocalDateTime.now())
@@ -64,8 +77,10 @@ public class WireTransferServiceImpl implements WireTransferService {
         validateTransferCompletion(transfer);
 
         Account senderAccount = transfer.getSenderAccount();
-        senderAccount.setBalance(senderAccount.getBalance().subtract(transfer.getAmount()));
-        accountRepository.save(senderAccount);
+        if (accountRepository.debitIfCovered(senderAccount.getId(), transfer.getDebitAmount()) == 0) {
+            throw new InsufficientBalanceException(senderAccount.getId(), transfer.getDebitAmount());
+        }
+        outboxPublisher.publish(senderAccount.getId(), AccountBalanceChanged.of(senderAccount));
 
         transfer.setStatus(TransferStatus.COMPLETED);
         transfer.setCompletedAt(LocalDateTime.now());
@@ -85,6 +100,10 @@ public class WireTransferServiceImpl implements WireTransferService {
             throw new IllegalTransferStateException("Only pending transfers can be canceled");
         }
 
+        if (transfer.getSettlementBatch() != null) {
+            throw new IllegalTransferStateException("Transfer is already being settled");
+        }
+
         transfer.setStatus(TransferStatus.CANCELED);
         WireTransfer updated = wireTransferRepository.save(transfer);
         log.info("Canceled wire transfer: {}", referenceNumber);
@@ -98,9 +117,9 @@ public class WireTransferServiceImpl implements WireTransferService {
     }
 
     @Override
-    public List<WireTransferResponseDTO> getPendingTransfers() {
-        return wireTransferRepository.findByStatus(TransferStatus.PENDING)
-                .stream().map(this::toDto).toList();
+    public Page<WireTransferResponseDTO> getPendingTransfers(Pageable pageable) {
+        return wireTransferRepository.findByStatus(TransferStatus.PENDING, pageable)
+                .map(this::toDto);
     }
 
     @Override
@@ -116,18 +135,14 @@ public class WireTransferServiceImpl implements WireTransferService {
                 .stream().map(this::toDto).toList();
     }
 
-    private void validateTransfer(Account senderAccount, BigDecimal amount, String currency) {
-        if (senderAccount.getBalance().compareTo(amount) < 0) {
-            throw new InsufficientBalanceException(senderAccount.getId(), amount);
+    private void validateTransfer(Account senderAccount, BigDecimal debitAmount) {
+        if (senderAccount.getBalance().compareTo(debitAmount) < 0) {
+            throw new InsufficientBalanceException(senderAccount.getId(), debitAmount);
         }
 
         if (senderAccount.getStatus() != AccountStatus.ACTIVE) {
             throw new AccountNotActiveException(senderAccount.getId());
         }
-
-        if (!senderAccount.getCurrency().equalsIgnoreCase(currency)) {
-            throw new CurrencyMismatchException(senderAccount.getCurrency(), currency);
-        }
     }
 
     private void validateTransferCompletion(WireTransfer transfer) {
@@ -135,13 +150,17 @@ public class WireTransferServiceImpl implements WireTransferService {
             throw new IllegalTransferStateException("Transfer is not in pending state");
         }
 
-        if (transfer.getInitiatedAt().isBefore(LocalDateTime.now().minusDays(1))) {
+        if (transfer.getSettlementBatch() != null) {
+            throw new IllegalTransferStateException("Transfer is already being settled");
+        }
+
+        if (transfer.getInitiatedAt().isBefore(LocalDateTime.now().minus(WireSettlementEngine.SETTLEMENT_WINDOW))) {
             throw new TransferExpiredException(transfer.getReferenceNumber());
         }
     }
 
     private String generateReferenceNumber() {
-        return "WT-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        return referenceNumberGenerator.next("WT");
     }
 
     private WireTransferResponseDTO toDto(WireTransfer wire) {
@@ -153,10 +172,13 @@ public class WireTransferServiceImpl implements WireTransferService {
                 .recipientName(wire.getRecipientName())
                 .amount(wire.getAmount())
                 .currency(wire.getCurrency())
+                .debitAmount(wire.getDebitAmount())
+                .fxRate(wire.getFxRate())
                 .referenceNumber(wire.getReferenceNumber())
                 .status(wire.getStatus())
                 .initiatedAt(wire.getInitiatedAt())
                 .completedAt(wire.getCompletedAt())
+                .failureReason(wire.getFailureReason())
                 .build();
     }
 }
\ No newline at end of file
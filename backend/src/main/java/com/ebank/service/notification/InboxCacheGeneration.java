@@ -0,0 +1,63 @@
+package com.ebank.service.notification;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+
+/**
+ * Per-user generation number embedded in every cached inbox page key.
+ * Bumping it orphans all of the user's cached pages at once; they expire by
+ * TTL instead of being deleted one by one.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class InboxCacheGeneration {
+
+    private final StringRedisTemplate redisTemplate;
+
+    public long current(Long userId) {
+        try {
+            String value = redisTemplate.opsForValue().get(key(userId));
+            return value != null ? Long.parseLong(value) : 0L;
+        } catch (Exception e) {
+            log.warn("Inbox generation unavailable for user {}: {}", userId, e.getMessage());
+            return -1L;
+        }
+    }
+
+    // كل تغيير في عدد غير المقروء يغيّر صفحات الصندوق أيضاً
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUnreadCountChange(UnreadCountChange change) {
+        bump(change.userId());
+    }
+
+    public void bump(Long userId) {
+        try {
+            redisTemplate.opsForValue().increment(key(userId));
+        } catch (Exception e) {
+            log.warn("Failed to bump inbox generation for user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    public void bumpAll(Collection<Long> userIds) {
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                userIds.forEach(userId -> connection.stringCommands().incr(key(userId).getBytes(StandardCharsets.UTF_8)));
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("Failed to bump inbox generations: {}", e.getMessage());
+        }
+    }
+
+    private static String key(Long userId) {
+        return "notifications:inbox-gen:" + userId;
+    }
+}
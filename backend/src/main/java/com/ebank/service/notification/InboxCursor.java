@@ -0,0 +1,35 @@
+package com.ebank.service.notification;
+
+import com.ebank.dto.NotificationDTO;
+import com.ebank.exception.NotificationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position in a user's inbox: the {@code (createdAt, id)} of the last
+ * notification returned, encoded as an opaque URL-safe token.
+ */
+public record InboxCursor(LocalDateTime createdAt, Long id) {
+
+    public static InboxCursor after(NotificationDTO notification) {
+        return new InboxCursor(notification.getCreatedAt(), notification.getId());
+    }
+
+    public static InboxCursor decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf('|');
+            return new InboxCursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                    Long.parseLong(decoded.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new NotificationException("Invalid inbox cursor");
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((createdAt + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
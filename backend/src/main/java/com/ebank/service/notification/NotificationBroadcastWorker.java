@@ -0,0 +1,159 @@
+package com.ebank.service.notification;
+
+import com.ebank.model.notification.NotificationBroadcast;
+import com.ebank.repository.NotificationBroadcastRepository;
+import com.ebank.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Delivers {@link NotificationBroadcast}s in the background, one at a time per
+ * instance. Recipients are read as bare user ids in keyset order and inserted
+ * with a JDBC batch; each chunk commits together with the cursor, and the
+ * worker pauses between chunks so fan-out leaves room for interactive traffic.
+ * A broadcast whose worker died is picked up again once its heartbeat is stale.
+ */
+@Slf4j
+@Component
+public class NotificationBroadcastWorker {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO notifications (recipient_id, title, message, type, is_read, created_at) " +
+            "VALUES (?, ?, ?, ?, false, ?)";
+
+    private final NotificationBroadcastRepository broadcastRepository;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final NotificationStreamRegistry streamRegistry;
+    private final UnreadCounterStore unreadCounterStore;
+    private final InboxCacheGeneration inboxCacheGeneration;
+
+    private final int chunkSize;
+    private final long pauseMs;
+    private final long staleAfterMs;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "notification-broadcast");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean busy = new AtomicBoolean();
+
+    public NotificationBroadcastWorker(NotificationBroadcastRepository broadcastRepository,
+                                       UserRepository userRepository,
+                                       JdbcTemplate jdbcTemplate,
+                                       PlatformTransactionManager transactionManager,
+                                       NotificationStreamRegistry streamRegistry,
+                                       UnreadCounterStore unreadCounterStore,
+                                       InboxCacheGeneration inboxCacheGeneration,
+                                       @Value("${app.notifications.broadcast.chunk-size:1000}") int chunkSize,
+                                       @Value("${app.notifications.broadcast.pause-ms:100}") long pauseMs,
+                                       @Value("${app.notifications.broadcast.stale-after-ms:120000}") long staleAfterMs) {
+        this.broadcastRepository = broadcastRepository;
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.streamRegistry = streamRegistry;
+        this.unreadCounterStore = unreadCounterStore;
+        this.inboxCacheGeneration = inboxCacheGeneration;
+        this.chunkSize = chunkSize;
+        this.pauseMs = pauseMs;
+        this.staleAfterMs = staleAfterMs;
+    }
+
+    @Scheduled(fixedDelayString = "${app.notifications.broadcast.poll-interval-ms:5000}")
+    public void pollForWork() {
+        if (!busy.compareAndSet(false, true)) return;
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime staleBefore = now.minusNanos(staleAfterMs * 1_000_000);
+        List<Long> candidates = broadcastRepository.findClaimableIds(staleBefore, PageRequest.of(0, 1));
+
+        if (candidates.isEmpty() || broadcastRepository.claim(candidates.get(0), now, staleBefore) == 0) {
+            busy.set(false);
+            return;
+        }
+
+        Long broadcastId = candidates.get(0);
+        executor.execute(() -> {
+            try {
+                run(broadcastId);
+            } catch (Exception e) {
+                log.error("Broadcast {} interrupted: {}", broadcastId, e.getMessage());
+            } finally {
+                busy.set(false);
+            }
+        });
+    }
+
+    private void run(Long broadcastId) throws InterruptedException {
+        NotificationBroadcast broadcast = broadcastRepository.findById(broadcastId).orElseThrow();
+        long cursor = broadcast.getLastRecipientId();
+        log.info("Running broadcast {} from recipient {}", broadcastId, cursor);
+
+        while (true) {
+            List<Long> recipientIds = userRepository.findRecipientIdsAfter(
+                    cursor, broadcast.getSegment(), PageRequest.of(0, chunkSize));
+
+            if (recipientIds.isEmpty()) {
+                broadcastRepository.complete(broadcastId, LocalDateTime.now());
+                log.info("Completed broadcast {}", broadcastId);
+                return;
+            }
+
+            long expectedCursor = cursor;
+            Boolean advanced = transactionTemplate.execute(status -> {
+                insertChunk(broadcast, recipientIds);
+                int updated = broadcastRepository.advanceCursor(broadcastId, expectedCursor,
+                        recipientIds.get(recipientIds.size() - 1), recipientIds.size(), LocalDateTime.now());
+                if (updated == 0) {
+                    status.setRollbackOnly();
+                    return false;
+                }
+                return true;
+            });
+
+            if (!Boolean.TRUE.equals(advanced)) {
+                log.info("Stopped broadcast {}: cancelled or taken over by another worker", broadcastId);
+                return;
+            }
+
+            unreadCounterStore.invalidate(recipientIds);
+            inboxCacheGeneration.bumpAll(recipientIds);
+            streamRegistry.publish(NotificationPushMessage.catchUp(recipientIds));
+            cursor = recipientIds.get(recipientIds.size() - 1);
+            Thread.sleep(pauseMs);
+        }
+    }
+
+    private void insertChunk(NotificationBroadcast broadcast, List<Long> recipientIds) {
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, recipientIds, recipientIds.size(), (ps, recipientId) -> {
+            ps.setLong(1, recipientId);
+            ps.setString(2, broadcast.getTitle());
+            ps.setString(3, broadcast.getMessage());
+            ps.setString(4, broadcast.getType().name());
+            ps.setTimestamp(5, createdAt);
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
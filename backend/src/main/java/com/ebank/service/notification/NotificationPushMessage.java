@@ -0,0 +1,21 @@
+package com.ebank.service.notification;
+
+import com.ebank.dto.NotificationDTO;
+
+import java.util.List;
+
+/**
+ * What travels over the {@link NotificationStreamRegistry#CHANNEL} channel:
+ * either one notification, or the recipients of a broadcast chunk whose
+ * connected clients should catch up from the database.
+ */
+public record NotificationPushMessage(NotificationDTO notification, List<Long> recipientIds) {
+
+    public static NotificationPushMessage of(NotificationDTO notification) {
+        return new NotificationPushMessage(notification, null);
+    }
+
+    public static NotificationPushMessage catchUp(List<Long> recipientIds) {
+        return new NotificationPushMessage(null, recipientIds);
+    }
+}
@@ -0,0 +1,264 @@
+package com.ebank.service.notification;
+
+import com.ebank.dto.NotificationDTO;
+import com.ebank.repository.NotificationRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Server-Sent Events sessions of the users connected to this instance.
+ * Notifications are published on a Redis channel and every instance delivers
+ * them to its own sessions, so a client may be connected to any node. Each
+ * session remembers the last notification id it received; on reconnect the
+ * client's {@code Last-Event-ID} is used to replay what it missed.
+ * <p>
+ * Replays read the database, so they run on their own small pool and never
+ * on the Redis listener thread. Live pushes that arrive for a session while
+ * it is replaying are buffered and sent after the replay, in id order, so a
+ * live notification can never make the replay skip older ones.
+ */
+@Slf4j
+@Component
+public class NotificationStreamRegistry {
+
+    static final String CHANNEL = "notifications:push";
+    private static final int REPLAY_LIMIT = 100;
+
+    private final NotificationRepository notificationRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectMapper objectMapper;
+    private final long timeoutMs;
+    private final ExecutorService replayExecutor;
+
+    private final Map<Long, Set<Session>> sessions = new ConcurrentHashMap<>();
+
+    public NotificationStreamRegistry(NotificationRepository notificationRepository,
+                                      StringRedisTemplate redisTemplate,
+                                      RedisMessageListenerContainer listenerContainer,
+                                      ObjectMapper objectMapper,
+                                      @Value("${app.notifications.stream.timeout-ms:1800000}") long timeoutMs,
+                                      @Value("${app.notifications.stream.replay-threads:4}") int replayThreads) {
+        this.notificationRepository = notificationRepository;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.objectMapper = objectMapper;
+        this.timeoutMs = timeoutMs;
+        this.replayExecutor = Executors.newFixedThreadPool(Math.max(replayThreads, 1), runnable -> {
+            Thread thread = new Thread(runnable, "notification-replay");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    void subscribe() {
+        listenerContainer.addMessageListener(
+                (message, pattern) -> deliver(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(CHANNEL));
+    }
+
+    public SseEmitter connect(Long userId, Long lastEventId, int unreadCount) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        long resumeFrom = lastEventId != null ? lastEventId : notificationRepository.findLatestId(userId);
+        Session session = new Session(userId, emitter, resumeFrom);
+
+        sessions.computeIfAbsent(userId, id -> new CopyOnWriteArraySet<>()).add(session);
+        emitter.onCompletion(() -> remove(session));
+        emitter.onTimeout(() -> remove(session));
+        emitter.onError(error -> remove(session));
+
+        sendUnreadCount(session, unreadCount);
+        if (lastEventId != null) {
+            requestCatchUp(session);
+        }
+        return emitter;
+    }
+
+    /** Publishes to every instance; call after the notification is committed. */
+    public void publish(NotificationPushMessage message) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(message));
+        } catch (Exception e) {
+            log.warn("Failed to publish notification push: {}", e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNotificationCommitted(NotificationPushMessage message) {
+        publish(message);
+    }
+
+    public void publishUnreadCount(Long userId, int unreadCount) {
+        Set<Session> userSessions = sessions.get(userId);
+        if (userSessions != null) {
+            userSessions.forEach(session -> sendUnreadCount(session, unreadCount));
+        }
+    }
+
+    public int getConnectionCount() {
+        return sessions.values().stream().mapToInt(Set::size).sum();
+    }
+
+    // تعليق فارغ يبقي الاتصال مفتوحاً عبر الـ proxies
+    @Scheduled(fixedDelayString = "${app.notifications.stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        sessions.values().forEach(userSessions -> userSessions.forEach(session -> {
+            try {
+                session.emitter.send(SseEmitter.event().comment("ping"));
+            } catch (IOException | IllegalStateException e) {
+                remove(session);
+            }
+        }));
+    }
+
+    private void deliver(String payload) {
+        NotificationPushMessage message;
+        try {
+            message = objectMapper.readValue(payload, NotificationPushMessage.class);
+        } catch (IOException e) {
+            log.warn("Ignoring malformed notification push: {}", e.getMessage());
+            return;
+        }
+
+        if (message.notification() != null) {
+            Set<Session> userSessions = sessions.get(message.notification().getRecipientId());
+            if (userSessions != null) {
+                userSessions.forEach(session -> push(session, message.notification()));
+            }
+        } else if (message.recipientIds() != null) {
+            message.recipientIds().stream()
+                    .map(sessions::get)
+                    .filter(userSessions -> userSessions != null)
+                    .forEach(userSessions -> userSessions.forEach(this::requestCatchUp));
+        }
+    }
+
+    private void push(Session session, NotificationDTO notification) {
+        synchronized (session) {
+            if (session.replaying) {
+                session.buffered.put(notification.getId(), notification);
+                return;
+            }
+            send(session, notification);
+        }
+    }
+
+    private void requestCatchUp(Session session) {
+        synchronized (session) {
+            // إعادة جارية تقرأ مرة أخرى عند انتهائها بدلاً من تشغيل ثانية بالتوازي
+            if (session.replaying) {
+                session.replayAgain = true;
+                return;
+            }
+            session.replaying = true;
+        }
+        replayExecutor.execute(() -> catchUp(session));
+    }
+
+    private void catchUp(Session session) {
+        while (true) {
+            try {
+                List<NotificationDTO> missed;
+                do {
+                    missed = notificationRepository.findNewerThan(
+                            session.userId, session.lastEventId, PageRequest.of(0, REPLAY_LIMIT));
+                    missed.forEach(notification -> send(session, notification));
+                } while (missed.size() == REPLAY_LIMIT && sessionOpen(session));
+            } catch (Exception e) {
+                log.warn("Notification replay for user {} failed: {}", session.userId, e.getMessage());
+            }
+
+            synchronized (session) {
+                if (session.replayAgain) {
+                    session.replayAgain = false;
+                    continue;
+                }
+                session.buffered.values().forEach(notification -> send(session, notification));
+                session.buffered.clear();
+                session.replaying = false;
+                return;
+            }
+        }
+    }
+
+    private boolean sessionOpen(Session session) {
+        Set<Session> userSessions = sessions.get(session.userId);
+        return userSessions != null && userSessions.contains(session);
+    }
+
+    // lastEventId يمنع تكرار ما أُرسل بين الإعادة والرسائل المؤجلة
+    private void send(Session session, NotificationDTO notification) {
+        synchronized (session) {
+            if (notification.getId() <= session.lastEventId) return;
+            try {
+                session.emitter.send(SseEmitter.event()
+                        .id(String.valueOf(notification.getId()))
+                        .name("notification")
+                        .data(notification, MediaType.APPLICATION_JSON));
+                session.lastEventId = notification.getId();
+            } catch (IOException | IllegalStateException e) {
+                remove(session);
+            }
+        }
+    }
+
+    private void sendUnreadCount(Session session, int unreadCount) {
+        try {
+            session.emitter.send(SseEmitter.event().name("unread-count").data(unreadCount));
+        } catch (IOException | IllegalStateException e) {
+            remove(session);
+        }
+    }
+
+    private void remove(Session session) {
+        sessions.computeIfPresent(session.userId, (id, userSessions) -> {
+            userSessions.remove(session);
+            return userSessions.isEmpty() ? null : userSessions;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        replayExecutor.shutdownNow();
+    }
+
+    private static final class Session {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private volatile long lastEventId;
+        // الحقول التالية تُقرأ وتُكتب داخل synchronized (session)
+        private boolean replaying;
+        private boolean replayAgain;
+        private final TreeMap<Long, NotificationDTO> buffered = new TreeMap<>();
+
+        private Session(Long userId, SseEmitter emitter, long lastEventId) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.lastEventId = lastEventId;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.ebank.service.notification;
+
+import com.ebank.model.notification.NotificationType;
+import com.ebank.service.NotificationService;
+import com.ebank.service.outbox.OutboxSubscriber;
+import com.ebank.service.outbox.TransferCompleted;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Tells the receiving customer about an incoming transfer once it has
+ * committed. Transfers between a customer's own accounts are not announced.
+ * The notification is keyed on the transaction id, so a transfer delivered
+ * again by the relay is announced only once.
+ */
+@Component
+@RequiredArgsConstructor
+public class TransferNotificationSubscriber implements OutboxSubscriber<TransferCompleted> {
+
+    private final NotificationService notificationService;
+
+    @Override
+    public Class<TransferCompleted> payloadType() {
+        return TransferCompleted.class;
+    }
+
+    @Override
+    public void handle(List<TransferCompleted> events) {
+        for (TransferCompleted event : events) {
+            if (event.targetUserId() == null || event.targetUserId().equals(event.sourceUserId())) continue;
+
+            String amount = (event.targetAmount() != null ? event.targetAmount() : event.amount()).toPlainString();
+            String currency = event.targetCurrency() != null ? " " + event.targetCurrency() : "";
+            notificationService.sendNotification(event.targetUserId(), "Money received",
+                    "You received " + amount + currency + " into account " + event.targetAccountNumber()
+                            + ". Reference: " + event.reference(),
+                    NotificationType.TRANSACTION, "transfer:" + event.transactionId());
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.ebank.service.notification;
+
+/**
+ * A change to a user's unread notifications, applied to
+ * {@link UnreadCounterStore} once the transaction that caused it commits.
+ * {@code delta == null} means the count is now zero (mark all as read);
+ * {@code delta == 0} means only the content of the user's notifications changed.
+ */
+public record UnreadCountChange(Long userId, Integer delta) {
+
+    public static UnreadCountChange by(Long userId, int delta) {
+        return new UnreadCountChange(userId, delta);
+    }
+
+    public static UnreadCountChange reset(Long userId) {
+        return new UnreadCountChange(userId, null);
+    }
+}
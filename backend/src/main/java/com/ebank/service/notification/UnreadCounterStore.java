@@ -0,0 +1,90 @@
+package com.ebank.service.notification;
+
+import com.ebank.repository.NotificationRepository;
+import com.ebank.service.CacheService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Per-user unread notification counters kept in Redis. A missing counter is
+ * loaded from the database on read; writes only adjust counters that already
+ * exist, so a counter is never created from a partial delta. Counters carry
+ * a TTL so any drift from a racing reload heals on its own.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UnreadCounterStore {
+
+    private static final Duration COUNTER_TTL = Duration.ofHours(6);
+
+    // KEYS: counter | ARGV: delta
+    private static final RedisScript<Long> ADJUST_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return nil end " +
+            "local value = redis.call('INCRBY', KEYS[1], ARGV[1]) " +
+            "if value < 0 then redis.call('SET', KEYS[1], 0, 'KEEPTTL') value = 0 end " +
+            "return value", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final NotificationRepository notificationRepository;
+    private final CacheService cacheService;
+
+    public int get(Long userId) {
+        String key = counterKey(userId);
+        try {
+            String cached = redisTemplate.opsForValue().get(key);
+            if (cached != null) return Integer.parseInt(cached);
+        } catch (Exception e) {
+            log.warn("Unread counter unavailable for user {}: {}", userId, e.getMessage());
+            return notificationRepository.countByRecipient_IdAndIsReadFalse(userId);
+        }
+
+        int count = notificationRepository.countByRecipient_IdAndIsReadFalse(userId);
+        try {
+            redisTemplate.opsForValue().setIfAbsent(key, String.valueOf(count), COUNTER_TTL);
+        } catch (Exception e) {
+            log.warn("Failed to store unread counter for user {}: {}", userId, e.getMessage());
+        }
+        return count;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUnreadCountChange(UnreadCountChange change) {
+        try {
+            if (change.delta() == null) {
+                redisTemplate.opsForValue().set(counterKey(change.userId()), "0", COUNTER_TTL);
+            } else {
+                redisTemplate.execute(ADJUST_SCRIPT, List.of(counterKey(change.userId())),
+                        String.valueOf(change.delta()));
+            }
+            cacheService.evict(unreadListKey(change.userId()));
+        } catch (Exception e) {
+            log.warn("Failed to update unread counter for user {}: {}", change.userId(), e.getMessage());
+        }
+    }
+
+    /** Drops counters and unread lists of users who got rows outside the service (broadcasts). */
+    public void invalidate(Collection<Long> userIds) {
+        cacheService.evictAll(userIds.stream()
+                .flatMap(userId -> Stream.of(counterKey(userId), unreadListKey(userId)))
+                .toList());
+    }
+
+    public static String unreadListKey(Long userId) {
+        return "notifications:unread:" + userId;
+    }
+
+    private static String counterKey(Long userId) {
+        return "notifications:unread-count:" + userId;
+    }
+}
@@ -0,0 +1,22 @@
+package com.ebank.service.otp;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes codes to the log instead of sending them, for development only. It
+ * is never created under the {@code prod} profile.
+ */
+@Slf4j
+@Component
+@Profile("!prod")
+@ConditionalOnProperty(name = "app.otp.sender", havingValue = "log", matchIfMissing = true)
+public class LogVerificationCodeSender implements VerificationCodeSender {
+
+    @Override
+    public void send(String purpose, Long userId, String destination, String code) {
+        log.warn("[dev] {} code for user {} at {}: {}", purpose, userId, destination, code);
+    }
+}
@@ -0,0 +1,33 @@
+package com.ebank.service.otp;
+
+import com.ebank.model.notification.NotificationType;
+import com.ebank.service.NotificationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Delivers codes as security notifications to the customer's inbox, where
+ * they reach every signed-in device and the live notification stream. The
+ * code is not returned by the API that issued it, and not logged.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.otp.sender", havingValue = "notification")
+public class NotificationVerificationCodeSender implements VerificationCodeSender {
+
+    private final NotificationService notificationService;
+
+    @Override
+    public void send(String purpose, Long userId, String destination, String code) {
+        notificationService.sendNotification(userId, "Verification code",
+                "Your " + purpose.replace('-', ' ') + " code is " + code + ". It was requested for "
+                        + mask(destination) + "; do not share it with anyone.",
+                NotificationType.SECURITY);
+    }
+
+    private static String mask(String destination) {
+        if (destination == null || destination.length() <= 4) return "your account";
+        return "*".repeat(destination.length() - 4) + destination.substring(destination.length() - 4);
+    }
+}
@@ -0,0 +1,146 @@
+package com.ebank.service.otp;
+
+import com.ebank.service.reference.SecureCodeGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * One-time verification codes kept in Redis. Only an HMAC of the code is
+ * stored, in a key that expires on its own. Every attempt increments a
+ * counter kept per subject, apart from the code, so issuing a new code does
+ * not reset it; once {@code max-attempts} is reached every code of the
+ * subject is refused until {@code lock-seconds} after the first attempt.
+ * Comparison is constant-time, and a correct code is consumed by deleting its
+ * key, so it verifies exactly once.
+ */
+@Component
+public class OneTimeCodeStore {
+
+    public enum Outcome {
+        VERIFIED,
+        INVALID,
+        LOCKED,
+        EXPIRED
+    }
+
+    // KEYS: code | ARGV: hash, ttl seconds, seconds between codes
+    private static final RedisScript<Long> ISSUE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('TTL', KEYS[1]) > tonumber(ARGV[2]) - tonumber(ARGV[3]) then return 0 end " +
+            "redis.call('DEL', KEYS[1]) " +
+            "redis.call('HSET', KEYS[1], 'hash', ARGV[1]) " +
+            "redis.call('EXPIRE', KEYS[1], ARGV[2]) " +
+            "return 1", Long.class);
+
+    // KEYS: code, attempts | ARGV: lock seconds — returns {hash, attempts} or nil
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> ATTEMPT_SCRIPT = new DefaultRedisScript<>(
+            "local hash = redis.call('HGET', KEYS[1], 'hash') " +
+            "if not hash then return nil end " +
+            "local attempts = redis.call('INCR', KEYS[2]) " +
+            "if attempts == 1 then redis.call('EXPIRE', KEYS[2], ARGV[1]) end " +
+            "return {hash, tostring(attempts)}", List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final SecureCodeGenerator codes;
+    private final SecretKeySpec hashKey;
+    private final int length;
+    private final long ttlSeconds;
+    private final int maxAttempts;
+    private final long lockSeconds;
+    private final long resendAfterSeconds;
+
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::newMac);
+
+    public OneTimeCodeStore(StringRedisTemplate redisTemplate,
+                            SecureCodeGenerator codes,
+                            @Value("${app.otp.hash-key:${app.jwt.secret}}") String hashKey,
+                            @Value("${app.otp.length:6}") int length,
+                            @Value("${app.otp.ttl-seconds:600}") long ttlSeconds,
+                            @Value("${app.otp.max-attempts:5}") int maxAttempts,
+                            @Value("${app.otp.lock-seconds:900}") long lockSeconds,
+                            @Value("${app.otp.resend-after-seconds:60}") long resendAfterSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.codes = codes;
+        this.hashKey = new SecretKeySpec(hashKey.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        this.length = length;
+        this.ttlSeconds = ttlSeconds;
+        this.maxAttempts = maxAttempts;
+        this.lockSeconds = lockSeconds;
+        this.resendAfterSeconds = Math.min(resendAfterSeconds, ttlSeconds);
+    }
+
+    /**
+     * Issues a new code for {@code subject}, replacing any previous one. The
+     * attempt counter is kept. Empty if the previous code was issued less
+     * than {@code resend-after-seconds} ago.
+     */
+    public Optional<String> issue(String purpose, String subject) {
+        String code = codes.numericCode(length);
+        Long issued = redisTemplate.execute(ISSUE_SCRIPT, List.of(key(purpose, subject)),
+                hash(purpose, subject, code), String.valueOf(ttlSeconds), String.valueOf(resendAfterSeconds));
+        return issued != null && issued == 1 ? Optional.of(code) : Optional.empty();
+    }
+
+    public Outcome verify(String purpose, String subject, String code) {
+        String key = key(purpose, subject);
+        List<?> stored = redisTemplate.execute(ATTEMPT_SCRIPT, List.of(key, attemptsKey(purpose, subject)),
+                String.valueOf(lockSeconds));
+        if (stored == null || stored.size() < 2) {
+            return Outcome.EXPIRED;
+        }
+        if (Integer.parseInt(stored.get(1).toString()) > maxAttempts) {
+            return Outcome.LOCKED;
+        }
+
+        byte[] expected = stored.get(0).toString().getBytes(StandardCharsets.US_ASCII);
+        byte[] actual = hash(purpose, subject, code == null ? "" : code).getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(expected, actual)) {
+            return Outcome.INVALID;
+        }
+
+        // طلبان متزامنان بالكود الصحيح: الذي يحذف المفتاح هو الذي ينجح
+        if (!Boolean.TRUE.equals(redisTemplate.delete(key))) {
+            return Outcome.EXPIRED;
+        }
+        redisTemplate.delete(attemptsKey(purpose, subject));
+        return Outcome.VERIFIED;
+    }
+
+    private String key(String purpose, String subject) {
+        return "otp:" + purpose + ":" + subject;
+    }
+
+    // منفصل عن الكود حتى لا يصفّره طلب كود جديد
+    private String attemptsKey(String purpose, String subject) {
+        return "otp:" + purpose + ":" + subject + ":attempts";
+    }
+
+    // المفتاح والغرض يدخلان في الـ HMAC: نسخة من Redis لا تكفي لتخمين الأكواد
+    private String hash(String purpose, String subject, String code) {
+        Mac mac = macs.get();
+        byte[] digest = mac.doFinal((purpose + ":" + subject + ":" + code).getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(hashKey);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+}
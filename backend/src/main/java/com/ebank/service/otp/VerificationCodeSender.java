@@ -0,0 +1,16 @@
+package com.ebank.service.otp;
+
+/**
+ * Delivers a one-time code to the customer, by SMS or any other channel
+ * outside the API. The code itself must never be returned in a response or
+ * written to the application log. Which implementation is used is chosen by
+ * {@code app.otp.sender}.
+ */
+public interface VerificationCodeSender {
+
+    /**
+     * @param userId      the customer the code belongs to
+     * @param destination where the code is meant to go, such as a phone number
+     */
+    void send(String purpose, Long userId, String destination, String code);
+}
@@ -0,0 +1,10 @@
+package com.ebank.service.outbox;
+
+import com.ebank.model.account.Account;
+
+public record AccountBalanceChanged(Long accountId, String accountNumber, Long userId) {
+
+    public static AccountBalanceChanged of(Account account) {
+        return new AccountBalanceChanged(account.getId(), account.getAccountNumber(), account.getUser().getId());
+    }
+}
@@ -0,0 +1,8 @@
+package com.ebank.service.outbox;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record BillPaymentRecorded(Long accountId, String receiptNumber,
+                                  BigDecimal amount, LocalDateTime paymentDate) {
+}
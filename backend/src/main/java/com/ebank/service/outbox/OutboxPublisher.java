@@ -0,0 +1,58 @@
+package com.ebank.service.outbox;
+
+import com.ebank.model.outbox.OutboxEvent;
+import com.ebank.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+
+/**
+ * Records a side effect as an {@link OutboxEvent} in the caller's
+ * transaction. The row commits or rolls back with the money movement, and the
+ * relay is woken right after commit so delivery does not wait for its poll.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxPublisher {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final OutboxRelay outboxRelay;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(Object aggregateId, Object payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize outbox payload " + eventType(payload.getClass()), e);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        outboxEventRepository.save(OutboxEvent.builder()
+                .eventType(eventType(payload.getClass()))
+                .aggregateId(aggregateId == null ? null : String.valueOf(aggregateId))
+                .payload(json)
+                .createdAt(now)
+                .availableAt(now)
+                .build());
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                outboxRelay.poll();
+            }
+        });
+    }
+
+    static String eventType(Class<?> payloadType) {
+        return payloadType.getSimpleName();
+    }
+}
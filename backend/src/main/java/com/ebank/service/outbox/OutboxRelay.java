@@ -0,0 +1,216 @@
+package com.ebank.service.outbox;
+
+import com.ebank.model.outbox.OutboxEvent;
+import com.ebank.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Delivers committed {@link OutboxEvent}s to the in-process
+ * {@link OutboxSubscriber}s. Each pass locks a batch with SKIP LOCKED, so
+ * several instances can relay side by side, groups it by type and hands every
+ * subscriber its events in one call. Subscribers run in their own transaction.
+ * A batch that fails is delivered again event by event, so one bad event
+ * does not hold back the rest; the events that still fail are retried with
+ * backoff and parked after {@code max-attempts}.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private static final long MAX_BACKOFF_SECONDS = 300;
+    private static final int PURGE_CHUNK = 5000;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate batchTransaction;
+    private final TransactionTemplate subscriberTransaction;
+    private final Map<String, List<OutboxSubscriber<?>>> subscribers;
+
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retentionHours;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "outbox-relay");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean busy = new AtomicBoolean();
+    private final AtomicBoolean wakeUp = new AtomicBoolean();
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       ObjectMapper objectMapper,
+                       PlatformTransactionManager transactionManager,
+                       List<OutboxSubscriber<?>> subscribers,
+                       @Value("${app.outbox.batch-size:200}") int batchSize,
+                       @Value("${app.outbox.max-attempts:10}") int maxAttempts,
+                       @Value("${app.outbox.retention-hours:24}") long retentionHours) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.subscriberTransaction = new TransactionTemplate(transactionManager);
+        this.subscriberTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.subscribers = subscribers.stream().collect(Collectors.groupingBy(
+                subscriber -> OutboxPublisher.eventType(subscriber.payloadType())));
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retentionHours = retentionHours;
+    }
+
+    /** Called on a schedule and after every commit that wrote outbox rows. */
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:1000}")
+    public void poll() {
+        wakeUp.set(true);
+        if (!busy.compareAndSet(false, true)) return;
+
+        executor.execute(() -> {
+            try {
+                while (wakeUp.getAndSet(false)) {
+                    // الدفعة الممتلئة تعني أن هناك المزيد
+                    int relayed;
+                    do {
+                        relayed = relayBatch();
+                    } while (relayed == batchSize);
+                }
+            } catch (Exception e) {
+                log.error("Outbox relay failed: {}", e.getMessage());
+            } finally {
+                busy.set(false);
+            }
+        });
+    }
+
+    private int relayBatch() {
+        Integer relayed = batchTransaction.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> events = outboxEventRepository.lockPending(now, batchSize);
+            if (events.isEmpty()) return 0;
+
+            Map<String, List<OutboxEvent>> byType = events.stream().collect(Collectors.groupingBy(
+                    OutboxEvent::getEventType, LinkedHashMap::new, Collectors.toList()));
+
+            Map<Long, Exception> failures = new HashMap<>();
+            byType.forEach((eventType, ofType) -> dispatch(eventType, ofType, failures));
+
+            List<Long> published = new ArrayList<>(events.size());
+            for (OutboxEvent event : events) {
+                Exception failure = failures.get(event.getId());
+                if (failure == null) {
+                    published.add(event.getId());
+                } else {
+                    scheduleRetry(event, now, failure);
+                }
+            }
+
+            if (!published.isEmpty()) {
+                outboxEventRepository.markPublished(published, now);
+            }
+            return events.size();
+        });
+        return relayed == null ? 0 : relayed;
+    }
+
+    // يسجّل في failures كل حدث فشل تسليمه لأي من المشتركين
+    private void dispatch(String eventType, List<OutboxEvent> events, Map<Long, Exception> failures) {
+        List<OutboxSubscriber<?>> targets = subscribers.getOrDefault(eventType, List.of());
+        if (targets.isEmpty()) {
+            log.warn("No subscriber for outbox event type {}, dropping {} events", eventType, events.size());
+            return;
+        }
+        for (OutboxSubscriber<?> subscriber : targets) {
+            deliver(subscriber, events, failures);
+        }
+    }
+
+    private <T> void deliver(OutboxSubscriber<T> subscriber, List<OutboxEvent> events, Map<Long, Exception> failures) {
+        List<OutboxEvent> readable = new ArrayList<>(events.size());
+        List<T> payloads = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            try {
+                payloads.add(objectMapper.readValue(event.getPayload(), subscriber.payloadType()));
+                readable.add(event);
+            } catch (Exception e) {
+                failures.putIfAbsent(event.getId(), e);
+            }
+        }
+        if (payloads.isEmpty()) return;
+
+        try {
+            subscriberTransaction.executeWithoutResult(status -> subscriber.handle(payloads));
+            return;
+        } catch (RuntimeException e) {
+            if (payloads.size() == 1) {
+                failures.putIfAbsent(readable.get(0).getId(), e);
+                return;
+            }
+            log.debug("Outbox batch of {} {} events failed, delivering one by one: {}",
+                    payloads.size(), readable.get(0).getEventType(), e.getMessage());
+        }
+
+        // حدث واحد سيئ لا يوقف الباقي: كل حدث في معاملته
+        for (int i = 0; i < payloads.size(); i++) {
+            List<T> single = List.of(payloads.get(i));
+            try {
+                subscriberTransaction.executeWithoutResult(status -> subscriber.handle(single));
+            } catch (RuntimeException e) {
+                failures.putIfAbsent(readable.get(i).getId(), e);
+            }
+        }
+    }
+
+    // الكيان مُدار داخل المعاملة، فالتعديل يُحفظ عند الـ commit
+    private void scheduleRetry(OutboxEvent event, LocalDateTime now, Exception cause) {
+        String error = String.valueOf(cause.getMessage());
+        event.setAttempts(event.getAttempts() + 1);
+        event.setLastError(error.length() > 500 ? error.substring(0, 500) : error);
+
+        if (event.getAttempts() >= maxAttempts) {
+            event.setParkedAt(now);
+            log.error("Parked outbox event {} ({}) after {} failed attempts: {}",
+                    event.getId(), event.getEventType(), event.getAttempts(), error);
+            return;
+        }
+        event.setAvailableAt(now.plusSeconds(Math.min(1L << Math.min(event.getAttempts(), 16), MAX_BACKOFF_SECONDS)));
+        log.warn("Outbox delivery of event {} ({}) failed (attempt {}): {}",
+                event.getId(), event.getEventType(), event.getAttempts(), error);
+    }
+
+    @Scheduled(cron = "${app.outbox.purge-cron:0 15 * * * *}")
+    public void purgePublished() {
+        LocalDateTime before = LocalDateTime.now().minusHours(retentionHours);
+        int deleted = 0;
+        int chunk;
+        do {
+            chunk = outboxEventRepository.deletePublishedBefore(before, PURGE_CHUNK);
+            deleted += chunk;
+        } while (chunk == PURGE_CHUNK);
+
+        if (deleted > 0) {
+            log.info("Purged {} published outbox events older than {}h", deleted, retentionHours);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
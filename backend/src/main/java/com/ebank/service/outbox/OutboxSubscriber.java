@@ -0,0 +1,16 @@
+package com.ebank.service.outbox;
+
+import java.util.List;
+
+/**
+ * Receives outbox payloads of one type after the producing transaction has
+ * committed. Delivery is at least once and in batches: if a batch throws,
+ * its events are handed over again one at a time, and only those that still
+ * fail are retried later. Handlers must therefore tolerate repeats.
+ */
+public interface OutboxSubscriber<T> {
+
+    Class<T> payloadType();
+
+    void handle(List<T> events);
+}
@@ -0,0 +1,20 @@
+package com.ebank.service.outbox;
+
+import com.ebank.model.transaction.Transaction;
+
+import java.math.BigDecimal;
+
+public record TransferCompleted(Long transactionId, String reference,
+                                Long sourceUserId, String sourceAccountNumber,
+                                Long targetUserId, String targetAccountNumber,
+                                BigDecimal amount, String currency,
+                                BigDecimal targetAmount, String targetCurrency) {
+
+    public static TransferCompleted of(Transaction tx) {
+        return new TransferCompleted(tx.getId(), tx.getReference(),
+                tx.getSourceAccount().getUser().getId(), tx.getSourceAccount().getAccountNumber(),
+                tx.getTargetAccount().getUser().getId(), tx.getTargetAccount().getAccountNumber(),
+                tx.getAmount(), tx.getSourceCurrency(),
+                tx.getTargetAmount(), tx.getTargetCurrency());
+    }
+}
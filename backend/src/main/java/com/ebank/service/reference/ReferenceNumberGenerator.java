@@ -0,0 +1,142 @@
+package com.ebank.service.reference;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snowflake-style identifiers for transaction, wire transfer and receipt
+ * references: 41 bits of milliseconds since 2024-01-01, 10 bits of node id
+ * and a 12-bit per-millisecond sequence. Generation is a single CAS on an
+ * {@link AtomicLong} holding (millis, sequence); when a millisecond's
+ * sequence is exhausted, or the clock steps back, the generator borrows the
+ * next millisecond instead of blocking, so ids stay unique and increasing.
+ * <p>
+ * Ids are rendered as 13 Crockford base32 characters followed by a Luhn
+ * mod 32 check character, e.g. {@code TXN-01HV6Z3K9QXYR7}.
+ * <p>
+ * Outside production an unset {@code app.ids.node-id} is derived from the
+ * hostname. That can collide between two hosts, so the {@code prod} profile
+ * refuses to start without an explicit node id.
+ */
+@Slf4j
+@Component
+public class ReferenceNumberGenerator {
+
+    private static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int ENCODED_LENGTH = 13;
+
+    private final long nodeId;
+    // (millis since epoch << SEQUENCE_BITS) | sequence of the last id handed out
+    private final AtomicLong state = new AtomicLong();
+
+    public ReferenceNumberGenerator(@Value("${app.ids.node-id:-1}") long configuredNodeId, Environment environment) {
+        if (configuredNodeId < 0 && environment.acceptsProfiles(Profiles.of("prod"))) {
+            throw new IllegalStateException("app.ids.node-id (EBANK_NODE_ID) must be set to a unique value per instance in production");
+        }
+        this.nodeId = configuredNodeId >= 0 ? configuredNodeId : nodeIdFromHostname();
+        if (nodeId > MAX_NODE_ID) {
+            throw new IllegalStateException("app.ids.node-id must be between 0 and " + MAX_NODE_ID);
+        }
+        log.info("Reference generator node id: {}", nodeId);
+    }
+
+    public long nextId() {
+        while (true) {
+            long last = state.get();
+            long lastMillis = last >>> SEQUENCE_BITS;
+            long now = System.currentTimeMillis() - EPOCH_MILLIS;
+
+            long next;
+            if (now > lastMillis) {
+                next = now << SEQUENCE_BITS;
+            } else if ((last & SEQUENCE_MASK) < SEQUENCE_MASK) {
+                next = last + 1;
+            } else {
+                next = (lastMillis + 1) << SEQUENCE_BITS;
+            }
+
+            if (state.compareAndSet(last, next)) {
+                return ((next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS))
+                        | (nodeId << SEQUENCE_BITS)
+                        | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    /** {@code prefix-} followed by the encoded id and its check character. */
+    public String next(String prefix) {
+        return prefix + "-" + encode(nextId());
+    }
+
+    /** True when the last character of {@code encoded} is the check character of the rest. */
+    public static boolean hasValidCheckCharacter(String encoded) {
+        if (encoded.length() != ENCODED_LENGTH + 1) return false;
+        int[] digits = new int[ENCODED_LENGTH];
+        for (int i = 0; i < ENCODED_LENGTH; i++) {
+            int value = indexOf(encoded.charAt(i));
+            if (value < 0) return false;
+            digits[i] = value;
+        }
+        return ALPHABET[checkDigit(digits)] == encoded.charAt(ENCODED_LENGTH);
+    }
+
+    static String encode(long id) {
+        int[] digits = new int[ENCODED_LENGTH];
+        for (int i = ENCODED_LENGTH - 1; i >= 0; i--) {
+            digits[i] = (int) (id & 31);
+            id >>>= 5;
+        }
+
+        char[] out = new char[ENCODED_LENGTH + 1];
+        for (int i = 0; i < ENCODED_LENGTH; i++) {
+            out[i] = ALPHABET[digits[i]];
+        }
+        out[ENCODED_LENGTH] = ALPHABET[checkDigit(digits)];
+        return new String(out);
+    }
+
+    // Luhn mod N: يكشف أي خطأ في حرف واحد ومعظم تبديلات الحروف المتجاورة
+    private static int checkDigit(int[] digits) {
+        int factor = 2;
+        int sum = 0;
+        for (int i = digits.length - 1; i >= 0; i--) {
+            int addend = factor * digits[i];
+            factor = factor == 2 ? 1 : 2;
+            sum += addend / 32 + addend % 32;
+        }
+        return (32 - sum % 32) % 32;
+    }
+
+    private static int indexOf(char c) {
+        for (int i = 0; i < ALPHABET.length; i++) {
+            if (ALPHABET[i] == c) return i;
+        }
+        return -1;
+    }
+
+    private static long nodeIdFromHostname() {
+        try {
+            String hostname = InetAddress.getLocalHost().getHostName();
+            long derived = Math.floorMod(hostname.hashCode(), (int) (MAX_NODE_ID + 1));
+            log.warn("app.ids.node-id not set; derived {} from hostname {}. Set it explicitly when running several instances",
+                    derived, hostname);
+            return derived;
+        } catch (Exception e) {
+            log.warn("app.ids.node-id not set and hostname unavailable; using 0");
+            return 0;
+        }
+    }
+}
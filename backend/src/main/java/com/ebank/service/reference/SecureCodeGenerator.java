@@ -0,0 +1,74 @@
+package com.ebank.service.reference;
+
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+
+/**
+ * Random digits for card numbers, CVVs and one-time codes. Every thread has
+ * its own {@link SecureRandom} and draws from a refilled byte buffer, so a
+ * code costs a few array reads instead of a call into the shared generator.
+ * Consumed bytes are wiped from the buffer.
+ */
+@Component
+public class SecureCodeGenerator {
+
+    private static final int BUFFER_SIZE = 512;
+
+    private final ThreadLocal<Buffer> buffers = ThreadLocal.withInitial(Buffer::new);
+
+    /** A uniformly random decimal digit. */
+    public int nextDigit() {
+        Buffer buffer = buffers.get();
+        int value;
+        // 250 = 25 × 10: الرفض فوقها يبقي التوزيع متساوياً
+        do {
+            value = buffer.nextByte();
+        } while (value >= 250);
+        return value % 10;
+    }
+
+    /** A uniformly random int in {@code [0, bound)}. */
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+        Buffer buffer = buffers.get();
+        int bits;
+        int value;
+        do {
+            bits = buffer.nextInt31();
+            value = bits % bound;
+        } while (bits - value + (bound - 1) < 0);
+        return value;
+    }
+
+    /** {@code length} random digits; leading zeros are kept. */
+    public String numericCode(int length) {
+        char[] code = new char[length];
+        for (int i = 0; i < length; i++) {
+            code[i] = (char) ('0' + nextDigit());
+        }
+        return new String(code);
+    }
+
+    private static final class Buffer {
+        private final SecureRandom random = new SecureRandom();
+        private final byte[] bytes = new byte[BUFFER_SIZE];
+        private int position = BUFFER_SIZE;
+
+        int nextByte() {
+            if (position == BUFFER_SIZE) {
+                random.nextBytes(bytes);
+                position = 0;
+            }
+            int value = bytes[position] & 0xFF;
+            bytes[position++] = 0;
+            return value;
+        }
+
+        int nextInt31() {
+            return ((nextByte() & 0x7F) << 24) | (nextByte() << 16) | (nextByte() << 8) | nextByte();
+        }
+    }
+}
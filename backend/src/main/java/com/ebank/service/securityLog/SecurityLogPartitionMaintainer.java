@@ -0,0 +1,184 @@
+package com.ebank.service.securityLog;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the monthly partitions of {@code security_logs} rolling: creates the
+ * coming months' partitions ahead of time by splitting {@code p_future}, and
+ * drops partitions older than the retention period, exporting them first as
+ * gzip CSV when archiving is enabled. Runs under a MySQL named lock so only
+ * one instance changes the table at a time.
+ */
+@Slf4j
+@Component
+public class SecurityLogPartitionMaintainer {
+
+    private static final String LOCK_NAME = "ebank.security_logs.partitions";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int retentionMonths;
+    private final int monthsAhead;
+    private final boolean archiveEnabled;
+    private final Path archiveDirectory;
+
+    public SecurityLogPartitionMaintainer(JdbcTemplate jdbcTemplate,
+                                          @Value("${app.security-logs.retention-months:12}") int retentionMonths,
+                                          @Value("${app.security-logs.months-ahead:3}") int monthsAhead,
+                                          @Value("${app.security-logs.archive.enabled:true}") boolean archiveEnabled,
+                                          @Value("${app.security-logs.archive.directory:archive/security-logs}") String archiveDirectory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.retentionMonths = retentionMonths;
+        this.monthsAhead = monthsAhead;
+        this.archiveEnabled = archiveEnabled;
+        this.archiveDirectory = Path.of(archiveDirectory);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${app.security-logs.maintenance-cron:0 30 3 * * *}")
+    public void maintain() {
+        try {
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    if (!acquireLock(statement)) {
+                        log.debug("Security log partition maintenance already running elsewhere");
+                        return null;
+                    }
+                    try {
+                        List<String> partitions = partitions(statement);
+                        if (partitions.isEmpty()) {
+                            log.warn("security_logs is not partitioned; skipping retention");
+                            return null;
+                        }
+                        addUpcomingPartitions(statement, partitions);
+                        dropExpiredPartitions(statement, partitions);
+                    } finally {
+                        statement.execute("DO RELEASE_LOCK('" + LOCK_NAME + "')");
+                    }
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("Security log partition maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    private void addUpcomingPartitions(Statement statement, List<String> partitions) throws SQLException {
+        YearMonth newest = partitions.stream()
+                .map(SecurityLogPartitions::monthOf)
+                .flatMap(Optional::stream)
+                .max(YearMonth::compareTo)
+                .orElse(YearMonth.now().minusMonths(1));
+        YearMonth target = YearMonth.now().plusMonths(monthsAhead);
+
+        for (YearMonth month = newest.plusMonths(1); !month.isAfter(target); month = month.plusMonths(1)) {
+            statement.execute("ALTER TABLE " + SecurityLogPartitions.TABLE +
+                    " REORGANIZE PARTITION " + SecurityLogPartitions.FUTURE_PARTITION + " INTO (" +
+                    SecurityLogPartitions.definition(month) + ", " + SecurityLogPartitions.futureDefinition() + ")");
+            log.info("Added security_logs partition {}", SecurityLogPartitions.name(month));
+        }
+    }
+
+    private void dropExpiredPartitions(Statement statement, List<String> partitions) throws SQLException {
+        YearMonth oldestKept = YearMonth.now().minusMonths(retentionMonths);
+
+        for (String partition : partitions) {
+            YearMonth month = SecurityLogPartitions.monthOf(partition).orElse(null);
+            if (month == null || !month.isBefore(oldestKept)) continue;
+
+            if (archiveEnabled) {
+                try {
+                    long rows = archive(statement, partition);
+                    log.info("Archived {} rows of security_logs partition {}", rows, partition);
+                } catch (IOException e) {
+                    // لا نحذف قسماً لم تكتمل أرشفته
+                    throw new UncheckedIOException("Failed to archive partition " + partition, e);
+                }
+            }
+            statement.execute("ALTER TABLE " + SecurityLogPartitions.TABLE + " DROP PARTITION " + partition);
+            log.info("Dropped security_logs partition {}", partition);
+        }
+    }
+
+    private long archive(Statement statement, String partition) throws SQLException, IOException {
+        Files.createDirectories(archiveDirectory);
+        Path target = archiveDirectory.resolve(SecurityLogPartitions.TABLE + "_" + partition + ".csv.gz");
+        Path temp = archiveDirectory.resolve(target.getFileName() + ".part");
+
+        long rows = 0;
+        statement.setFetchSize(Integer.MIN_VALUE); // MySQL: بث النتائج صفاً صفاً بدل تحميلها كاملة
+        try (ResultSet rs = statement.executeQuery("SELECT id, user_id, ip_address, action, device_info, timestamp, " +
+                "status, created_at FROM " + SecurityLogPartitions.TABLE + " PARTITION (" + partition + ") ORDER BY id");
+             Writer writer = new BufferedWriter(new OutputStreamWriter(
+                     new GZIPOutputStream(Files.newOutputStream(temp)), StandardCharsets.UTF_8))) {
+            writer.write("id,user_id,ip_address,action,device_info,timestamp,status,created_at\n");
+            int columns = rs.getMetaData().getColumnCount();
+            while (rs.next()) {
+                for (int i = 1; i <= columns; i++) {
+                    if (i > 1) writer.write(',');
+                    writer.write(csv(rs.getString(i)));
+                }
+                writer.write('\n');
+                rows++;
+            }
+        } finally {
+            statement.setFetchSize(0);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        return rows;
+    }
+
+    private static String csv(String value) {
+        if (value == null) return "";
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+
+    private static boolean acquireLock(Statement statement) throws SQLException {
+        try (ResultSet rs = statement.executeQuery("SELECT GET_LOCK('" + LOCK_NAME + "', 0)")) {
+            return rs.next() && rs.getInt(1) == 1;
+        }
+    }
+
+    private static List<String> partitions(Statement statement) throws SQLException {
+        List<String> names = new ArrayList<>();
+        try (ResultSet rs = statement.executeQuery("SELECT PARTITION_NAME FROM information_schema.PARTITIONS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = '" + SecurityLogPartitions.TABLE + "' " +
+                "AND PARTITION_NAME IS NOT NULL ORDER BY PARTITION_ORDINAL_POSITION")) {
+            while (rs.next()) {
+                names.add(rs.getString(1));
+            }
+        }
+        return names;
+    }
+}
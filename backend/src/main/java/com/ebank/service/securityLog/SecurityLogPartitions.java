@@ -0,0 +1,41 @@
+package com.ebank.service.securityLog;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+
+/**
+ * Naming of the monthly {@code security_logs} partitions. Partition
+ * {@code pYYYYMM} holds rows whose {@code created_at} falls in that month;
+ * {@code p_future} catches everything past the last monthly partition.
+ */
+public final class SecurityLogPartitions {
+
+    public static final String TABLE = "security_logs";
+    public static final String FUTURE_PARTITION = "p_future";
+
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private SecurityLogPartitions() {
+    }
+
+    public static String name(YearMonth month) {
+        return month.format(NAME_FORMAT);
+    }
+
+    public static Optional<YearMonth> monthOf(String partitionName) {
+        try {
+            return Optional.of(YearMonth.parse(partitionName, NAME_FORMAT));
+        } catch (RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    public static String definition(YearMonth month) {
+        return "PARTITION " + name(month) + " VALUES LESS THAN ('" + month.plusMonths(1).atDay(1) + " 00:00:00')";
+    }
+
+    public static String futureDefinition() {
+        return "PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN (MAXVALUE)";
+    }
+}
@@ -0,0 +1,264 @@
+package com.ebank.service.standingOrder;
+
+import com.ebank.dto.TransactionRequest;
+import com.ebank.exception.*;
+import com.ebank.model.notification.NotificationType;
+import com.ebank.model.standingOrder.ExecutionStatus;
+import com.ebank.model.standingOrder.StandingOrder;
+import com.ebank.model.standingOrder.StandingOrderExecution;
+import com.ebank.model.standingOrder.StandingOrderStatus;
+import com.ebank.model.standingOrder.StandingOrderType;
+import com.ebank.model.transaction.TransactionType;
+import com.ebank.repository.StandingOrderExecutionRepository;
+import com.ebank.repository.StandingOrderRepository;
+import com.ebank.service.BillPaymentService;
+import com.ebank.service.NotificationService;
+import com.ebank.service.TransactionService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs due standing orders through {@link TransactionService} and
+ * {@link BillPaymentService}. The engine polls the (status, next_due_at)
+ * index, takes a short DB lease on each order it will run, and executes the
+ * batch on a bounded pool.
+ * <p>
+ * One occurrence is one transaction: the execution row, the payment and the
+ * move to the next due date commit together or not at all. A node that dies
+ * mid-payment leaves nothing behind and its lease expires; a node that
+ * reaches an occurrence another node already ran fails on the unique
+ * (order, due date) key. Business failures such as insufficient balance are
+ * recorded and the order moves on; anything else is retried later.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.standing-orders.enabled", havingValue = "true", matchIfMissing = true)
+public class StandingOrderEngine {
+
+    private static final Set<Class<? extends RuntimeException>> BUSINESS_FAILURES = Set.of(
+            InsufficientBalanceException.class,
+            AccountNotActiveException.class,
+            AccountNotFoundException.class,
+            BillPaymentException.class,
+            InvalidTransactionException.class,
+            FxRateUnavailableException.class);
+
+    private final StandingOrderRepository standingOrderRepository;
+    private final StandingOrderExecutionRepository executionRepository;
+    private final StandingOrderSchedule schedule;
+    private final TransactionService transactionService;
+    private final BillPaymentService billPaymentService;
+    private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final int batchSize;
+    private final Duration leaseDuration;
+    private final Duration retryDelay;
+
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "standing-orders");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService workers;
+    private final AtomicBoolean busy = new AtomicBoolean();
+
+    public StandingOrderEngine(StandingOrderRepository standingOrderRepository,
+                               StandingOrderExecutionRepository executionRepository,
+                               StandingOrderSchedule schedule,
+                               TransactionService transactionService,
+                               BillPaymentService billPaymentService,
+                               NotificationService notificationService,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.standing-orders.batch-size:100}") int batchSize,
+                               @Value("${app.standing-orders.threads:4}") int threads,
+                               @Value("${app.standing-orders.lease-ms:120000}") long leaseMs,
+                               @Value("${app.standing-orders.retry-delay-ms:600000}") long retryDelayMs) {
+        this.standingOrderRepository = standingOrderRepository;
+        this.executionRepository = executionRepository;
+        this.schedule = schedule;
+        this.transactionService = transactionService;
+        this.billPaymentService = billPaymentService;
+        this.notificationService = notificationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.leaseDuration = Duration.ofMillis(leaseMs);
+        this.retryDelay = Duration.ofMillis(retryDelayMs);
+
+        AtomicInteger workerNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(threads, 1), runnable -> {
+            Thread thread = new Thread(runnable, "standing-orders-" + workerNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.standing-orders.poll-interval-ms:30000}")
+    public void poll() {
+        if (!busy.compareAndSet(false, true)) return;
+
+        coordinator.execute(() -> {
+            try {
+                runDueOrders();
+            } catch (Exception e) {
+                log.error("Standing order cycle failed: {}", e.getMessage());
+            } finally {
+                busy.set(false);
+            }
+        });
+    }
+
+    private void runDueOrders() {
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> due = standingOrderRepository.findDueIds(now, PageRequest.of(0, batchSize));
+            if (due.isEmpty()) return;
+
+            LocalDateTime leaseUntil = now.plus(leaseDuration);
+            List<CompletableFuture<Void>> running = new ArrayList<>(due.size());
+            for (Long orderId : due) {
+                if (standingOrderRepository.claim(orderId, nodeId, now, leaseUntil) == 1) {
+                    running.add(CompletableFuture.runAsync(() -> execute(orderId), workers));
+                }
+            }
+
+            // نسخة أخرى حجزت كل الدفعة
+            if (running.isEmpty()) return;
+            CompletableFuture.allOf(running.toArray(CompletableFuture[]::new)).join();
+
+            if (due.size() < batchSize) return;
+        }
+    }
+
+    private void execute(Long orderId) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> runOccurrence(orderId));
+        } catch (DataIntegrityViolationException e) {
+            log.info("Standing order {} occurrence already executed by another node", orderId);
+            release(orderId, LocalDateTime.now());
+        } catch (RuntimeException e) {
+            if (BUSINESS_FAILURES.contains(e.getClass())) {
+                recordFailure(orderId, e.getMessage());
+            } else {
+                log.error("Standing order {} failed, retrying in {}: {}", orderId, retryDelay, e.getMessage());
+                release(orderId, LocalDateTime.now().plus(retryDelay));
+            }
+        }
+    }
+
+    private void runOccurrence(Long orderId) {
+        StandingOrder order = leasedOrder(orderId);
+        if (order == null) return;
+
+        // الإدراج أولاً: إن سبقتنا نسخة أخرى يفشل هنا قبل أي حركة مالية
+        StandingOrderExecution execution = executionRepository.saveAndFlush(StandingOrderExecution.builder()
+                .standingOrderId(orderId)
+                .dueDate(order.getNextDueDate())
+                .status(ExecutionStatus.SUCCEEDED)
+                .executedAt(LocalDateTime.now())
+                .build());
+
+        execution.setReference(order.getType() == StandingOrderType.TRANSFER
+                ? transfer(order)
+                : payBill(order));
+
+        schedule.advance(order);
+        order.setLeaseOwner(null);
+        order.setLeaseUntil(null);
+        log.info("Executed standing order {} for {}: {}", orderId, execution.getDueDate(), execution.getReference());
+    }
+
+    private String transfer(StandingOrder order) {
+        TransactionRequest request = new TransactionRequest();
+        request.setFromAccount(order.getSourceAccount().getAccountNumber());
+        request.setToAccount(order.getTargetAccountNumber());
+        request.setAmount(order.getAmount());
+        request.setType(TransactionType.TRANSFER);
+        request.setDescription(order.getDescription() != null
+                ? order.getDescription()
+                : "Standing order #" + order.getId());
+        return transactionService.transferFunds(request).getReference();
+    }
+
+    private String payBill(StandingOrder order) {
+        return billPaymentService.processBillPayment(order.getSourceAccount().getId(),
+                order.getBillerCode(), order.getCustomerReference(), order.getAmount()).getReceiptNumber();
+    }
+
+    private void recordFailure(Long orderId, String reason) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                StandingOrder order = leasedOrder(orderId);
+                if (order == null) return;
+
+                LocalDate dueDate = order.getNextDueDate();
+                executionRepository.saveAndFlush(StandingOrderExecution.builder()
+                        .standingOrderId(orderId)
+                        .dueDate(dueDate)
+                        .status(ExecutionStatus.FAILED)
+                        .failureReason(reason)
+                        .executedAt(LocalDateTime.now())
+                        .build());
+
+                schedule.advance(order);
+                order.setLeaseOwner(null);
+                order.setLeaseUntil(null);
+
+                notificationService.sendNotification(order.getOwner().getId(), "Standing order failed",
+                        "Your standing order #" + orderId + " due " + dueDate + " was not executed: " + reason,
+                        NotificationType.ACCOUNT_ALERT);
+                log.warn("Standing order {} failed for {}: {}", orderId, dueDate, reason);
+            });
+        } catch (DataIntegrityViolationException e) {
+            release(orderId, LocalDateTime.now());
+        } catch (RuntimeException e) {
+            log.error("Could not record failure of standing order {}: {}", orderId, e.getMessage());
+            release(orderId, LocalDateTime.now().plus(retryDelay));
+        }
+    }
+
+    // null إذا انتهت مهلتنا وأخذتها نسخة أخرى، أو أوقف العميل الطلب بعد الحجز
+    private StandingOrder leasedOrder(Long orderId) {
+        StandingOrder order = standingOrderRepository.findById(orderId).orElse(null);
+        if (order == null || order.getStatus() != StandingOrderStatus.ACTIVE || !nodeId.equals(order.getLeaseOwner())) {
+            return null;
+        }
+        return order;
+    }
+
+    private void release(Long orderId, LocalDateTime retryAt) {
+        try {
+            standingOrderRepository.release(orderId, nodeId, retryAt);
+        } catch (RuntimeException e) {
+            log.warn("Could not release lease on standing order {}: {}", orderId, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        coordinator.shutdownNow();
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,62 @@
+package com.ebank.service.standingOrder;
+
+import com.ebank.model.standingOrder.StandingOrder;
+import com.ebank.model.standingOrder.StandingOrderStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Works out when a standing order runs next. Every order keeps the same
+ * offset into the daily execution window, derived from its id, so due
+ * orders arrive spread over the window instead of all at its start.
+ */
+@Component
+public class StandingOrderSchedule {
+
+    private final LocalTime windowStart;
+    private final long windowSeconds;
+
+    public StandingOrderSchedule(@Value("${app.standing-orders.window-start:00:00}") String windowStart,
+                                 @Value("${app.standing-orders.window-minutes:240}") long windowMinutes) {
+        this.windowStart = LocalTime.parse(windowStart);
+        this.windowSeconds = Math.max(windowMinutes * 60, 1);
+    }
+
+    /** Moves the order past the occurrence it has just run. */
+    public void advance(StandingOrder order) {
+        scheduleFrom(order, order.getOccurrence() + 1, null);
+    }
+
+    /**
+     * Points the order at occurrence {@code index}, or the first later one on
+     * or after {@code notBefore}; completes the order when that falls after
+     * its end date. The order must already have an id.
+     */
+    public void scheduleFrom(StandingOrder order, int index, LocalDate notBefore) {
+        LocalDate date = order.getFrequency().occurrence(order.getStartDate(), index);
+        while (notBefore != null && date.isBefore(notBefore)) {
+            date = order.getFrequency().occurrence(order.getStartDate(), ++index);
+        }
+
+        if (order.getEndDate() != null && date.isAfter(order.getEndDate())) {
+            order.setStatus(StandingOrderStatus.COMPLETED);
+            order.setNextDueDate(null);
+            order.setNextDueAt(null);
+            return;
+        }
+
+        order.setOccurrence(index);
+        order.setNextDueDate(date);
+        order.setNextDueAt(date.atTime(windowStart).plusSeconds(offsetSeconds(order.getId())));
+    }
+
+    // ضرب في ثابت فيبوناتشي يبعثر المعرّفات المتتالية على النافذة
+    private long offsetSeconds(Long orderId) {
+        long mixed = (orderId * 0x9E3779B97F4A7C15L) >>> 16;
+        return Math.floorMod(mixed, windowSeconds);
+    }
+}
@@ -0,0 +1,16 @@
+package com.ebank.service.wireTransfer;
+
+import java.util.Map;
+
+/**
+ * Sends settlement batches to the recipient bank. Implementations must accept
+ * the same batch id more than once without paying it twice.
+ */
+public interface CounterpartyBankGateway {
+
+    /**
+     * @return rejected reference numbers mapped to the bank's reason; every
+     * other item in the batch was accepted
+     */
+    Map<String, String> submit(OutboundWireBatch batch);
+}
@@ -0,0 +1,52 @@
+package com.ebank.service.wireTransfer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Stand-in for the counterparty banks in development: accepts every item with
+ * a plausible beneficiary account number after an optional simulated delay.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.wire-settlement.gateway", havingValue = "local", matchIfMissing = true)
+public class LocalCounterpartyBankGateway implements CounterpartyBankGateway {
+
+    private static final Pattern ACCOUNT_NUMBER = Pattern.compile("[0-9A-Za-z]{6,34}");
+
+    private final long latencyMs;
+
+    public LocalCounterpartyBankGateway(@Value("${app.wire-settlement.local-gateway.latency-ms:0}") long latencyMs) {
+        this.latencyMs = latencyMs;
+    }
+
+    @Override
+    public Map<String, String> submit(OutboundWireBatch batch) {
+        if (latencyMs > 0) {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while sending batch " + batch.batchId(), e);
+            }
+        }
+
+        Map<String, String> rejected = new HashMap<>();
+        for (OutboundWireBatch.Item item : batch.items()) {
+            if (item.recipientAccountNumber() == null
+                    || !ACCOUNT_NUMBER.matcher(item.recipientAccountNumber()).matches()) {
+                rejected.put(item.referenceNumber(), "Invalid beneficiary account number");
+            }
+        }
+
+        log.debug("Bank {} acknowledged batch {}: {} items, {} rejected",
+                batch.bankCode(), batch.batchId(), batch.items().size(), rejected.size());
+        return rejected;
+    }
+}
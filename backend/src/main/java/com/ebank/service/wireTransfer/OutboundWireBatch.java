@@ -0,0 +1,30 @@
+package com.ebank.service.wireTransfer;
+
+import com.ebank.model.wireTransfer.WireTransfer;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * One outbound message to a counterparty bank. The batch id is the
+ * idempotency key: a batch whose acknowledgement was lost is sent again
+ * under the same id.
+ */
+public record OutboundWireBatch(String batchId, String bankCode, List<Item> items) {
+
+    public record Item(String referenceNumber, String senderAccountNumber, String recipientAccountNumber,
+                       String recipientName, BigDecimal amount, String currency) {
+    }
+
+    static OutboundWireBatch of(String batchId, String bankCode, List<WireTransfer> transfers) {
+        return new OutboundWireBatch(batchId, bankCode, transfers.stream()
+                .map(transfer -> new Item(
+                        transfer.getReferenceNumber(),
+                        transfer.getSenderAccount().getAccountNumber(),
+                        transfer.getRecipientAccountNumber(),
+                        transfer.getRecipientName(),
+                        transfer.getAmount(),
+                        transfer.getCurrency()))
+                .toList());
+    }
+}
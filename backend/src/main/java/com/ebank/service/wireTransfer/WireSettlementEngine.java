@@ -0,0 +1,268 @@
+package com.ebank.service.wireTransfer;
+
+import com.ebank.model.account.Account;
+import com.ebank.model.wireTransfer.WireTransfer;
+import com.ebank.repository.AccountRepository;
+import com.ebank.repository.WireTransferRepository;
+import com.ebank.repository.WireTransferRoute;
+import com.ebank.service.outbox.AccountBalanceChanged;
+import com.ebank.service.outbox.OutboxPublisher;
+import com.ebank.service.reference.ReferenceNumberGenerator;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Settles PENDING wire transfers in the background instead of one reference
+ * per request. Each cycle expires transfers past the settlement window,
+ * re-sends batches whose acknowledgement never arrived, then reads unclaimed
+ * transfers in keyset chunks and groups them by recipient bank.
+ * <p>
+ * A batch is claimed and its senders debited with conditional updates in one
+ * transaction, so a claimed transfer always has its money held. The batch is
+ * then sent to the {@link CounterpartyBankGateway}; accepted transfers are
+ * completed in bulk and rejected ones are refunded and marked FAILED. Every
+ * bank has its own number of lanes, so a slow bank only delays its own batches.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.wire-settlement.enabled", havingValue = "true", matchIfMissing = true)
+public class WireSettlementEngine {
+
+    // نفس نافذة TransferExpiredException في الإكمال اليدوي
+    public static final Duration SETTLEMENT_WINDOW = Duration.ofDays(1);
+
+    private static final String INSUFFICIENT_FUNDS = "Insufficient balance or inactive sender account";
+
+    private final WireTransferRepository wireTransferRepository;
+    private final AccountRepository accountRepository;
+    private final CounterpartyBankGateway gateway;
+    private final ReferenceNumberGenerator referenceNumberGenerator;
+    private final OutboxPublisher outboxPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int chunkSize;
+    private final int batchSize;
+    private final int defaultParallelism;
+    private final Map<String, Integer> bankParallelism;
+    private final Duration staleAfter;
+
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "wire-settlement");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService lanes;
+    private final AtomicBoolean busy = new AtomicBoolean();
+
+    public WireSettlementEngine(WireTransferRepository wireTransferRepository,
+                                AccountRepository accountRepository,
+                                CounterpartyBankGateway gateway,
+                                ReferenceNumberGenerator referenceNumberGenerator,
+                                OutboxPublisher outboxPublisher,
+                                PlatformTransactionManager transactionManager,
+                                Environment environment,
+                                @Value("${app.wire-settlement.chunk-size:500}") int chunkSize,
+                                @Value("${app.wire-settlement.batch-size:100}") int batchSize,
+                                @Value("${app.wire-settlement.threads:8}") int threads,
+                                @Value("${app.wire-settlement.default-parallelism:2}") int defaultParallelism,
+                                @Value("${app.wire-settlement.stale-after-ms:300000}") long staleAfterMs) {
+        this.wireTransferRepository = wireTransferRepository;
+        this.accountRepository = accountRepository;
+        this.gateway = gateway;
+        this.referenceNumberGenerator = referenceNumberGenerator;
+        this.outboxPublisher = outboxPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.batchSize = batchSize;
+        this.defaultParallelism = Math.max(defaultParallelism, 1);
+        this.bankParallelism = Binder.get(environment)
+                .bind("app.wire-settlement.bank-parallelism", Bindable.mapOf(String.class, Integer.class))
+                .orElse(Map.of());
+        this.staleAfter = Duration.ofMillis(staleAfterMs);
+
+        AtomicInteger laneNumber = new AtomicInteger();
+        this.lanes = Executors.newFixedThreadPool(Math.max(threads, 1), runnable -> {
+            Thread thread = new Thread(runnable, "wire-settlement-lane-" + laneNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.wire-settlement.interval-ms:10000}")
+    public void poll() {
+        if (!busy.compareAndSet(false, true)) return;
+
+        coordinator.execute(() -> {
+            try {
+                runCycle();
+            } catch (Exception e) {
+                log.error("Wire settlement cycle failed: {}", e.getMessage());
+            } finally {
+                busy.set(false);
+            }
+        });
+    }
+
+    private void runCycle() {
+        LocalDateTime expiresBefore = LocalDateTime.now().minus(SETTLEMENT_WINDOW);
+        int expired = wireTransferRepository.expirePending(expiresBefore);
+        if (expired > 0) {
+            log.info("Expired {} wire transfers older than {}", expired, SETTLEMENT_WINDOW);
+        }
+
+        resumeStaleBatches();
+
+        long cursor = 0;
+        while (true) {
+            List<WireTransferRoute> chunk = wireTransferRepository.findUnclaimedPendingAfter(
+                    cursor, PageRequest.of(0, chunkSize));
+            if (chunk.isEmpty()) return;
+
+            cursor = chunk.get(chunk.size() - 1).getId();
+            Map<String, List<Long>> byBank = chunk.stream().collect(Collectors.groupingBy(
+                    WireTransferRoute::getRecipientBankCode, LinkedHashMap::new,
+                    Collectors.mapping(WireTransferRoute::getId, Collectors.toList())));
+
+            settleChunk(byBank, expiresBefore);
+        }
+    }
+
+    private void settleChunk(Map<String, List<Long>> byBank, LocalDateTime expiresBefore) {
+        List<CompletableFuture<Void>> running = new ArrayList<>();
+
+        byBank.forEach((bankCode, ids) -> {
+            Queue<List<Long>> batches = new ConcurrentLinkedQueue<>();
+            for (int from = 0; from < ids.size(); from += batchSize) {
+                batches.add(ids.subList(from, Math.min(from + batchSize, ids.size())));
+            }
+
+            int laneCount = Math.min(parallelismFor(bankCode), batches.size());
+            for (int lane = 0; lane < laneCount; lane++) {
+                running.add(CompletableFuture.runAsync(() -> {
+                    List<Long> batch;
+                    while ((batch = batches.poll()) != null) {
+                        settleBatch(bankCode, batch, expiresBefore);
+                    }
+                }, lanes));
+            }
+        });
+
+        CompletableFuture.allOf(running.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private void settleBatch(String bankCode, List<Long> ids, LocalDateTime expiresBefore) {
+        String batchId = referenceNumberGenerator.next("WB");
+
+        try {
+            List<WireTransfer> debited = transactionTemplate.execute(status ->
+                    claimAndDebit(ids, batchId, expiresBefore));
+
+            if (debited != null && !debited.isEmpty()) {
+                dispatch(bankCode, batchId, debited);
+            }
+        } catch (Exception e) {
+            log.error("Settlement batch {} to bank {} failed: {}", batchId, bankCode, e.getMessage());
+        }
+    }
+
+    private List<WireTransfer> claimAndDebit(List<Long> ids, String batchId, LocalDateTime expiresBefore) {
+        if (wireTransferRepository.claim(ids, batchId, LocalDateTime.now(), expiresBefore) == 0) {
+            return List.of();
+        }
+
+        List<WireTransfer> debited = new ArrayList<>();
+        for (WireTransfer transfer : wireTransferRepository.findPendingInBatch(batchId)) {
+            Account sender = transfer.getSenderAccount();
+            if (accountRepository.debitIfCovered(sender.getId(), transfer.getDebitAmount()) == 1) {
+                debited.add(transfer);
+                outboxPublisher.publish(sender.getId(), AccountBalanceChanged.of(sender));
+            } else {
+                wireTransferRepository.markFailed(transfer.getId(), INSUFFICIENT_FUNDS);
+            }
+        }
+        return debited;
+    }
+
+    private void resumeStaleBatches() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime staleBefore = now.minus(staleAfter);
+
+        for (String batchId : wireTransferRepository.findStaleSettlementBatches(staleBefore)) {
+            // نسخة أخرى قد تكون التقطت الدفعة للتو
+            if (wireTransferRepository.reclaimBatch(batchId, now, staleBefore) == 0) continue;
+
+            List<WireTransfer> transfers = wireTransferRepository.findPendingInBatch(batchId);
+            if (transfers.isEmpty()) continue;
+
+            log.info("Re-sending unacknowledged settlement batch {}", batchId);
+            try {
+                dispatch(transfers.get(0).getRecipientBankCode(), batchId, transfers);
+            } catch (Exception e) {
+                log.error("Settlement batch {} still unacknowledged: {}", batchId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Sends a claimed, already debited batch and records the bank's answer.
+     * When the bank does not answer, the rows stay claimed and are re-sent
+     * under the same batch id once they are stale.
+     */
+    private void dispatch(String bankCode, String batchId, List<WireTransfer> transfers) {
+        Map<String, String> rejected = gateway.submit(OutboundWireBatch.of(batchId, bankCode, transfers));
+
+        int completed = transactionTemplate.execute(status -> {
+            List<Long> accepted = new ArrayList<>();
+            for (WireTransfer transfer : transfers) {
+                String reason = rejected.get(transfer.getReferenceNumber());
+                if (reason == null) {
+                    accepted.add(transfer.getId());
+                } else if (wireTransferRepository.markFailed(transfer.getId(), reason) == 1) {
+                    Account sender = transfer.getSenderAccount();
+                    accountRepository.credit(sender.getId(), transfer.getDebitAmount());
+                    outboxPublisher.publish(sender.getId(), AccountBalanceChanged.of(sender));
+                }
+            }
+            return accepted.isEmpty() ? 0
+                    : wireTransferRepository.completeInBatch(accepted, batchId, LocalDateTime.now());
+        });
+
+        log.info("Settled batch {} to bank {}: {} completed, {} rejected",
+                batchId, bankCode, completed, rejected.size());
+    }
+
+    private int parallelismFor(String bankCode) {
+        return Math.max(bankParallelism.getOrDefault(bankCode, defaultParallelism), 1);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        coordinator.shutdownNow();
+        lanes.shutdownNow();
+    }
+}
@@ -0,0 +1,17 @@
+-- الحجوزات على الرصيد المتاح للبطاقات؛ تُكتب بعد الموافقة عليها في الذاكرة
+CREATE TABLE IF NOT EXISTS card_authorizations (
+    id              BIGINT         NOT NULL AUTO_INCREMENT,
+    auth_code       VARCHAR(32)    NOT NULL,
+    card_id         BIGINT         NOT NULL,
+    amount          DECIMAL(17, 2) NOT NULL,
+    captured_amount DECIMAL(17, 2),
+    merchant        VARCHAR(255),
+    status          VARCHAR(32)    NOT NULL,
+    authorized_at   DATETIME(6)    NOT NULL,
+    settled_at      DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_card_authorizations_auth_code UNIQUE (auth_code),
+    -- الحجوزات المعلقة الأقدم من مدة الصلاحية تُلغى عند المطابقة الليلية
+    INDEX idx_card_authorizations_held (status, authorized_at),
+    CONSTRAINT fk_card_authorizations_card FOREIGN KEY (card_id) REFERENCES credit_cards (id)
+);
@@ -0,0 +1,31 @@
+-- حركات رصيد البطاقة (مشتريات ملتقطة وسداد) التي تُبنى منها كشوف الحساب
+CREATE TABLE IF NOT EXISTS card_spend_events (
+    id          BIGINT         NOT NULL AUTO_INCREMENT,
+    card_id     BIGINT         NOT NULL,
+    type        VARCHAR(32)    NOT NULL,
+    amount      DECIMAL(17, 2) NOT NULL,
+    reference   VARCHAR(32)    NOT NULL,
+    occurred_at DATETIME(6)    NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_card_spend_events_card (card_id, occurred_at),
+    CONSTRAINT fk_card_spend_events_card FOREIGN KEY (card_id) REFERENCES credit_cards (id)
+);
+
+-- ملخص كل دورة فوترة مغلقة؛ لوحة البطاقة تقرأ صفاً واحداً
+CREATE TABLE IF NOT EXISTS card_statements (
+    id              BIGINT         NOT NULL AUTO_INCREMENT,
+    card_id         BIGINT         NOT NULL,
+    period_start    DATE           NOT NULL,
+    period_end      DATE           NOT NULL,
+    opening_balance DECIMAL(17, 2) NOT NULL,
+    purchases       DECIMAL(17, 2) NOT NULL,
+    payments        DECIMAL(17, 2) NOT NULL,
+    interest        DECIMAL(17, 2) NOT NULL,
+    closing_balance DECIMAL(17, 2) NOT NULL,
+    minimum_due     DECIMAL(17, 2) NOT NULL,
+    due_date        DATE           NOT NULL,
+    created_at      DATETIME(6)    NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_card_statements_cycle UNIQUE (card_id, period_end),
+    CONSTRAINT fk_card_statements_card FOREIGN KEY (card_id) REFERENCES credit_cards (id)
+);
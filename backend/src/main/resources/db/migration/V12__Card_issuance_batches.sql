@@ -0,0 +1,28 @@
+-- إصدار البطاقات بالجملة: كل بند يُعلَّم في نفس معاملة إدراج بطاقته، فيُستأنف الطلب بعد أي انقطاع
+CREATE TABLE IF NOT EXISTS card_issuance_batches (
+    id           BIGINT      NOT NULL AUTO_INCREMENT,
+    status       VARCHAR(32) NOT NULL,
+    total_cards  INT         NOT NULL,
+    issued_count INT         NOT NULL DEFAULT 0,
+    failed_count INT         NOT NULL DEFAULT 0,
+    created_at   DATETIME(6),
+    heartbeat_at DATETIME(6),
+    completed_at DATETIME(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS card_issuance_items (
+    id               BIGINT         NOT NULL AUTO_INCREMENT,
+    batch_id         BIGINT         NOT NULL,
+    line_number      INT            NOT NULL,
+    account_id       BIGINT         NOT NULL,
+    card_holder_name VARCHAR(255)   NOT NULL,
+    card_type        VARCHAR(32)    NOT NULL,
+    credit_limit     DECIMAL(17, 2) NOT NULL,
+    status           VARCHAR(32)    NOT NULL,
+    card_number      VARCHAR(255),
+    failure_reason   VARCHAR(500),
+    PRIMARY KEY (id),
+    INDEX idx_card_issuance_items_batch (batch_id, status, line_number),
+    CONSTRAINT fk_card_issuance_items_batch FOREIGN KEY (batch_id) REFERENCES card_issuance_batches (id)
+);
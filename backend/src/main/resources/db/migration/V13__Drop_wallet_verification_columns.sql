@@ -0,0 +1,4 @@
+-- أكواد تحقق المحافظ أصبحت في Redis (otp:wallet-verification:<id>) مع TTL، فلا حاجة لأعمدتها
+ALTER TABLE digital_wallets
+    DROP COLUMN verification_code,
+    DROP COLUMN verification_code_expires_at;
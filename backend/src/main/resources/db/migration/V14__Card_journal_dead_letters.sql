@@ -0,0 +1,16 @@
+-- قيود دفتر الحجوزات التي فشلت وحدها بعد إعادة المحاولة تُعزل هنا للمراجعة بدلاً من إيقاف ما بعدها
+CREATE TABLE IF NOT EXISTS card_journal_dead_letters (
+    id              BIGINT         NOT NULL AUTO_INCREMENT,
+    kind            VARCHAR(16)    NOT NULL,
+    card_id         BIGINT         NOT NULL,
+    auth_code       VARCHAR(32),
+    amount          DECIMAL(17, 2),
+    captured_amount DECIMAL(17, 2),
+    delta           DECIMAL(17, 2),
+    merchant        VARCHAR(255),
+    credit_limit    DECIMAL(17, 2),
+    occurred_at     DATETIME(6)    NOT NULL,
+    error           VARCHAR(500),
+    quarantined_at  DATETIME(6)    NOT NULL,
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,7 @@
+-- الإشعار الناتج عن حدث يحمل مفتاحه فلا يتكرر عند إعادة التسليم، والحدث الذي يفشل مراراً يُوقف جانباً للمراجعة
+ALTER TABLE notifications ADD COLUMN dedupe_key VARCHAR(64);
+ALTER TABLE notifications ADD CONSTRAINT uk_notifications_dedupe_key UNIQUE (dedupe_key);
+
+ALTER TABLE outbox_events ADD COLUMN parked_at DATETIME(6);
+ALTER TABLE outbox_events DROP INDEX idx_outbox_events_pending;
+ALTER TABLE outbox_events ADD INDEX idx_outbox_events_pending (published_at, parked_at, available_at, id);
@@ -0,0 +1,2 @@
+-- الطلب الذي توقف بخطأ لا يُحل بإعادة المحاولة يُعلَّم FAILED مع السبب بدلاً من أن يبقى RUNNING
+ALTER TABLE card_issuance_batches ADD COLUMN failure_reason VARCHAR(500);
@@ -0,0 +1,150 @@
+-- الجداول كما كان ينشئها ddl-auto. IF NOT EXISTS: قواعد البيانات القائمة لا تتأثر،
+-- والقواعد الجديدة تحصل على نفس البنية قبل أن تضيف V3 الفهارس.
+
+CREATE TABLE IF NOT EXISTS users (
+    id           BIGINT       NOT NULL AUTO_INCREMENT,
+    username     VARCHAR(255) NOT NULL,
+    password     VARCHAR(255) NOT NULL,
+    email        VARCHAR(255) NOT NULL,
+    role         VARCHAR(32)  NOT NULL,
+    first_name   VARCHAR(255),
+    last_name    VARCHAR(255),
+    phone_number VARCHAR(255),
+    enabled      BIT          NOT NULL,
+    created_at   DATETIME(6)  NOT NULL,
+    updated_at   DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE IF NOT EXISTS accounts (
+    id             BIGINT         NOT NULL AUTO_INCREMENT,
+    account_number VARCHAR(20)    NOT NULL,
+    balance        DECIMAL(17, 2) NOT NULL,
+    account_type   VARCHAR(20)    NOT NULL,
+    user_id        BIGINT         NOT NULL,
+    status         VARCHAR(15)    NOT NULL,
+    created_at     DATETIME(6)    NOT NULL,
+    updated_at     DATETIME(6)    NOT NULL,
+    version        INT            NOT NULL,
+    account_name   VARCHAR(255),
+    currency       VARCHAR(3),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_accounts_account_number UNIQUE (account_number),
+    CONSTRAINT fk_accounts_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS transactions (
+    id                BIGINT         NOT NULL AUTO_INCREMENT,
+    amount            DECIMAL(17, 2) NOT NULL,
+    timestamp         DATETIME(6)    NOT NULL,
+    type              VARCHAR(32)    NOT NULL,
+    reference         VARCHAR(255)   NOT NULL,
+    source_account_id BIGINT         NOT NULL,
+    target_account_id BIGINT,
+    status            VARCHAR(32)    NOT NULL,
+    description       VARCHAR(500),
+    created_at        DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_transactions_source_account FOREIGN KEY (source_account_id) REFERENCES accounts (id),
+    CONSTRAINT fk_transactions_target_account FOREIGN KEY (target_account_id) REFERENCES accounts (id)
+);
+
+CREATE TABLE IF NOT EXISTS bill_payments (
+    id                     BIGINT NOT NULL AUTO_INCREMENT,
+    payer_account_id       BIGINT,
+    biller_code            VARCHAR(255),
+    customer_reference     VARCHAR(255),
+    amount                 DECIMAL(38, 2),
+    payment_date           DATETIME(6),
+    payment_receipt_number VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_bill_payments_receipt_number UNIQUE (payment_receipt_number),
+    CONSTRAINT fk_bill_payments_payer_account FOREIGN KEY (payer_account_id) REFERENCES accounts (id)
+);
+
+CREATE TABLE IF NOT EXISTS wire_transfers (
+    id                       BIGINT NOT NULL AUTO_INCREMENT,
+    sender_account_id        BIGINT,
+    recipient_bank_code      VARCHAR(255),
+    recipient_account_number VARCHAR(255),
+    recipient_name           VARCHAR(255),
+    amount                   DECIMAL(38, 2),
+    currency                 VARCHAR(255),
+    reference_number         VARCHAR(255),
+    status                   VARCHAR(32),
+    initiated_at             DATETIME(6),
+    completed_at             DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_wire_transfers_sender_account FOREIGN KEY (sender_account_id) REFERENCES accounts (id)
+);
+
+CREATE TABLE IF NOT EXISTS credit_cards (
+    id                BIGINT NOT NULL AUTO_INCREMENT,
+    card_number       VARCHAR(255),
+    card_holder_name  VARCHAR(255),
+    expiry_date       DATE,
+    cvv               INT,
+    card_type         VARCHAR(32),
+    account_id        BIGINT,
+    is_active         BIT,
+    credit_limit      DECIMAL(38, 2),
+    available_balance DECIMAL(38, 2),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_credit_cards_card_number UNIQUE (card_number),
+    CONSTRAINT fk_credit_cards_account FOREIGN KEY (account_id) REFERENCES accounts (id)
+);
+
+CREATE TABLE IF NOT EXISTS digital_wallets (
+    id                           BIGINT NOT NULL AUTO_INCREMENT,
+    owner_id                     BIGINT NOT NULL,
+    wallet_address               VARCHAR(255),
+    wallet_type                  VARCHAR(32),
+    linked_phone_number          VARCHAR(255),
+    is_verified                  BIT,
+    verification_code            VARCHAR(255),
+    verification_code_expires_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_digital_wallets_owner FOREIGN KEY (owner_id) REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS discount_coupons (
+    coupon_code    VARCHAR(255) NOT NULL,
+    description    VARCHAR(255),
+    discount_type  VARCHAR(32),
+    discount_value DECIMAL(38, 2),
+    expiry_date    DATE,
+    usage_limit    INT,
+    used_count     INT,
+    active         BIT          NOT NULL,
+    PRIMARY KEY (coupon_code)
+);
+
+CREATE TABLE IF NOT EXISTS notifications (
+    id           BIGINT        NOT NULL AUTO_INCREMENT,
+    recipient_id BIGINT,
+    title        VARCHAR(100),
+    message      VARCHAR(1000),
+    type         VARCHAR(32),
+    is_read      BIT,
+    created_at   DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_notifications_recipient FOREIGN KEY (recipient_id) REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS notification_broadcasts (
+    id                BIGINT        NOT NULL AUTO_INCREMENT,
+    title             VARCHAR(100),
+    message           VARCHAR(1000),
+    type              VARCHAR(32),
+    segment           VARCHAR(32),
+    status            VARCHAR(32),
+    last_recipient_id BIGINT,
+    total_recipients  BIGINT        NOT NULL,
+    delivered_count   BIGINT        NOT NULL,
+    created_at        DATETIME(6),
+    heartbeat_at      DATETIME(6),
+    completed_at      DATETIME(6),
+    PRIMARY KEY (id)
+);
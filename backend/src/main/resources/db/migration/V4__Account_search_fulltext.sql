@@ -0,0 +1,4 @@
+-- بحث الحسابات: فهارس FULLTEXT بمحلل ngram بدل LIKE '%term%'
+-- (يطابق أجزاء من الكلمات وأرقام الحسابات، وحجم الـ token الافتراضي 2)
+ALTER TABLE accounts ADD FULLTEXT INDEX ft_accounts_number_name (account_number, account_name) WITH PARSER ngram;
+ALTER TABLE users ADD FULLTEXT INDEX ft_users_name (first_name, last_name) WITH PARSER ngram;
@@ -0,0 +1,11 @@
+-- المراجع المكررة الموجودة (تصادمات UUID القصيرة أو عكس المعاملة مرتين)
+-- تُميَّز بإضافة رقم المعاملة قبل فرض التفرد
+UPDATE transactions t
+    JOIN (SELECT reference, MIN(id) AS keep_id
+          FROM transactions
+          GROUP BY reference
+          HAVING COUNT(*) > 1) d ON t.reference = d.reference AND t.id <> d.keep_id
+SET t.reference = CONCAT(t.reference, '-', t.id);
+
+-- يخدم البحث الدقيق وبالبادئة (reference LIKE 'TXN-AB%')
+ALTER TABLE transactions ADD CONSTRAINT uk_transactions_reference UNIQUE (reference);
@@ -0,0 +1,11 @@
+-- عمود الحالة قد يكون ENUM أنشأه ddl-auto ولا يقبل EXPIRED
+ALTER TABLE wire_transfers MODIFY status VARCHAR(32);
+
+ALTER TABLE wire_transfers
+    ADD COLUMN settlement_batch      VARCHAR(32),
+    ADD COLUMN settlement_started_at DATETIME(6),
+    ADD COLUMN failure_reason        VARCHAR(255),
+    ADD COLUMN version               INT NOT NULL DEFAULT 0;
+
+-- يخدم قراءة التحويلات المعلقة غير المحجوزة بترتيب المعرّف، واسترجاع الدفعات المتوقفة
+CREATE INDEX idx_wire_transfers_settlement ON wire_transfers (status, settlement_batch, id);
@@ -0,0 +1,13 @@
+-- لقطة سعر الصرف المستخدم في كل حركة: amount بعملة المصدر و target_amount بعملة الوجهة
+ALTER TABLE transactions
+    ADD COLUMN target_amount   DECIMAL(17, 2),
+    ADD COLUMN source_currency VARCHAR(3),
+    ADD COLUMN target_currency VARCHAR(3),
+    ADD COLUMN fx_rate         DECIMAL(19, 10),
+    ADD COLUMN fx_rate_version VARCHAR(32);
+
+-- التحويل الخارجي بعملة تختلف عن عملة الحساب يُخصم بالمبلغ المحوَّل بسعر وقت الإنشاء
+ALTER TABLE wire_transfers
+    ADD COLUMN debit_amount    DECIMAL(38, 2),
+    ADD COLUMN fx_rate         DECIMAL(19, 10),
+    ADD COLUMN fx_rate_version VARCHAR(32);
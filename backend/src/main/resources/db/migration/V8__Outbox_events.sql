@@ -0,0 +1,14 @@
+-- الآثار الجانبية للعمليات المالية تُسجل في نفس المعاملة ثم يسلّمها OutboxRelay بعد الـ commit
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id           BIGINT       NOT NULL AUTO_INCREMENT,
+    event_type   VARCHAR(100) NOT NULL,
+    aggregate_id VARCHAR(64),
+    payload      TEXT         NOT NULL,
+    created_at   DATETIME(6)  NOT NULL,
+    available_at DATETIME(6)  NOT NULL,
+    published_at DATETIME(6),
+    attempts     INT          NOT NULL DEFAULT 0,
+    last_error   VARCHAR(500),
+    PRIMARY KEY (id),
+    INDEX idx_outbox_events_pending (published_at, available_at, id)
+);
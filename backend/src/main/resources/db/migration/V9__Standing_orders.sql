@@ -0,0 +1,42 @@
+CREATE TABLE IF NOT EXISTS standing_orders (
+    id                    BIGINT         NOT NULL AUTO_INCREMENT,
+    owner_id              BIGINT         NOT NULL,
+    source_account_id     BIGINT         NOT NULL,
+    type                  VARCHAR(32)    NOT NULL,
+    target_account_number VARCHAR(20),
+    biller_code           VARCHAR(255),
+    customer_reference    VARCHAR(255),
+    amount                DECIMAL(17, 2) NOT NULL,
+    frequency             VARCHAR(32)    NOT NULL,
+    start_date            DATE           NOT NULL,
+    end_date              DATE,
+    occurrence            INT            NOT NULL,
+    next_due_date         DATE,
+    next_due_at           DATETIME(6),
+    status                VARCHAR(32)    NOT NULL,
+    lease_owner           VARCHAR(64),
+    lease_until           DATETIME(6),
+    description           VARCHAR(500),
+    created_at            DATETIME(6)    NOT NULL,
+    version               INT            NOT NULL DEFAULT 0,
+    PRIMARY KEY (id),
+    -- طابور الاستحقاق: المحرك يقرأ ACTIVE مرتبة حسب next_due_at
+    INDEX idx_standing_orders_due (status, next_due_at),
+    INDEX idx_standing_orders_owner (owner_id, created_at),
+    CONSTRAINT fk_standing_orders_owner FOREIGN KEY (owner_id) REFERENCES users (id),
+    CONSTRAINT fk_standing_orders_source_account FOREIGN KEY (source_account_id) REFERENCES accounts (id)
+);
+
+CREATE TABLE IF NOT EXISTS standing_order_executions (
+    id                BIGINT      NOT NULL AUTO_INCREMENT,
+    standing_order_id BIGINT      NOT NULL,
+    due_date          DATE        NOT NULL,
+    status            VARCHAR(32) NOT NULL,
+    reference         VARCHAR(255),
+    failure_reason    VARCHAR(500),
+    executed_at       DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    -- كل استحقاق يُنفذ مرة واحدة فقط مهما تعددت النسخ أو إعادة التشغيل
+    CONSTRAINT uk_standing_order_executions_due UNIQUE (standing_order_id, due_date),
+    CONSTRAINT fk_standing_order_executions_order FOREIGN KEY (standing_order_id) REFERENCES standing_orders (id)
+);
@@ -0,0 +1,129 @@
+package com.ebank.service.reference;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReferenceNumberGeneratorTest {
+
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 1_250_000;
+
+    private static final String ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+
+    @Test
+    void idsAreUniqueAcrossThreads() throws Exception {
+        ReferenceNumberGenerator generator = new ReferenceNumberGenerator(7, new MockEnvironment());
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<long[]>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                Callable<long[]> task = () -> {
+                    long[] ids = new long[IDS_PER_THREAD];
+                    for (int i = 0; i < IDS_PER_THREAD; i++) {
+                        ids[i] = generator.nextId();
+                    }
+                    return ids;
+                };
+                results.add(executor.submit(task));
+            }
+
+            long[] all = new long[THREADS * IDS_PER_THREAD];
+            int offset = 0;
+            for (Future<long[]> result : results) {
+                long[] ids = result.get();
+                // كل thread يرى معرّفات متزايدة
+                for (int i = 1; i < ids.length; i++) {
+                    assertTrue(ids[i] > ids[i - 1], "ids of one thread must increase");
+                }
+                System.arraycopy(ids, 0, all, offset, ids.length);
+                offset += ids.length;
+            }
+
+            Arrays.parallelSort(all);
+            for (int i = 1; i < all.length; i++) {
+                if (all[i] == all[i - 1]) {
+                    throw new AssertionError("duplicate id " + all[i]);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void encodedIdsCarryAValidCheckCharacter() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < 100_000; i++) {
+            long id = random.nextLong() >>> 1;
+            String encoded = ReferenceNumberGenerator.encode(id);
+
+            assertEquals(14, encoded.length());
+            assertTrue(ReferenceNumberGenerator.hasValidCheckCharacter(encoded), encoded);
+            assertEquals(id, decode(encoded.substring(0, 13)));
+        }
+    }
+
+    @Test
+    void singleCharacterChangesAreDetected() {
+        String encoded = ReferenceNumberGenerator.encode(new ReferenceNumberGenerator(1, new MockEnvironment()).nextId());
+        for (int position = 0; position < encoded.length(); position++) {
+            for (char c : ALPHABET.toCharArray()) {
+                if (c == encoded.charAt(position)) continue;
+                String changed = encoded.substring(0, position) + c + encoded.substring(position + 1);
+                assertFalse(ReferenceNumberGenerator.hasValidCheckCharacter(changed), changed);
+            }
+        }
+    }
+
+    @Test
+    void malformedReferencesAreRejected() {
+        String encoded = ReferenceNumberGenerator.encode(123456789L);
+        assertFalse(ReferenceNumberGenerator.hasValidCheckCharacter(encoded.substring(1)));
+        assertFalse(ReferenceNumberGenerator.hasValidCheckCharacter(encoded + "0"));
+        assertFalse(ReferenceNumberGenerator.hasValidCheckCharacter(encoded.replace(encoded.charAt(0), 'U')));
+    }
+
+    @Test
+    void nextAddsThePrefix() {
+        String reference = new ReferenceNumberGenerator(3, new MockEnvironment()).next("TXN");
+
+        assertTrue(reference.startsWith("TXN-"));
+        assertTrue(ReferenceNumberGenerator.hasValidCheckCharacter(reference.substring(4)));
+    }
+
+    @Test
+    void productionRequiresAnExplicitNodeId() {
+        MockEnvironment prod = new MockEnvironment();
+        prod.setActiveProfiles("prod");
+
+        assertThrows(IllegalStateException.class, () -> new ReferenceNumberGenerator(-1, prod));
+        new ReferenceNumberGenerator(5, prod);
+    }
+
+    @Test
+    void nodeIdMustFitInTenBits() {
+        assertThrows(IllegalStateException.class, () -> new ReferenceNumberGenerator(1024, new MockEnvironment()));
+    }
+
+    private static long decode(String digits) {
+        long id = 0;
+        for (char c : digits.toCharArray()) {
+            id = (id << 5) | ALPHABET.indexOf(c);
+        }
+        return id;
+    }
+}